@@ -0,0 +1,197 @@
+package art_main;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * ArtBenchmarks measures the evaluation and genetics hot paths with the genome corpora of 
+ * {@link CorpusState}. Each operation is done for the next image of the corpus. The 
+ * operations that change an image are done on a copy.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector", 
+		"-Djava.awt.headless=true"})
+public class ArtBenchmarks
+{
+	// ATTRIBUTES	--------------------------------------------------------------
+	
+	private FitnessFunction fitness;
+	private PreScreen preScreen;
+	
+	
+	// OTHER METHODS	------------------------------------------------------------
+	
+	/**
+	 * Creates the fitness function and the pre-screen for the corpus' frame size
+	 * @param corpus The corpus the benchmarks use
+	 */
+	@Setup(Level.Trial)
+	public void createScreens(CorpusState corpus)
+	{
+		this.fitness = FitnessMeasure.combine(FitnessMeasure.values());
+		this.preScreen = new PreScreen(corpus.width, corpus.height);
+	}
+	
+	/**
+	 * @param corpus The corpus
+	 * @return The colour of the next pixel of the next image
+	 */
+	@Benchmark
+	public int getRGB(CorpusState corpus)
+	{
+		return corpus.getImage(corpus.nextIndex()).getRGB(corpus.nextPixel());
+	}
+	
+	/**
+	 * @param corpus The corpus
+	 * @return The fitness of a 48 x 48 sample of the next image
+	 */
+	@Benchmark
+	public double sampleFitness(CorpusState corpus)
+	{
+		return this.fitness.getScore(new ImageSample(corpus.getImage(corpus.nextIndex()), 
+				corpus.width, corpus.height, 48, 48));
+	}
+	
+	/**
+	 * @param corpus The corpus
+	 * @return Why the next image was rejected. Null if it wasn't.
+	 */
+	@Benchmark
+	public PreScreen.Rejection preScreen(CorpusState corpus)
+	{
+		return this.preScreen.screen(corpus.getImage(corpus.nextIndex()));
+	}
+	
+	/**
+	 * The complexity is asked for every image that is bred or reported
+	 * @param corpus The corpus
+	 * @return The complexity of the next image
+	 */
+	@Benchmark
+	public int getComplexity(CorpusState corpus)
+	{
+		return corpus.getImage(corpus.nextIndex()).getComplexity();
+	}
+	
+	/**
+	 * @param corpus The corpus
+	 * @return A copy of the next image
+	 */
+	@Benchmark
+	public FunctionImage createCopy(CorpusState corpus)
+	{
+		return corpus.getImage(corpus.nextIndex()).createCopy();
+	}
+	
+	/**
+	 * @param corpus The corpus
+	 * @return A child of the next image and the image after it
+	 */
+	@Benchmark
+	public FunctionImage createChild(CorpusState corpus)
+	{
+		int index = corpus.nextIndex();
+		return corpus.getImage(index).createChild(corpus.getImage(index + 1), 
+				corpus.getRandom());
+	}
+	
+	/**
+	 * @param corpus The corpus
+	 * @return A mutated copy of the next image
+	 */
+	@Benchmark
+	public FunctionImage mutate(CorpusState corpus)
+	{
+		FunctionImage copy = corpus.getImage(corpus.nextIndex()).createCopy();
+		copy.mutate(corpus.getRandom());
+		return copy;
+	}
+	
+	/**
+	 * @param corpus The corpus
+	 * @return A simplified copy of the next image
+	 */
+	@Benchmark
+	public FunctionImage simplify(CorpusState corpus)
+	{
+		FunctionImage copy = corpus.getImage(corpus.nextIndex()).createCopy();
+		copy.simplify();
+		return copy;
+	}
+	
+	/**
+	 * @param corpus The corpus
+	 * @return A copy of the next packed genome
+	 */
+	@Benchmark
+	public PackedGenome packedCreateCopy(CorpusState corpus)
+	{
+		return corpus.getGenome(corpus.nextIndex()).createCopy();
+	}
+	
+	/**
+	 * @param corpus The corpus
+	 * @return A child of the next packed genome and the genome after it
+	 */
+	@Benchmark
+	public PackedGenome packedCreateChild(CorpusState corpus)
+	{
+		int index = corpus.nextIndex();
+		return corpus.getGenome(index).createChild(corpus.getGenome(index + 1), 
+				corpus.getRandom());
+	}
+	
+	/**
+	 * @param corpus The corpus
+	 * @return A mutated copy of the next packed genome
+	 */
+	@Benchmark
+	public PackedGenome packedMutate(CorpusState corpus)
+	{
+		PackedGenome copy = corpus.getGenome(corpus.nextIndex()).createCopy();
+		copy.mutate(corpus.getRandom());
+		return copy;
+	}
+	
+	/**
+	 * @param corpus The corpus
+	 * @return A simplified copy of the next packed genome
+	 */
+	@Benchmark
+	public PackedGenome packedSimplify(CorpusState corpus)
+	{
+		PackedGenome copy = corpus.getGenome(corpus.nextIndex()).createCopy();
+		copy.simplify();
+		return copy;
+	}
+	
+	/**
+	 * @param corpus The corpus
+	 * @return 8 children bred from the whole corpus
+	 */
+	@Benchmark
+	public ArrayList<FunctionImage> createChildren(CorpusState corpus)
+	{
+		return FunctionImage.createChildren(corpus.getImages(), 8, corpus.getRandom());
+	}
+}
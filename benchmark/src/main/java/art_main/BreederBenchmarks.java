@@ -0,0 +1,67 @@
+package art_main;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * BreederBenchmarks compares breeding a generation of 64 children in parallel against 
+ * breeding it in a single thread
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector", 
+		"-Djava.awt.headless=true"})
+public class BreederBenchmarks
+{
+	// ATTRIBUTES	--------------------------------------------------------------
+	
+	/**
+	 * How many threads breed the children. 0 uses all available processors.
+	 */
+	@Param({"1", "0"})
+	public int parallelism;
+	
+	private Breeder breeder;
+	
+	
+	// OTHER METHODS	------------------------------------------------------------
+	
+	/**
+	 * Creates the breeder
+	 */
+	@Setup(Level.Trial)
+	public void createBreeder()
+	{
+		this.breeder = new Breeder(this.parallelism > 0 ? this.parallelism : 
+				Runtime.getRuntime().availableProcessors());
+	}
+	
+	/**
+	 * @param corpus The corpus
+	 * @return 64 children bred from the whole corpus
+	 */
+	@Benchmark
+	public ArrayList<FunctionImage> createChildren(CorpusState corpus)
+	{
+		return this.breeder.createChildren(corpus.getImages(), 64, corpus.getRandom());
+	}
+}
@@ -0,0 +1,168 @@
+package art_main;
+
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * CorpusState holds the reproducible genome corpus the benchmarks are run with. The 
+ * corpus is parameterized by the size and depth of the function trees and by their shape: 
+ * "random" trees of the given depth or "chain" trees that are as deep as they are large 
+ * (the depth isn't used then). The benchmarks go through the images of the corpus in 
+ * turn, and the pixels of a width x height frame in turn.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+@State(Scope.Thread)
+public class CorpusState
+{
+	// ATTRIBUTES	--------------------------------------------------------------
+	
+	/**
+	 * How many complex functions each image function contains
+	 */
+	@Param({"8", "64", "256"})
+	public int size;
+	
+	/**
+	 * How deep the image functions are at most. 256 complex functions need a depth of 9.
+	 */
+	@Param({"9", "16"})
+	public int depth;
+	
+	/**
+	 * "random" or "chain"
+	 */
+	@Param({"random"})
+	public String shape;
+	
+	/**
+	 * How many images there are in the corpus
+	 */
+	@Param({"32"})
+	public int images;
+	
+	/**
+	 * The seed the corpus and the genetic operations use
+	 */
+	@Param({"42"})
+	public long seed;
+	
+	/**
+	 * The width of the rendered frames
+	 */
+	@Param({"340"})
+	public int width;
+	
+	/**
+	 * The height of the rendered frames
+	 */
+	@Param({"384"})
+	public int height;
+	
+	private ArrayList<FunctionImage> corpus;
+	private ArrayList<PackedGenome> genomes;
+	private SplittableRandom random;
+	private double[] pixel;
+	private int nextImage, nextPixel;
+	
+	
+	// OTHER METHODS	------------------------------------------------------------
+	
+	/**
+	 * Builds the corpus
+	 */
+	@Setup(Level.Trial)
+	public void createCorpus()
+	{
+		if (this.shape.equalsIgnoreCase("chain"))
+			this.corpus = GenomeCorpus.createChainImages(this.seed, this.images, this.size);
+		else
+		{
+			if (!GenomeCorpus.fits(this.size, this.depth))
+			{
+				System.err.println(this.size + " complex functions don't fit in depth " + 
+						this.depth);
+				throw new InvalidParameterException();
+			}
+			this.corpus = GenomeCorpus.createImages(this.seed, this.images, this.size, 
+					this.depth);
+		}
+		
+		// The packed genomes are compared against the function trees
+		this.genomes = new ArrayList<PackedGenome>();
+		for (FunctionImage image : this.corpus)
+		{
+			this.genomes.add(PackedGenome.pack(image));
+		}
+		
+		// The genetic operations are seeded so that every run does the same work
+		this.random = new SplittableRandom(this.seed);
+		this.pixel = new double[2];
+		this.nextImage = 0;
+		this.nextPixel = 0;
+	}
+	
+	/**
+	 * @return The images of the corpus
+	 */
+	public ArrayList<FunctionImage> getImages()
+	{
+		return this.corpus;
+	}
+	
+	/**
+	 * @return The index of the next image of the corpus
+	 */
+	public int nextIndex()
+	{
+		int index = this.nextImage;
+		this.nextImage = (index + 1) % this.corpus.size();
+		return index;
+	}
+	
+	/**
+	 * @param index The index of an image. The index wraps around the end of the corpus.
+	 * @return The image at the index
+	 */
+	public FunctionImage getImage(int index)
+	{
+		return this.corpus.get(index % this.corpus.size());
+	}
+	
+	/**
+	 * @param index The index of an image. The index wraps around the end of the corpus.
+	 * @return The packed genome of the image at the index
+	 */
+	public PackedGenome getGenome(int index)
+	{
+		return this.genomes.get(index % this.genomes.size());
+	}
+	
+	/**
+	 * @return The random number generator the genetic operations use
+	 */
+	public SplittableRandom getRandom()
+	{
+		return this.random;
+	}
+	
+	/**
+	 * @return The coordinates of the next pixel of the frame. The same array is returned 
+	 * each time.
+	 */
+	public double[] nextPixel()
+	{
+		this.pixel[0] = this.nextPixel % this.width;
+		this.pixel[1] = this.nextPixel / this.width;
+		this.nextPixel = (this.nextPixel + 1) % (this.width * this.height);
+		return this.pixel;
+	}
+}
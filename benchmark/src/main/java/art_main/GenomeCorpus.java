@@ -0,0 +1,145 @@
+package art_main;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+
+import art_main.SimpleFunctionGenerator.ConstantFunction;
+
+/**
+ * GenomeCorpus builds reproducible sets of functionImages for the benchmarks. The same 
+ * seed, size and depth always produce the same images. The trees are either divided 
+ * randomly or grown into chains, like trees that keep growing upwards while mutating.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public class GenomeCorpus
+{
+	// CONSTRUCTOR	--------------------------------------------
+	
+	private GenomeCorpus()
+	{
+		// The constructor is hidden since the interface is static
+	}
+
+	
+	// OTHER METHODS	----------------------------------------
+	
+	/**
+	 * Creates a set of images whose functions all have the given size and depth
+	 * 
+	 * @param seed The seed used for building the images
+	 * @param amount How many images are created
+	 * @param size How many complex functions each image function contains
+	 * @param depth How deep the image functions are at most
+	 * @return The created images
+	 */
+	public static ArrayList<FunctionImage> createImages(long seed, int amount, int size, 
+			int depth)
+	{
+		SplittableRandom random = new SplittableRandom(seed);
+		ArrayList<FunctionImage> images = new ArrayList<FunctionImage>();
+		
+		for (int i = 0; i < amount; i++)
+		{
+			Function[] functions = new Function[4];
+			// RGB have reference function value as the last parameter
+			for (int f = 0; f < functions.length; f++)
+			{
+				functions[f] = createFunction(random, size, depth, f == 0 ? 2 : 3);
+			}
+			
+			images.add(new FunctionImage(functions));
+		}
+		
+		return images;
+	}
+	
+	/**
+	 * Creates a set of images whose functions are chains of the given size. Each complex 
+	 * function holds a simple function and the rest of the chain.
+	 * 
+	 * @param seed The seed used for building the images
+	 * @param amount How many images are created
+	 * @param size How many complex functions each image function contains
+	 * @return The created images
+	 */
+	public static ArrayList<FunctionImage> createChainImages(long seed, int amount, int size)
+	{
+		SplittableRandom random = new SplittableRandom(seed);
+		ArrayList<FunctionImage> images = new ArrayList<FunctionImage>();
+		
+		for (int i = 0; i < amount; i++)
+		{
+			Function[] functions = new Function[4];
+			for (int f = 0; f < functions.length; f++)
+			{
+				// The chain is built from the bottom up
+				int parameterAmount = f == 0 ? 2 : 3;
+				Function chain = createFunction(random, 0, 0, parameterAmount);
+				for (int level = 0; level < size; level++)
+				{
+					Function leaf = createFunction(random, 0, 0, parameterAmount);
+					boolean leafFirst = random.nextBoolean();
+					chain = new ComplexFunction(leafFirst ? leaf : chain, 
+							leafFirst ? chain : leaf, 
+							OperatorGenerator.createRandomOperator(random), 
+							FunctionModifier.getRandomModifier(random), null);
+				}
+				functions[f] = chain;
+			}
+			
+			images.add(new FunctionImage(functions));
+		}
+		
+		return images;
+	}
+	
+	/**
+	 * @param size How many complex functions the function tree holds
+	 * @param depth How deep the tree may be
+	 * @return Can a tree of the given size fit into the given depth
+	 */
+	public static boolean fits(int size, int depth)
+	{
+		return depth >= 31 || size <= (1 << depth) - 1;
+	}
+	
+	/**
+	 * Creates a random function tree
+	 * 
+	 * @param random The random number generator used
+	 * @param size How many complex functions the tree holds
+	 * @param depth How deep the tree may be
+	 * @param parameterAmount How many parameters the function can use
+	 * @return The created function
+	 */
+	public static Function createFunction(SplittableRandom random, int size, int depth, 
+			int parameterAmount)
+	{
+		if (size <= 0 || depth <= 0)
+		{
+			// Leaves are parameters or constants
+			if (random.nextDouble() < 0.5)
+				return SimpleFunctionGenerator.createParameterFunction(
+						random.nextInt(parameterAmount), 
+						FunctionModifier.getRandomModifier(random), null);
+			
+			return new ConstantFunction(random.nextDouble() * 200 - 100, 
+					FunctionModifier.getRandomModifier(random), null);
+		}
+		
+		// The rest of the complex functions are divided between the terms
+		int capacity = fits(size, depth - 1) ? size - 1 : (1 << (depth - 1)) - 1;
+		int minimum = Math.max(0, size - 1 - capacity);
+		int maximum = Math.min(size - 1, capacity);
+		int firstSize = minimum + random.nextInt(maximum - minimum + 1);
+		
+		OperatorType[] types = OperatorType.values();
+		return new ComplexFunction(
+				createFunction(random, firstSize, depth - 1, parameterAmount), 
+				createFunction(random, size - 1 - firstSize, depth - 1, parameterAmount), 
+				OperatorGenerator.createOperator(types[random.nextInt(types.length)]), 
+				FunctionModifier.getRandomModifier(random), null);
+	}
+}
@@ -0,0 +1,170 @@
+package art_main;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * PopulationBenchmarks measures the selection operations of a large population and 
+ * reading the individuals of a population snapshot. The population is filled with images 
+ * that share a single small genome so that a million individuals fit in memory. The 
+ * snapshot is written from the population before the measurements.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true"})
+public class PopulationBenchmarks
+{
+	// ATTRIBUTES	--------------------------------------------------------------
+	
+	/**
+	 * How many individuals there are in the population
+	 */
+	@Param({"1000000"})
+	public int size;
+	
+	/**
+	 * The fraction of the bred children that is killed
+	 */
+	@Param({"0.5"})
+	public double kill;
+	
+	/**
+	 * The seed of the founder's genome and the selections
+	 */
+	@Param({"42"})
+	public long seed;
+	
+	private SplittableRandom random;
+	private Function[] genome;
+	private Population population;
+	private File snapshotFile;
+	private PopulationSnapshot snapshot;
+	
+	
+	// OTHER METHODS	------------------------------------------------------------
+	
+	/**
+	 * Fills the population and writes the snapshot
+	 * @throws IOException If the snapshot couldn't be written
+	 */
+	@Setup(Level.Trial)
+	public void createPopulation() throws IOException
+	{
+		this.random = new SplittableRandom(this.seed);
+		
+		// The individuals share the functions of a single founder
+		this.genome = new FunctionImage(2, this.random.split()).getFunctions();
+		this.population = new Population();
+		for (int i = 0; i < this.size; i++)
+		{
+			this.population.add(new FunctionImage(this.genome));
+		}
+		
+		this.snapshotFile = File.createTempFile("population", ".snapshot");
+		PopulationSnapshot.write(this.snapshotFile, this.population.getImages(), 
+				new ArrayList<FunctionImage>(), 0, this.seed);
+		this.snapshot = PopulationSnapshot.open(this.snapshotFile);
+	}
+	
+	/**
+	 * Closes and deletes the snapshot
+	 * @throws IOException If the snapshot couldn't be closed
+	 */
+	@TearDown(Level.Trial)
+	public void deleteSnapshot() throws IOException
+	{
+		this.snapshot.close();
+		this.snapshotFile.delete();
+	}
+	
+	/**
+	 * Boosts a random individual, which moves it in the population
+	 */
+	@Benchmark
+	public void boost()
+	{
+		this.population.get(this.random.nextInt(this.population.size())).boost();
+	}
+	
+	/**
+	 * Breeds a child of two random individuals. Breeding changes the fitness of both 
+	 * parents. A new individual joins the population for each survivor and pushes the 
+	 * least fit parent out. (The newcomers share the founder's genome so that the memory 
+	 * use stays the same.)
+	 * 
+	 * @return The individuals that were removed from the population
+	 */
+	@Benchmark
+	public ArrayList<FunctionImage> breedAndSelect()
+	{
+		FunctionImage mother = this.population.get(this.random.nextInt(
+				this.population.size()));
+		FunctionImage father = this.population.get(this.random.nextInt(
+				this.population.size()));
+		if (mother == father)
+			return null;
+		
+		FunctionImage child = mother.createChild(father, this.random);
+		if (this.random.nextDouble() < this.kill)
+		{
+			child.kill();
+			return null;
+		}
+		
+		child.releaseParents();
+		this.population.add(new FunctionImage(this.genome));
+		return this.population.removeOverPopulation(this.size);
+	}
+	
+	/**
+	 * Removes the least fit individual and adds it back
+	 */
+	@Benchmark
+	public void removeLeastFit()
+	{
+		this.population.add(this.population.removeLeastFit());
+	}
+	
+	/**
+	 * @return The genome of a random individual of the snapshot
+	 * @throws IOException If the genome couldn't be read
+	 */
+	@Benchmark
+	public PackedGenome snapshotGetGenome() throws IOException
+	{
+		return this.snapshot.getGenome(this.random.nextInt(this.size));
+	}
+	
+	/**
+	 * @return A random individual of the snapshot
+	 * @throws IOException If the individual couldn't be read
+	 */
+	@Benchmark
+	public FunctionImage snapshotGetImage() throws IOException
+	{
+		return this.snapshot.getImage(this.random.nextInt(this.size));
+	}
+}
@@ -0,0 +1,78 @@
+package art_main;
+
+import java.security.InvalidParameterException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * RenderBenchmarks measures how long it takes to render a whole frame of an image with 
+ * each of the render backends, using all available processors
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector", 
+		"-Djava.awt.headless=true"})
+public class RenderBenchmarks
+{
+	// ATTRIBUTES	--------------------------------------------------------------
+	
+	/**
+	 * The backend the frames are rendered with
+	 */
+	@Param({"BATCH", "GENERATED", "VECTOR"})
+	public RenderBackend backend;
+	
+	private FunctionRenderer renderer;
+	private int[] pixels;
+	
+	
+	// OTHER METHODS	------------------------------------------------------------
+	
+	/**
+	 * Creates the renderer and the frame
+	 * @param corpus The corpus the benchmarks use
+	 */
+	@Setup(Level.Trial)
+	public void createRenderer(CorpusState corpus)
+	{
+		this.renderer = new FunctionRenderer(64, Runtime.getRuntime().availableProcessors());
+		this.renderer.setBackend(this.backend);
+		if (this.renderer.getBackend() != this.backend)
+		{
+			System.err.println("The " + this.backend + " backend isn't available");
+			throw new InvalidParameterException();
+		}
+		
+		this.pixels = new int[corpus.width * corpus.height];
+	}
+	
+	/**
+	 * @param corpus The corpus
+	 * @return The rendered frame of the next image
+	 */
+	@Benchmark
+	public int[] render(CorpusState corpus)
+	{
+		this.renderer.render(corpus.getImage(corpus.nextIndex()), corpus.width, 
+				corpus.height, this.pixels);
+		return this.pixels;
+	}
+}
@@ -0,0 +1,118 @@
+package art_main;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * TextFormBenchmarks measures how fast the images are written into and read from their 
+ * text form, one image at a time
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ * @see FunctionPrinter
+ * @see FunctionParser
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector", 
+		"-Djava.awt.headless=true"})
+public class TextFormBenchmarks
+{
+	// ATTRIBUTES	--------------------------------------------------------------
+	
+	/**
+	 * Are the constants written as decimal numbers instead of hexadecimal ones
+	 */
+	@Param({"false", "true"})
+	public boolean decimal;
+	
+	private StringWriter text;
+	private FunctionPrinter printer;
+	private String corpusText;
+	private FunctionParser parser;
+	
+	
+	// OTHER METHODS	------------------------------------------------------------
+	
+	/**
+	 * Creates the printer and writes the corpus for the parser
+	 * @param corpus The corpus the benchmarks use
+	 * @throws IOException If the corpus couldn't be written
+	 */
+	@Setup(Level.Trial)
+	public void createText(CorpusState corpus) throws IOException
+	{
+		this.text = new StringWriter();
+		this.printer = new FunctionPrinter(this.text, this.decimal);
+		
+		StringWriter corpusText = new StringWriter();
+		FunctionPrinter corpusPrinter = new FunctionPrinter(corpusText, this.decimal);
+		for (FunctionImage image : corpus.getImages())
+		{
+			corpusPrinter.print(image);
+		}
+		corpusPrinter.flush();
+		this.corpusText = corpusText.toString();
+		this.parser = new FunctionParser(new StringReader(this.corpusText));
+	}
+	
+	/**
+	 * @param corpus The corpus
+	 * @return How long the written text is
+	 * @throws IOException If the image couldn't be written
+	 */
+	@Benchmark
+	public int print(CorpusState corpus) throws IOException
+	{
+		int index = corpus.nextIndex();
+		this.printer.print(corpus.getImage(index));
+		
+		// The text is cleared once the corpus has been written
+		int length = 0;
+		if (index == corpus.getImages().size() - 1)
+		{
+			this.printer.flush();
+			length = this.text.getBuffer().length();
+			this.text.getBuffer().setLength(0);
+		}
+		
+		return length;
+	}
+	
+	/**
+	 * @return The next image read from the corpus text
+	 * @throws IOException If the text couldn't be read
+	 */
+	@Benchmark
+	public FunctionImage nextImage() throws IOException
+	{
+		FunctionImage image = this.parser.nextImage();
+		
+		// The corpus is read again once it ends
+		if (image == null)
+		{
+			this.parser = new FunctionParser(new StringReader(this.corpusText));
+			image = this.parser.nextImage();
+		}
+		
+		return image;
+	}
+}
@@ -0,0 +1,151 @@
+package art_main;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * AllocationTest makes sure that calculating pixel colours doesn't allocate memory once 
+ * the code has warmed up. Both {@link FunctionImage#getRGB(double[])} and the batched 
+ * {@link FunctionImage#getRGBs(double[][], int, int[], int, ValueBuffers)} are checked 
+ * with benchmark corpus images and with images that have evolved for a number of 
+ * generations. The test fails if any bytes were allocated during the measured passes.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public class AllocationTest
+{
+	// ATTRIBUTES	--------------------------------------------------------------
+	
+	private static final long SEED = 42;
+	private static final int GENERATIONS = 10;
+	private static final int WARMUP_PASSES = 5;
+	private static final int MEASURED_PASSES = 3;
+	private static final int WIDTH = 100;
+	private static final int HEIGHT = 100;
+	
+	/**
+	 * The results of the calculations are stored here so that they can't be optimized away
+	 */
+	public static volatile long sink = 0;
+	
+	
+	// TESTS	------------------------------------------------------------------
+	
+	/**
+	 * Calculates the pixels of the images and counts the bytes the thread allocated
+	 */
+	@Test
+	public void pixelColoursDontAllocate()
+	{
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		assumeTrue(threads instanceof com.sun.management.ThreadMXBean && 
+				((com.sun.management.ThreadMXBean) threads)
+				.isThreadAllocatedMemorySupported(), 
+				"The allocated memory can't be measured on this platform");
+		com.sun.management.ThreadMXBean allocations = 
+				(com.sun.management.ThreadMXBean) threads;
+		allocations.setThreadAllocatedMemoryEnabled(true);
+		
+		ArrayList<FunctionImage> images = GenomeCorpus.createImages(SEED, 8, 16, 8);
+		images.addAll(createEvolvedImages(SEED, 16, GENERATIONS));
+		
+		// The arguments and buffers are created before the measurement
+		double[] xs = new double[WIDTH];
+		double[] ys = new double[WIDTH];
+		double[][] batchArgs = new double[][] {xs, ys};
+		double[] pixelArgs = new double[2];
+		int[] output = new int[WIDTH];
+		ValueBuffers buffers = new ValueBuffers();
+		for (int x = 0; x < WIDTH; x++)
+		{
+			xs[x] = x;
+		}
+		
+		for (int pass = 0; pass < WARMUP_PASSES; pass++)
+		{
+			checkImages(images, pixelArgs, batchArgs, output, buffers);
+		}
+		
+		long threadId = Thread.currentThread().getId();
+		long allocatedBefore = allocations.getThreadAllocatedBytes(threadId);
+		for (int pass = 0; pass < MEASURED_PASSES; pass++)
+		{
+			checkImages(images, pixelArgs, batchArgs, output, buffers);
+		}
+		long allocated = allocations.getThreadAllocatedBytes(threadId) - allocatedBefore;
+		
+		long pixels = 2L * MEASURED_PASSES * images.size() * WIDTH * HEIGHT;
+		assertEquals(0, allocated, "Calculating " + pixels + " pixels of " + images.size() + 
+				" images allocated " + allocated + " bytes");
+	}
+	
+	
+	// OTHER METHODS	------------------------------------------------------------
+	
+	private static void checkImages(ArrayList<FunctionImage> images, double[] pixelArgs, 
+			double[][] batchArgs, int[] output, ValueBuffers buffers)
+	{
+		long total = 0;
+		for (int i = 0; i < images.size(); i++)
+		{
+			FunctionImage image = images.get(i);
+			for (int y = 0; y < HEIGHT; y++)
+			{
+				// Each row is calculated one pixel at a time and as a batch
+				pixelArgs[1] = y;
+				for (int x = 0; x < WIDTH; x++)
+				{
+					pixelArgs[0] = x;
+					total += image.getRGB(pixelArgs);
+				}
+				
+				double[] ys = batchArgs[1];
+				for (int x = 0; x < WIDTH; x++)
+				{
+					ys[x] = y;
+				}
+				image.getRGBs(batchArgs, WIDTH, output, 0, buffers);
+				total += output[0];
+			}
+		}
+		
+		sink += total;
+	}
+	
+	private static ArrayList<FunctionImage> createEvolvedImages(long seed, int amount, 
+			int generations)
+	{
+		// The images evolve without selection, like in the first generations of the program
+		SplittableRandom random = new SplittableRandom(seed);
+		ArrayList<FunctionImage> images = new ArrayList<FunctionImage>();
+		for (int i = 0; i < amount; i++)
+		{
+			images.add(new FunctionImage(2, random));
+		}
+		
+		for (int generation = 0; generation < generations; generation++)
+		{
+			ArrayList<FunctionImage> children = new ArrayList<FunctionImage>();
+			for (int i = 0; i < amount; i++)
+			{
+				FunctionImage father = images.get((i + 1 + random.nextInt(amount - 1)) %
+						amount);
+				FunctionImage child = images.get(i).createChild(father, random);
+				child.mutate(random);
+				child.releaseParents();
+				children.add(child);
+			}
+			images = children;
+		}
+		
+		return images;
+	}
+}
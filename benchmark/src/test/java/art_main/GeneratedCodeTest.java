@@ -0,0 +1,107 @@
+package art_main;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * GeneratedCodeTest makes sure that the classes {@link RGBFunctionGenerator} generates 
+ * are accepted by the virtual machine and calculate the same colours as 
+ * {@link FunctionImage#getRGB(double[])}. The images share subtrees between and inside 
+ * their functions so that the generated code stores and loads registers. The test fails 
+ * if an image is interpreted instead or if any pixel differs.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public class GeneratedCodeTest
+{
+	// ATTRIBUTES	--------------------------------------------------------------
+	
+	private static final int WIDTH = 64;
+	private static final int HEIGHT = 64;
+	
+	private static final String[][] SHARED_IMAGES = new String[][] {
+		{"(+ (+ p0 sin:p1) sin:p1)", "p0", "p1", "p2"}, 
+		{"p0", "p2", "p1", "(* p1 (+ (+ p0 sin:p2) sin:p2))"}, 
+		{"(* (- p0 p1) (- p0 p1))", "(+ sin:(- p0 p1) p2)", "cos:(- p0 p1)", 
+				"(/ p2 (- p0 p1))"}, 
+		{"(+ (* sqrt:p0 cos:(* p1 3)) (* sqrt:p0 cos:(* p1 3)))", 
+				"(^ sin:(+ p0 p2) 2)", "(% (+ p0 p2) (+ sin:(+ p0 p2) 3))", 
+				"(- sqrt:p0 (* sqrt:p0 p2))"}, 
+		{"tan:(+ (+ (* p0 p1) (* p0 p1)) (+ (* p0 p1) (* p0 p1)))", 
+				"(+ (+ sin:p2 sin:p2) (+ sin:p2 sin:p2))", "arctan:(* p2 (* p0 p1))", 
+				"(- cbrt:p1 (- cbrt:p1 (- cbrt:p1 p2)))"}
+	};
+	
+	
+	// TESTS	------------------------------------------------------------------
+	
+	/**
+	 * Renders the images with shared subtrees through the generated functions
+	 */
+	@Test
+	public void sharedSubtreesAreGenerated()
+	{
+		ArrayList<FunctionImage> images = new ArrayList<FunctionImage>();
+		for (int i = 0; i < SHARED_IMAGES.length; i++)
+		{
+			images.add(parseImage(SHARED_IMAGES[i]));
+		}
+		
+		checkImages(images);
+	}
+	
+	/**
+	 * Renders benchmark corpus images through the generated functions
+	 */
+	@Test
+	public void corpusImagesAreGenerated()
+	{
+		checkImages(GenomeCorpus.createImages(42, 8, 16, 8));
+	}
+	
+	
+	// OTHER METHODS	------------------------------------------------------------
+	
+	private static void checkImages(ArrayList<FunctionImage> images)
+	{
+		double[] pixelArgs = new double[2];
+		for (int i = 0; i < images.size(); i++)
+		{
+			FunctionImage image = images.get(i);
+			RGBFunction function = image.getRGBFunction();
+			
+			// The interpreter is a member of the generator, the generated classes aren't
+			assertTrue(function.getClass().getDeclaringClass() != RGBFunctionGenerator.class, 
+					"Image " + i + " was interpreted instead of generated");
+			
+			long mismatches = 0;
+			for (int y = 0; y < HEIGHT; y++)
+			{
+				pixelArgs[1] = y - HEIGHT / 2;
+				for (int x = 0; x < WIDTH; x++)
+				{
+					pixelArgs[0] = x - WIDTH / 2;
+					if (function.rgb(pixelArgs[0], pixelArgs[1]) != image.getRGB(pixelArgs))
+						mismatches ++;
+				}
+			}
+			assertEquals(0, mismatches, mismatches + " pixels of image " + i + " differed");
+		}
+	}
+	
+	private static FunctionImage parseImage(String[] functions)
+	{
+		Function[] parsed = new Function[functions.length];
+		for (int i = 0; i < functions.length; i++)
+		{
+			parsed[i] = FunctionParser.parseFunction(functions[i]);
+		}
+		
+		return new FunctionImage(parsed);
+	}
+}
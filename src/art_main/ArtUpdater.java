@@ -8,15 +8,26 @@ import genesis_event.KeyEvent.KeyEventType;
 import genesis_util.StateOperator;
 import genesis_util.Vector3D;
 
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.LinkedList;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 import omega_util.SimpleGameObject;
 
 /**
  * ArtUpdater lets the user pick some of the created images and generates a new generation 
- * based on those.
+ * based on those. The generations are built on a background thread and published to the 
+ * drawers once they are ready. All changes to the population happen on that thread. In 
+ * speculative mode the next generation is built and rendered while the user is still 
+ * judging the current one, so that it can be shown right away if no image is killed.
+ * Degenerate children are replaced by a pre-screen before they are shown. If a snapshot 
+ * file is given, the population is restored from it at start and saved into it whenever 
+ * the population changes.
  * 
  * @author Mikko Hilpinen
  * @since 26.9.2014
@@ -25,11 +36,27 @@ public class ArtUpdater extends SimpleGameObject implements KeyListener
 {
 	// ATTRIBUTES	--------------------------------------------------------
 	
-	private ArrayList<FunctionImage> parents;
+	/**
+	 * The system property that can be used for enabling the speculative mode
+	 */
+	public static final String SPECULATIVE_PROPERTY = "art.speculative";
+	/**
+	 * The system property that can be used for defining the population snapshot file
+	 */
+	public static final String SNAPSHOT_PROPERTY = "art.snapshot";
+	
+	private Population parents;
 	private ArrayList<FunctionImage> children;
 	private FunctionDrawer[] drawers;
 	private int rows, columns;
 	private EventSelector<KeyEvent> selector;
+	private ExecutorService generator;
+	private volatile boolean speculative;
+	private volatile boolean speculationValid;
+	private Generation speculation;
+	private int generationNumber;
+	private PreScreen preScreen;
+	private File snapshotFile;
 	
 	
 	// CONSTRUCTOR	---------------------------------------------------------
@@ -55,13 +82,38 @@ public class ArtUpdater extends SimpleGameObject implements KeyListener
 		if (this.columns < 1)
 			this.columns = 1;
 		
-		this.parents = new ArrayList<FunctionImage>();
+		this.parents = new Population();
 		this.children = new ArrayList<FunctionImage>();
 		this.drawers = new FunctionDrawer[this.rows * this.columns];
 		this.selector = KeyEvent.createEventTypeSelector(KeyEventType.PRESSED);
+		this.generator = Executors.newSingleThreadExecutor(new ThreadFactory()
+		{
+			@Override
+			public Thread newThread(Runnable runnable)
+			{
+				Thread thread = new Thread(runnable, "ArtUpdater");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		this.speculative = false;
+		this.speculationValid = false;
+		this.speculation = null;
+		this.generationNumber = 0;
+		this.snapshotFile = null;
+		
+		String snapshotPath = System.getProperty(SNAPSHOT_PROPERTY);
+		if (snapshotPath != null)
+			this.snapshotFile = new File(snapshotPath);
+		ArrayList<FunctionImage> restoredChildren = restoreSnapshot();
+		
+		// The first images form generation 0, unless they were restored
+		SplittableRandom random = Randomness.createGenerationRandom(this.generationNumber);
+		System.out.println("Seed: " + Randomness.getRunSeed());
 		
 		int w = resolution.getFirstInt() / this.columns;
 		int h = resolution.getSecondInt() / this.rows;
+		this.preScreen = PreScreen.parse(System.getProperty(PreScreen.PROPERTY), w, h);
 		
 		for (int i = 0; i < this.drawers.length; i++)
 		{
@@ -70,10 +122,21 @@ public class ArtUpdater extends SimpleGameObject implements KeyListener
 			
 			//System.out.println("Creates a drawer to (" + x + ", " + y + ")");
 			
-			this.children.add(new FunctionImage(2));
+			if (i < restoredChildren.size())
+				this.children.add(restoredChildren.get(i));
+			else
+				this.children.add(new FunctionImage(2, random.split()));
 			this.drawers[i] = new FunctionDrawer(new Vector3D(x, y), new Vector3D(w, h), 
 					this.children.get(i), this, handlers);
 		}
+		
+		// The children that didn't fit on the screen mature right away
+		for (int i = this.drawers.length; i < restoredChildren.size(); i++)
+		{
+			this.parents.add(restoredChildren.get(i));
+		}
+		
+		setSpeculative(Boolean.getBoolean(SPECULATIVE_PROPERTY));
 	}
 	
 	
@@ -94,8 +157,48 @@ public class ArtUpdater extends SimpleGameObject implements KeyListener
 	@Override
 	public void onKeyEvent(KeyEvent event)
 	{
-		// When a key is pressed, creates a new generation of images
-		createNextGeneration();
+		// When a key is pressed, creates a new generation of images in the background
+		this.generator.execute(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				createNextGeneration();
+			}
+		});
+	}
+	
+	
+	// GETTERS & SETTERS	-----------------------------------------------
+	
+	/**
+	 * @return Is the next generation built while the user is judging the current one
+	 */
+	public boolean isSpeculative()
+	{
+		return this.speculative;
+	}
+	
+	/**
+	 * Changes whether the next generation should be built and rendered while the user is 
+	 * still judging the current one. The speculation is only used if no image is killed.
+	 * @param speculative Should the next generation be built beforehand
+	 */
+	public void setSpeculative(final boolean speculative)
+	{
+		this.speculative = speculative;
+		
+		this.generator.execute(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				if (speculative)
+					startSpeculation();
+				else
+					discardSpeculation();
+			}
+		});
 	}
 
 	
@@ -109,111 +212,255 @@ public class ArtUpdater extends SimpleGameObject implements KeyListener
 	 */
 	public void killDrawer(FunctionDrawer drawer)
 	{
-		// Removes the image (child) and temporarily disables the drawer
-		this.children.remove(drawer.getImage());
-		drawer.getImage().kill();
+		// Temporarily disables the drawer
+		final FunctionImage image = drawer.getImage();
 		drawer.getIsVisibleStateOperator().setState(false);
 		drawer.getIsActiveStateOperator().setState(false);
+		
+		// The speculative generation expected that no image would be killed
+		this.speculationValid = false;
+		
+		// Removes the image (child) from the population
+		this.generator.execute(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				// The image may have matured already if a generation was being built
+				ArtUpdater.this.children.remove(image);
+				ArtUpdater.this.parents.remove(image);
+				image.kill();
+				discardSpeculation();
+				saveSnapshot();
+			}
+		});
 	}
 	
 	private void createNextGeneration()
 	{
+		// Uses the speculative generation if it is still valid
+		Generation next = this.speculation;
+		this.speculation = null;
+		if (next == null)
+			next = createGeneration(false);
+		if (next == null)
+			return;
+		
 		// The previous children reach maturity
 		this.parents.addAll(this.children);
+		this.children = next.children;
+		this.generationNumber = next.number;
 		
-		// Creates the new children
-		this.children = FunctionImage.createChildren(this.parents, this.drawers.length);
-		
-		System.out.println("-----------------------");
-		
-		// Updates the drawers
+		// Updates all of the drawers at once, now that the whole generation is ready
 		for (int drawerIndex = 0; drawerIndex < this.drawers.length; drawerIndex++)
 		{
-			// Also mutates and simplifies the functionImage before use
-			FunctionImage image = this.children.get(drawerIndex);
-			image.mutate();
-			image.simplify();
-			
 			FunctionDrawer drawer = this.drawers[drawerIndex];
-			drawer.setImage(image);
+			if (next.renders != null)
+				drawer.setImage(this.children.get(drawerIndex), next.renders[drawerIndex]);
+			else
+				drawer.setImage(this.children.get(drawerIndex));
 			drawer.getIsVisibleStateOperator().setState(true);
 			drawer.getIsActiveStateOperator().setState(true);
-			
-			System.out.println("Child complexity: " + image.getComplexity());
 		}
 		
+		System.out.println("----------------------- generation " + this.generationNumber);
+		int treeNodes = 0;
+		int sharedNodes = 0;
+		
+		for (FunctionImage image : this.children)
+		{
+			System.out.println("Child complexity: " + image.getComplexity() + ", nodes: " + 
+					image.getTreeNodeAmount() + " -> " + image.getSharedNodeAmount() + 
+					" after sharing subtrees");
+			treeNodes += image.getTreeNodeAmount();
+			sharedNodes += image.getSharedNodeAmount();
+		}
+		
+		if (treeNodes > 0)
+			System.out.println("Shared subtrees removed " + (treeNodes - sharedNodes) + 
+					" of " + treeNodes + " nodes (" + 100 * (treeNodes - sharedNodes) / 
+					treeNodes + "%)");
+		System.out.println(RenderCache.getDefaultCache().getStatistics());
+		System.out.println(FunctionRenderer.getDefaultRenderer().getCullStatistics());
+		if (this.preScreen != null)
+			System.out.println(this.preScreen.getStatistics());
+		
 		// Removes some of the parents if there are too many
-		removeOverPopulation(30);
+		this.parents.removeOverPopulation(30);
+		saveSnapshot();
+		
+		if (this.speculative)
+			startSpeculation();
 	}
 	
-	private void removeOverPopulation(int maximumPopulation)
+	private Generation createGeneration(boolean speculative)
 	{
-		int killAmount = this.parents.size() - maximumPopulation;
+		// Both the parents and the current children take part in the breeding
+		ArrayList<FunctionImage> population = this.parents.getImages();
+		population.addAll(this.children);
 		
-		// If there is not too many parents, no one has to die
-		if (killAmount <= 0)
-			return;
-		
-		// Finds the least fit set of parents
-		int killableFit = 1000;
-		int imagesFound = 0;
-		LinkedList<FunctionImage> toBeKilled = new LinkedList<FunctionImage>();
+		// The seed and the generation number decide how the population is bred
+		int number = this.generationNumber + 1;
+		SplittableRandom random = Randomness.createGenerationRandom(number);
+		ArrayList<FunctionImage> children = null;
+		if (this.preScreen == null)
+			children = FunctionImage.createChildren(population, this.drawers.length, 
+					random.split());
+		else
+			// The degenerate children are replaced before anything is rendered
+			children = this.preScreen.createChildren(population, this.drawers.length, 
+					random.split());
+		if (children == null)
+			return null;
+		Generation generation = new Generation(children, number, speculative);
 		
-		for (FunctionImage image : this.parents)
+		for (int i = 0; i < generation.children.size(); i++)
 		{
-			// Some images can't be killed yet
-			if (!image.canDie())
-				continue;
+			// The speculation is abandoned as soon as an image is killed
+			if (speculative && !this.speculationValid)
+			{
+				generation.discard();
+				return null;
+			}
 			
-			// First, adds any function that can be killed
-			if (imagesFound < killAmount)
-			{	
-				toBeKilled.add(image);
-				imagesFound ++;
+			// Also mutates and simplifies the functionImage before use, unless the 
+			// pre-screen did that already
+			FunctionImage image = generation.children.get(i);
+			if (this.preScreen == null)
+			{
+				image.mutate(random.split());
+				image.simplify();
 			}
-			// Otherwise checks if the image is unfit enough to be killed
-			else
+			
+			// Speculative generations are rendered beforehand
+			if (speculative)
 			{
-				// The first set of images needs to be sorted into fitness order
-				if (imagesFound == killAmount)
-				{
-					toBeKilled.sort(new FitnessComparator());
-					// Also calculates the fitness limit
-					killableFit = toBeKilled.getLast().getFitness();
-					
-					// Doesn't count the images anymore
-					imagesFound ++;
-				}
+				generation.renders[i] = new BufferedImage(
+						this.drawers[i].getDimensions().getFirstInt(), 
+						this.drawers[i].getDimensions().getSecondInt(), 
+						BufferedImage.TYPE_INT_RGB);
 				
-				if (image.getFitness() < killableFit)
+				RenderCache cache = RenderCache.getDefaultCache();
+				if (!cache.load(image, generation.renders[i]))
 				{
-					// Removes the most fit
-					toBeKilled.removeLast();
-					// Adds the new image to the list of killed images
-					toBeKilled.add(image);
-					// Calculates the new standard
-					toBeKilled.sort(new FitnessComparator());
-					killableFit = toBeKilled.getLast().getFitness();
+					FunctionRenderer.getDefaultRenderer().render(image, generation.renders[i]);
+					cache.store(image, generation.renders[i]);
 				}
 			}
 		}
 		
-		// Removes the chosen parents from the population
-		for (FunctionImage image : toBeKilled)
+		return generation;
+	}
+	
+	private void startSpeculation()
+	{
+		if (this.speculation != null)
+			return;
+		
+		// The speculation is built as a separate task so that kills can invalidate it
+		this.speculationValid = true;
+		this.generator.execute(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				if (ArtUpdater.this.speculative && ArtUpdater.this.speculationValid && 
+						ArtUpdater.this.speculation == null)
+					ArtUpdater.this.speculation = createGeneration(true);
+			}
+		});
+	}
+	
+	private void discardSpeculation()
+	{
+		if (this.speculation != null)
+		{
+			this.speculation.discard();
+			this.speculation = null;
+		}
+	}
+	
+	private ArrayList<FunctionImage> restoreSnapshot()
+	{
+		if (this.snapshotFile == null || !this.snapshotFile.exists())
+			return new ArrayList<FunctionImage>();
+		
+		try (PopulationSnapshot snapshot = PopulationSnapshot.open(this.snapshotFile))
+		{
+			ArrayList<FunctionImage> restoredParents = snapshot.getParents();
+			ArrayList<FunctionImage> restoredChildren = snapshot.getChildren();
+			
+			// The evolution continues with the same seed
+			Randomness.setRunSeed(snapshot.getSeed());
+			this.generationNumber = snapshot.getGenerationNumber();
+			this.parents.addAll(restoredParents);
+			
+			System.out.println("Restored generation " + this.generationNumber + " (" + 
+					restoredParents.size() + " parents, " + restoredChildren.size() + 
+					" children) from " + this.snapshotFile);
+			return restoredChildren;
+		}
+		catch (IOException e)
+		{
+			System.err.println("Failed to restore the population from " + 
+					this.snapshotFile);
+			e.printStackTrace();
+			return new ArrayList<FunctionImage>();
+		}
+	}
+	
+	private void saveSnapshot()
+	{
+		if (this.snapshotFile == null)
+			return;
+		
+		try
+		{
+			PopulationSnapshot.write(this.snapshotFile, this.parents.getImages(), 
+					this.children, this.generationNumber, Randomness.getRunSeed());
+		}
+		catch (IOException e)
 		{
-			this.parents.remove(image);
+			System.err.println("Failed to save the population to " + this.snapshotFile);
+			e.printStackTrace();
 		}
 	}
 	
 	
+	
 	// SUBCLASSES	-------------------------------------------------------
 	
-	private static class FitnessComparator implements Comparator<FunctionImage>
+	private static class Generation
 	{
-		@Override
-		public int compare(FunctionImage first, FunctionImage second)
+		// ATTRIBUTES	---------------------------------------------------
+		
+		private ArrayList<FunctionImage> children;
+		private BufferedImage[] renders;
+		private int number;
+		
+		
+		// CONSTRUCTOR	---------------------------------------------------
+		
+		public Generation(ArrayList<FunctionImage> children, int number, boolean rendered)
 		{
-			return first.getFitness() - second.getFitness();
-		}	
+			// Initializes attributes
+			this.children = children;
+			this.number = number;
+			this.renders = null;
+			if (rendered)
+				this.renders = new BufferedImage[children.size()];
+		}
+		
+		
+		// OTHER METHODS	-----------------------------------------------
+		
+		public void discard()
+		{
+			// The children don't count as children of their parents anymore
+			for (FunctionImage child : this.children)
+			{
+				child.discard();
+			}
+		}
 	}
 }
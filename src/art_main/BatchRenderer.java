@@ -0,0 +1,494 @@
+package art_main;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import javax.imageio.ImageIO;
+
+/**
+ * BatchRenderer is a headless entry point that renders a set of functionImages into png 
+ * files. Rendering, png encoding and file writing are separate pipeline stages that are 
+ * connected with bounded queues, so that each stage can work while the others wait.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public class BatchRenderer
+{
+	// ATTRIBUTES	------------------------------------------------------------------
+	
+	private static final PipelineItem END = new PipelineItem(-1, null, null);
+	
+	private int width, height, encoderAmount, queueSize;
+	private File outputDirectory;
+	private FunctionRenderer renderer;
+	
+	
+	// CONSTRUCTOR	------------------------------------------------------------------
+	
+	/**
+	 * Creates a new batchRenderer
+	 * 
+	 * @param width The width of the rendered images (pixels)
+	 * @param height The height of the rendered images (pixels)
+	 * @param outputDirectory The directory the png files are written into
+	 * @param renderer The renderer used for rendering the images
+	 * @param encoderAmount How many threads encode the png files
+	 * @param queueSize How many images may wait between two stages
+	 */
+	public BatchRenderer(int width, int height, File outputDirectory, 
+			FunctionRenderer renderer, int encoderAmount, int queueSize)
+	{
+		// Initializes attributes
+		this.width = width;
+		this.height = height;
+		this.outputDirectory = outputDirectory;
+		this.renderer = renderer;
+		this.encoderAmount = Math.max(1, encoderAmount);
+		this.queueSize = Math.max(1, queueSize);
+	}
+	
+	
+	// MAIN METHOD	------------------------------------------
+	
+	/**
+	 * Renders a set of images into png files. The arguments are given as name value pairs: 
+	 * --count (how many images, 8), --width (1360), --height (768), 
+	 * --generations (how many generations the random images are bred, 0), 
+	 * --output (the output directory, "output"), --tile (the tile size, 64), 
+	 * --threads (render threads, all processors), --encoders (png encoder threads, 2), 
+	 * --queue (the size of the pipeline queues, 4), --backend (BATCH, GENERATED or VECTOR), 
+	 * --culling (fill single colour tiles without calculating them, true), 
+	 * --seed (the seed the images are generated with, the {@value Randomness#SEED_PROPERTY} 
+	 * system property or a random seed), --prescreen (the settings of the pre-screen that 
+	 * rejects degenerate children while breeding, "off" or like "flat=0.95,nan=0.9,noise=0.6", 
+	 * the default settings by default), --snapshot (a population snapshot whose first 
+	 * children are rendered instead of generated images, none by default), --import (a text 
+	 * file whose first images are rendered instead of generated images, none by default)
+	 * 
+	 * @param args The arguments as described above
+	 */
+	public static void main(String[] args)
+	{
+		// No window is used
+		System.setProperty("java.awt.headless", "true");
+		
+		Arguments arguments = new Arguments(args);
+		int processors = Runtime.getRuntime().availableProcessors();
+		
+		FunctionRenderer renderer = new FunctionRenderer(arguments.getInt("tile", 64), 
+				arguments.getInt("threads", processors));
+		renderer.setBackend(RenderBackend.parse(arguments.get("backend", null), 
+				RenderBackend.BATCH));
+		renderer.setCulling(Boolean.parseBoolean(arguments.get("culling", "true")));
+		
+		File outputDirectory = new File(arguments.get("output", "output"));
+		if (!outputDirectory.isDirectory() && !outputDirectory.mkdirs())
+		{
+			System.err.println("Can't create the output directory " + outputDirectory);
+			return;
+		}
+		
+		String seedArgument = arguments.get("seed", null);
+		long seed = seedArgument == null ? Randomness.getRunSeed() : 
+				Randomness.parseSeed(seedArgument);
+		System.out.println("Seed: " + seed);
+		
+		int width = arguments.getInt("width", 1360);
+		int height = arguments.getInt("height", 768);
+		String snapshot = arguments.get("snapshot", null);
+		String importPath = arguments.get("import", null);
+		ArrayList<FunctionImage> images = null;
+		if (importPath != null)
+		{
+			// Only the rendered images are read from the file
+			try
+			{
+				images = FunctionParser.readImages(new File(importPath), 
+						arguments.getInt("count", 8));
+			}
+			catch (IOException e)
+			{
+				System.err.println("Failed to import the images from " + importPath);
+				e.printStackTrace();
+				return;
+			}
+		}
+		else if (snapshot == null)
+			images = generateImages(arguments.getInt("count", 8), 
+					arguments.getInt("generations", 0), seed, 
+					PreScreen.parse(arguments.get("prescreen", null), width, height));
+		else
+		{
+			// Only the rendered images are read from the snapshot
+			try (PopulationSnapshot population = PopulationSnapshot.open(new File(snapshot)))
+			{
+				int amount = Math.min(arguments.getInt("count", 8), 
+						population.getChildAmount());
+				images = new ArrayList<FunctionImage>(amount);
+				for (int i = 0; i < amount; i++)
+				{
+					images.add(population.getImage(population.getParentAmount() + i));
+				}
+			}
+			catch (IOException e)
+			{
+				System.err.println("Failed to read the population snapshot " + snapshot);
+				e.printStackTrace();
+				return;
+			}
+		}
+		
+		BatchRenderer batchRenderer = new BatchRenderer(width, height, outputDirectory, 
+				renderer, arguments.getInt("encoders", 2), arguments.getInt("queue", 4));
+		
+		try
+		{
+			batchRenderer.renderAll(images);
+		}
+		catch (InterruptedException e)
+		{
+			System.err.println("Rendering was interrupted");
+		}
+	}
+	
+	
+	// OTHER METHODS	--------------------------------------
+	
+	/**
+	 * Creates a set of random images. The images may be bred for a number of generations 
+	 * so that they become more complex.
+	 * 
+	 * @param amount How many images are created
+	 * @param generations How many generations the images are bred
+	 * @return The created images
+	 */
+	public static ArrayList<FunctionImage> generateImages(int amount, int generations)
+	{
+		return generateImages(amount, generations, Randomness.getRunSeed());
+	}
+	
+	/**
+	 * Creates a set of random images. The images may be bred for a number of generations 
+	 * so that they become more complex. The same seed always produces the same images.
+	 * 
+	 * @param amount How many images are created
+	 * @param generations How many generations the images are bred
+	 * @param seed The seed the images are generated with
+	 * @return The created images
+	 */
+	public static ArrayList<FunctionImage> generateImages(int amount, int generations, 
+			long seed)
+	{
+		return generateImages(amount, generations, seed, null);
+	}
+	
+	/**
+	 * Creates a set of random images. The images may be bred for a number of generations 
+	 * so that they become more complex. The same seed always produces the same images.
+	 * 
+	 * @param amount How many images are created
+	 * @param generations How many generations the images are bred
+	 * @param seed The seed the images are generated with
+	 * @param preScreen The pre-screen that replaces the degenerate children of each 
+	 * generation. Null if the children aren't screened.
+	 * @return The created images
+	 */
+	public static ArrayList<FunctionImage> generateImages(int amount, int generations, 
+			long seed, PreScreen preScreen)
+	{
+		// The first images are generation 0
+		SplittableRandom random = Randomness.createGenerationRandom(seed, 0);
+		ArrayList<FunctionImage> images = new ArrayList<FunctionImage>();
+		for (int i = 0; i < Math.max(2, amount); i++)
+		{
+			images.add(new FunctionImage(2, random.split()));
+		}
+		
+		// Each generation replaces the previous one
+		for (int i = 1; i <= generations; i++)
+		{
+			random = Randomness.createGenerationRandom(seed, i);
+			if (preScreen != null)
+			{
+				images = preScreen.createChildren(images, images.size(), random.split());
+				System.out.println("Generation " + i + ": " + preScreen.getStatistics());
+				continue;
+			}
+			
+			images = FunctionImage.createChildren(images, images.size(), random.split());
+			for (FunctionImage image : images)
+			{
+				image.mutate(random.split());
+				image.simplify();
+			}
+		}
+		
+		while (images.size() > amount)
+		{
+			images.remove(images.size() - 1);
+		}
+		
+		return images;
+	}
+	
+	/**
+	 * Renders the images into png files named image_[index].png. Returns once all the 
+	 * files have been written.
+	 * 
+	 * @param images The images that are rendered
+	 * @throws InterruptedException If the thread was interrupted while waiting for the 
+	 * other stages
+	 */
+	public void renderAll(ArrayList<FunctionImage> images) throws InterruptedException
+	{
+		final BlockingQueue<PipelineItem> rendered = 
+				new ArrayBlockingQueue<PipelineItem>(this.queueSize);
+		final BlockingQueue<PipelineItem> encoded = 
+				new ArrayBlockingQueue<PipelineItem>(this.queueSize);
+		
+		long started = System.nanoTime();
+		
+		// The encoders and the writer run on their own threads
+		ArrayList<Thread> encoders = new ArrayList<Thread>();
+		for (int i = 0; i < this.encoderAmount; i++)
+		{
+			Thread encoder = new Thread(new Runnable()
+			{
+				@Override
+				public void run()
+				{
+					encode(rendered, encoded);
+				}
+			}, "png-encoder-" + i);
+			encoder.start();
+			encoders.add(encoder);
+		}
+		
+		Thread writer = new Thread(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				write(encoded);
+			}
+		}, "png-writer");
+		writer.start();
+		
+		// The images are rendered on this thread
+		int renderedAmount = 0;
+		for (int i = 0; i < images.size(); i++)
+		{
+			BufferedImage image = new BufferedImage(this.width, this.height, 
+					BufferedImage.TYPE_INT_RGB);
+			try
+			{
+				this.renderer.render(images.get(i), image);
+			}
+			catch (RuntimeException e)
+			{
+				System.err.println("Failed to render image " + i);
+				continue;
+			}
+			
+			rendered.put(new PipelineItem(i, image, null));
+			renderedAmount ++;
+		}
+		
+		// Each encoder stops at its own end marker, the writer stops once all have stopped
+		for (int i = 0; i < encoders.size(); i++)
+		{
+			rendered.put(END);
+		}
+		for (Thread encoder : encoders)
+		{
+			encoder.join();
+		}
+		encoded.put(END);
+		writer.join();
+		
+		double seconds = (System.nanoTime() - started) / 1000000000.0;
+		System.out.println("Rendered " + renderedAmount + " images (" + this.width + "x" + 
+				this.height + ") in " + String.format("%.2f", seconds) + " s, " + 
+				String.format("%.2f", renderedAmount / seconds) + " images per second");
+		System.out.println(this.renderer.getCullStatistics());
+	}
+	
+	private void encode(BlockingQueue<PipelineItem> input, BlockingQueue<PipelineItem> output)
+	{
+		try
+		{
+			while (true)
+			{
+				PipelineItem item = input.take();
+				if (item == END)
+					return;
+				
+				ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				try
+				{
+					ImageIO.write(item.image, "png", bytes);
+				}
+				catch (IOException e)
+				{
+					System.err.println("Failed to encode image " + item.index);
+					continue;
+				}
+				
+				output.put(new PipelineItem(item.index, null, bytes.toByteArray()));
+			}
+		}
+		catch (InterruptedException e)
+		{
+			System.err.println("The png encoder was interrupted");
+		}
+	}
+	
+	private void write(BlockingQueue<PipelineItem> input)
+	{
+		try
+		{
+			while (true)
+			{
+				PipelineItem item = input.take();
+				if (item == END)
+					return;
+				
+				File file = new File(this.outputDirectory, "image_" + item.index + ".png");
+				try (FileOutputStream out = new FileOutputStream(file))
+				{
+					out.write(item.bytes);
+				}
+				catch (IOException e)
+				{
+					System.err.println("Failed to write " + file);
+				}
+			}
+		}
+		catch (InterruptedException e)
+		{
+			System.err.println("The png writer was interrupted");
+		}
+	}
+	
+	
+	// SUBCLASSES	---------------------------------------------
+	
+	private static class PipelineItem
+	{
+		// ATTRIBUTES	-----------------------------------------
+		
+		private int index;
+		private BufferedImage image;
+		private byte[] bytes;
+		
+		
+		// CONSTRUCTOR	-----------------------------------------
+		
+		public PipelineItem(int index, BufferedImage image, byte[] bytes)
+		{
+			// Initializes attributes
+			this.index = index;
+			this.image = image;
+			this.bytes = bytes;
+		}
+	}
+	
+	/**
+	 * Arguments are the name value pairs given to a command line tool
+	 * 
+	 * @author Mikko Hilpinen
+	 * @since 17.10.2026
+	 */
+	static class Arguments
+	{
+		// ATTRIBUTES	-----------------------------------------
+		
+		private String[] args;
+		
+		
+		// CONSTRUCTOR	-----------------------------------------
+		
+		/**
+		 * Wraps the command line arguments
+		 * @param args The command line arguments, given as "--name value" pairs
+		 */
+		public Arguments(String[] args)
+		{
+			// Initializes attributes
+			this.args = args;
+		}
+		
+		
+		// OTHER METHODS	-------------------------------------
+		
+		/**
+		 * @param name The name of the argument (without the dashes)
+		 * @param defaultValue The value returned if the argument wasn't given
+		 * @return The value of the argument
+		 */
+		public String get(String name, String defaultValue)
+		{
+			for (int i = 0; i < this.args.length - 1; i++)
+			{
+				if (this.args[i].equals("--" + name))
+					return this.args[i + 1];
+			}
+			
+			return defaultValue;
+		}
+		
+		/**
+		 * @param name The name of the argument (without the dashes)
+		 * @param defaultValue The value returned if the argument wasn't given or isn't 
+		 * a number
+		 * @return The value of the argument
+		 */
+		public int getInt(String name, int defaultValue)
+		{
+			String value = get(name, null);
+			if (value == null)
+				return defaultValue;
+			
+			try
+			{
+				return Integer.parseInt(value);
+			}
+			catch (NumberFormatException e)
+			{
+				System.err.println("Invalid value for " + name + ": " + value);
+				return defaultValue;
+			}
+		}
+		
+		/**
+		 * @param name The name of the argument (without the dashes)
+		 * @param defaultValue The value returned if the argument wasn't given or isn't 
+		 * a number
+		 * @return The value of the argument
+		 */
+		public double getDouble(String name, double defaultValue)
+		{
+			String value = get(name, null);
+			if (value == null)
+				return defaultValue;
+			
+			try
+			{
+				return Double.parseDouble(value);
+			}
+			catch (NumberFormatException e)
+			{
+				System.err.println("Invalid value for " + name + ": " + value);
+				return defaultValue;
+			}
+		}
+	}
+}
@@ -0,0 +1,175 @@
+package art_main;
+
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Breeder creates the children of a population in parallel with a fork-join pool. Each 
+ * child gets its own random stream, split from the given generator before any child is 
+ * created. A child's parents and functions only depend on its own stream, so the same seed 
+ * produces the same children in the same order no matter how many threads there are.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public class Breeder
+{
+	// ATTRIBUTES	----------------------------------------------
+	
+	/**
+	 * The system property that can be used for setting how many threads the default 
+	 * breeder uses
+	 */
+	public static final String THREADS_PROPERTY = "art.breedingThreads";
+	
+	private static Breeder defaultBreeder = null;
+	
+	private ForkJoinPool pool;
+	
+	
+	// CONSTRUCTOR	----------------------------------------------
+	
+	/**
+	 * Creates a new breeder
+	 * 
+	 * @param parallelism How many threads are used for creating the children
+	 */
+	public Breeder(int parallelism)
+	{
+		// Initializes attributes
+		this.pool = new ForkJoinPool(Math.max(1, parallelism));
+	}
+	
+	
+	// GETTERS & SETTERS	------------------------------------------
+	
+	/**
+	 * @return The breeder used when no other breeder has been specified. The amount of 
+	 * threads is read from the {@value #THREADS_PROPERTY} system property. All available 
+	 * processors are used by default.
+	 */
+	public static synchronized Breeder getDefaultBreeder()
+	{
+		if (defaultBreeder == null)
+			defaultBreeder = new Breeder(Integer.getInteger(THREADS_PROPERTY, 
+					Runtime.getRuntime().availableProcessors()));
+		
+		return defaultBreeder;
+	}
+	
+	/**
+	 * @return How many threads are used for creating the children
+	 */
+	public int getParallelism()
+	{
+		return this.pool.getParallelism();
+	}
+	
+	
+	// OTHER METHODS	----------------------------------------------
+	
+	/**
+	 * Creates a set of children from a set of parents. The parents are only read while the 
+	 * children are created, except for their child counters.
+	 * 
+	 * @param parents The parents that will produce the children. There must be two or more.
+	 * @param childAmount How many children will be created
+	 * @param random The random number generator the children's streams are split from
+	 * @return The children created by the parents
+	 */
+	public ArrayList<FunctionImage> createChildren(List<FunctionImage> parents, 
+			int childAmount, SplittableRandom random)
+	{
+		// A singular image can't create children
+		if (parents.size() < 2)
+		{
+			System.err.println("Can't create children if there aren't two or more parents");
+			throw new InvalidParameterException();
+		}
+		
+		// The streams are split in order so that they don't depend on the scheduling
+		SplittableRandom[] randoms = new SplittableRandom[Math.max(0, childAmount)];
+		for (int i = 0; i < randoms.length; i++)
+		{
+			randoms[i] = random.split();
+		}
+		
+		FunctionImage[] children = new FunctionImage[randoms.length];
+		this.pool.invoke(new BreedingTask(parents, randoms, children, 0, children.length));
+		
+		return new ArrayList<FunctionImage>(Arrays.asList(children));
+	}
+	
+	private static FunctionImage createChild(List<FunctionImage> parents, 
+			SplittableRandom random)
+	{
+		FunctionImage mother = null;
+		FunctionImage father = null;
+		
+		// An image can't mate with itself
+		do
+		{
+			mother = parents.get(random.nextInt(parents.size()));
+			father = parents.get(random.nextInt(parents.size()));
+		}
+		while (mother == father);
+		
+		return mother.createChild(father, random);
+	}
+	
+	
+	// SUBCLASSES	----------------------------------------------
+	
+	private static class BreedingTask extends RecursiveAction
+	{
+		// ATTRIBUTES	-------------------------------------------
+		
+		private static final long serialVersionUID = 1L;
+		
+		private List<FunctionImage> parents;
+		private SplittableRandom[] randoms;
+		private FunctionImage[] children;
+		private int firstChild, lastChild;
+		
+		
+		// CONSTRUCTOR	-------------------------------------------
+		
+		public BreedingTask(List<FunctionImage> parents, SplittableRandom[] randoms, 
+				FunctionImage[] children, int firstChild, int lastChild)
+		{
+			// Initializes attributes
+			this.parents = parents;
+			this.randoms = randoms;
+			this.children = children;
+			this.firstChild = firstChild;
+			this.lastChild = lastChild;
+		}
+		
+		
+		// IMPLEMENTED METHODS	-----------------------------------
+		
+		@Override
+		protected void compute()
+		{
+			// Single children are created, larger sets are split in half
+			if (this.lastChild - this.firstChild <= 1)
+			{
+				if (this.lastChild > this.firstChild)
+					this.children[this.firstChild] = createChild(this.parents, 
+							this.randoms[this.firstChild]);
+			}
+			else
+			{
+				int middle = (this.firstChild + this.lastChild) / 2;
+				invokeAll(new BreedingTask(this.parents, this.randoms, this.children, 
+						this.firstChild, middle), new BreedingTask(this.parents, 
+						this.randoms, this.children, middle, this.lastChild));
+			}
+		}
+	}
+}
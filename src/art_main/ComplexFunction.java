@@ -1,11 +1,12 @@
 package art_main;
 
-import java.util.Random;
-
-import art_main.SimpleFunctionGenerator.ConstantFunction;
+import java.util.SplittableRandom;
 
 /**
- * ComplexFunctions use two functions in order to calculate their value
+ * ComplexFunctions use two functions in order to calculate their value. The size, depth 
+ * and parameter mask of the function tree are kept up to date on each complex function, 
+ * so that they don't have to be calculated again on every level of the tree. They are 
+ * updated whenever a term is replaced and after the terms have mutated or simplified.
  * 
  * @author Mikko Hilpinen
  * @since 25.9.2014
@@ -17,6 +18,7 @@ public class ComplexFunction extends Function
 	private Function term1;
 	private Function term2;
 	private Operator operator;
+	private int subFunctionAmount, depth, parameterMask;
 	
 	
 	// CONSTRUCTOR	-----------------------------------------------------
@@ -43,6 +45,7 @@ public class ComplexFunction extends Function
 		// Informs the terms that they are now under this function
 		term1.setParent(this);
 		term2.setParent(this);
+		updateMetadata();
 	}
 	
 	
@@ -55,10 +58,45 @@ public class ComplexFunction extends Function
 				this.term2.getValue(args));
 	}
 
+	@Override
+	protected void getValuesWithoutModification(double[][] args, int length, 
+			double[] output, ValueBuffers buffers)
+	{
+		// The first term is calculated straight to the output, the second one needs a buffer
+		this.term1.getValues(args, length, output, buffers);
+		double[] values2 = buffers.borrow(length);
+		this.term2.getValues(args, length, values2, buffers);
+		
+		this.operator.getValues(output, values2, length, output);
+		buffers.release();
+	}
+	
+	@Override
+	protected Interval getIntervalWithoutModification(Interval[] args)
+	{
+		return this.operator.getInterval(this.term1.getInterval(args), 
+				this.term2.getInterval(args));
+	}
+	
+	@Override
+	protected void writeInstructionsWithoutModification(FunctionProgram.Writer writer)
+	{
+		// The terms are calculated first, the operator combines them
+		this.term1.writeInstructions(writer);
+		this.term2.writeInstructions(writer);
+		writer.writeOperator(this.operator);
+	}
+
 	@Override
 	protected int getSubFunctionAmount()
 	{
-		return 2 + this.term1.getSubFunctionAmount() + this.term2.getSubFunctionAmount();
+		return this.subFunctionAmount;
+	}
+	
+	@Override
+	protected int getDepth()
+	{
+		return this.depth;
 	}
 
 	@Override
@@ -71,77 +109,97 @@ public class ComplexFunction extends Function
 	@Override
 	public void simplify()
 	{
-		// TODO: Make DRY
-		
-		// If the subFunctions don't depend on parameters, they can be made into simple 
-		// functions. Otherwise they must be simplified in another way
-		if (!this.term1.dependsOnParameters())
-			this.term1 = new ConstantFunction(
-					this.term1.getValueWithoutModification(new double[0]), 
-					this.term1.getModifier(), this);
-		else
-			this.term1.simplify();
-		
-		if (!this.term2.dependsOnParameters())
-			this.term2 = new ConstantFunction(
-					this.term2.getValueWithoutModification(new double[0]), 
-					this.term2.getModifier(), this);
-		else
-			this.term2.simplify();
+		// The terms are simplified first, after which the simplification rules may 
+		// replace them with simpler functions
+		setTerm1(FunctionSimplifier.simplify(this.term1));
+		setTerm2(FunctionSimplifier.simplify(this.term2));
 	}
 
 	@Override
-	protected boolean dependsOnParameters()
+	protected int getParameterMask()
+	{
+		return this.parameterMask;
+	}
+	
+	@Override
+	public long getStructureHash()
 	{
-		// returns if either one of the function's subFunctions depends on parameters
-		return this.term1.dependsOnParameters() || this.term2.dependsOnParameters();
+		long hash = combineHashes(this.operator.getType().ordinal(), getModifier().ordinal());
+		hash = combineHashes(hash, this.term1.getStructureHash());
+		return combineHashes(hash, this.term2.getStructureHash());
 	}
 	
 	@Override
-	public Function createChild(Function father)
+	public Function createChild(Function father, SplittableRandom random)
 	{
-		// There is a chance that only a function on the lower level will be affected by 
-		// the father
-		Random random = new Random();
-		int subFunctionAmount = getSubFunctionAmount();
+		// A child of one of the terms is picked first. That child was never used, so it 
+		// isn't created anymore, but the random numbers are still drawn so that the 
+		// children stay the same.
+		skipTermChild(random);
 		
-		if (random.nextDouble() < 1 - (1.0 / subFunctionAmount))
-		{
-			ComplexFunction child = createCopy();
+		// The child is created like any other function
+		return super.createChild(father, random);
+	}
 			
-			// The change can affect the first term
-			if (random.nextDouble() < (this.term2.getSubFunctionAmount() + 1.0) / 
-					subFunctionAmount)
-				child.setTerm1(child.term1.createChild(father));
-			// Or the second term
-			else
-				child.setTerm2(child.term2.createChild(father));
-		}
-		
-		// Otherwise creates the child like any other function
-		return super.createChild(father);
+	@Override
+	protected void skipChild(SplittableRandom random)
+	{
+		skipTermChild(random);
+		super.skipChild(random);
 	}
 	
 	@Override
-	public void mutate()
+	public void mutate(SplittableRandom random)
 	{
-		Random random = new Random();
-		
 		// Complex functions may transform their terms into simple functions
 		if (random.nextDouble() < getSubFunctionAmount() / 150.0)
 		{
 			if (random.nextDouble() < 0.5)
-				setTerm1(SimpleFunctionGenerator.createSimpleFunction(2, this));
+				setTerm1(SimpleFunctionGenerator.createSimpleFunction(2, this, random));
 			else
-				setTerm2(SimpleFunctionGenerator.createSimpleFunction(2, this));
+				setTerm2(SimpleFunctionGenerator.createSimpleFunction(2, this, random));
 		}
 		else
 			// They can also mutate normally
-			super.mutate();
+			super.mutate(random);
 		
 		// Complex functions also mutate their terms
-		this.term1.mutate();
-		this.term2.mutate();
+		this.term1.mutate(random);
+		this.term2.mutate(random);
+		
+		// The terms may have grown. If this function grew upwards, the new function 
+		// above it was created before the terms changed, so it is updated as well.
+		updateMetadata();
+		ComplexFunction parent = getParent();
+		if (parent != null && (parent.term1 == this || parent.term2 == this))
+			parent.updateMetadata();
+	}
+	
+	
+	// GETTERS & SETTERS	-------------------------------------------
+	
+	/**
+	 * @return The first term of the function
+	 */
+	protected Function getTerm1()
+	{
+		return this.term1;
+	}
+	
+	/**
+	 * @return The second term of the function
+	 */
+	protected Function getTerm2()
+	{
+		return this.term2;
+	}
+	
+	/**
+	 * @return The operator used for combining the terms
+	 */
+	protected Operator getOperator()
+	{
+		return this.operator;
 	}
 	
 	
@@ -152,6 +210,7 @@ public class ComplexFunction extends Function
 		this.term1.setParent(null);
 		this.term1 = newTerm;
 		this.term1.setParent(this);
+		updateMetadata();
 	}
 	
 	// TODO: Make this DRY
@@ -160,5 +219,32 @@ public class ComplexFunction extends Function
 		this.term2.setParent(null);
 		this.term2 = newTerm;
 		this.term2.setParent(this);
+		updateMetadata();
+	}
+	
+	private void updateMetadata()
+	{
+		// The terms are always up to date, so only this level is calculated
+		this.subFunctionAmount = 2 + this.term1.getSubFunctionAmount() + 
+				this.term2.getSubFunctionAmount();
+		this.depth = 1 + Math.max(this.term1.getDepth(), this.term2.getDepth());
+		// The function depends on the parameters either one of its subFunctions depends on
+		this.parameterMask = this.term1.getParameterMask() | this.term2.getParameterMask();
+	}
+	
+	private void skipTermChild(SplittableRandom random)
+	{
+		// There is a chance that only a function on the lower level is affected by the 
+		// father
+		if (random.nextDouble() < 1 - (1.0 / this.subFunctionAmount))
+		{
+			// The change can affect the first term
+			if (random.nextDouble() < (this.term2.getSubFunctionAmount() + 1.0) / 
+					this.subFunctionAmount)
+				this.term1.skipChild(random);
+			// Or the second term
+			else
+				this.term2.skipChild(random);
+		}
 	}
 }
@@ -0,0 +1,561 @@
+package art_main;
+
+import java.io.File;
+import java.io.IOException;
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Evolver breeds functionImages without a user. It works like the ArtUpdater, but a 
+ * fitness function judges each generation of children instead of the user. The worst 
+ * children are killed and the best one is boosted, so the fitness of the parents follows 
+ * the same rules as when the images are picked by hand. The population can be saved into 
+ * a snapshot and restored from it later.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public class Evolver
+{
+	// ATTRIBUTES	------------------------------------------------------------------
+	
+	private FitnessFunction fitnessFunction;
+	private int childAmount, maximumPopulation, frameWidth, frameHeight, sampleWidth, 
+			sampleHeight, generationNumber;
+	private double killFraction;
+	private long seed;
+	private Population parents;
+	private ArrayList<FunctionImage> children;
+	private double[] scores;
+	private PreScreen preScreen;
+	private int rejectedChildren;
+	private File snapshotFile;
+	
+	
+	// CONSTRUCTOR	------------------------------------------------------------------
+	
+	/**
+	 * Creates a new evolver. The first generation is created and judged right away.
+	 * 
+	 * @param fitnessFunction The function that judges the children
+	 * @param childAmount How many children are created in each generation (at least 2)
+	 * @param maximumPopulation How many parents may be kept at most
+	 * @param frameWidth The width of the frame the images are judged in (pixels)
+	 * @param frameHeight The height of the frame the images are judged in (pixels)
+	 * @param seed The seed the images are bred with
+	 */
+	public Evolver(FitnessFunction fitnessFunction, int childAmount, int maximumPopulation, 
+			int frameWidth, int frameHeight, long seed)
+	{
+		this(fitnessFunction, childAmount, maximumPopulation, frameWidth, frameHeight, seed, 
+				null);
+	}
+	
+	/**
+	 * Creates a new evolver. The first generation is judged right away.
+	 * 
+	 * @param fitnessFunction The function that judges the children
+	 * @param childAmount How many children are created in each generation (at least 2)
+	 * @param maximumPopulation How many parents may be kept at most
+	 * @param frameWidth The width of the frame the images are judged in (pixels)
+	 * @param frameHeight The height of the frame the images are judged in (pixels)
+	 * @param seed The seed the images are bred with
+	 * @param firstGeneration The images that form the first generation. There may be any 
+	 * number of them. Null if the first generation should be created randomly.
+	 */
+	public Evolver(FitnessFunction fitnessFunction, int childAmount, int maximumPopulation, 
+			int frameWidth, int frameHeight, long seed, List<FunctionImage> firstGeneration)
+	{
+		if (childAmount < 2)
+		{
+			System.err.println("Each generation needs at least two children");
+			throw new InvalidParameterException();
+		}
+		
+		// Initializes attributes
+		this.fitnessFunction = fitnessFunction;
+		this.childAmount = childAmount;
+		this.maximumPopulation = maximumPopulation;
+		this.frameWidth = frameWidth;
+		this.frameHeight = frameHeight;
+		this.sampleWidth = 48;
+		this.sampleHeight = 48;
+		this.killFraction = 0.5;
+		this.seed = seed;
+		this.generationNumber = 0;
+		this.parents = new Population();
+		this.children = new ArrayList<FunctionImage>();
+		this.preScreen = null;
+		this.rejectedChildren = 0;
+		this.snapshotFile = null;
+		
+		// The first images form generation 0
+		if (firstGeneration != null)
+			this.children.addAll(firstGeneration);
+		else
+		{
+			SplittableRandom random = Randomness.createGenerationRandom(seed, 0);
+			for (int i = 0; i < childAmount; i++)
+			{
+				this.children.add(new FunctionImage(2, random.split()));
+			}
+		}
+		judgeChildren();
+	}
+	
+	
+	// MAIN METHOD	------------------------------------------------------------------
+	
+	/**
+	 * Evolves a set of images and renders the last generation into png files. The arguments 
+	 * are given as name value pairs: --generations (how many generations are bred, 1000), 
+	 * --children (children per generation, 12), --population (maximum amount of parents, 
+	 * 30), --fitness (comma separated fitness measures, "variance,edges,entropy,nan,flat"), 
+	 * --kill (the fraction of each generation that is killed, 0.5), --width (the width of 
+	 * the judged frame, 340), --height (the height of the judged frame, 384), 
+	 * --sample (how many points are sampled in each direction, 48), --report (generations 
+	 * between progress reports, 100), --seed (the seed the images are bred with, the 
+	 * {@value Randomness#SEED_PROPERTY} system property or a random seed), --output (the 
+	 * directory the last generation is rendered into, not rendered by default), 
+	 * --prescreen (the settings of the pre-screen that rejects degenerate children, "off" 
+	 * or like "flat=0.95,nan=0.9,noise=0.6", the default settings by default), --snapshot 
+	 * (the file the population is restored from if it exists and saved into at each 
+	 * report, not saved by default), --import (a text file whose images form the first 
+	 * generation instead of random ones), --export (the text file the last generation and 
+	 * the parents are written into, not written by default), --decimal (should the 
+	 * exported constants be decimal instead of exact hexadecimal, false)
+	 * 
+	 * @param args The arguments as described above
+	 */
+	public static void main(String[] args)
+	{
+		// No window is used
+		System.setProperty("java.awt.headless", "true");
+		
+		BatchRenderer.Arguments arguments = new BatchRenderer.Arguments(args);
+		String seedArgument = arguments.get("seed", null);
+		long seed = seedArgument == null ? Randomness.getRunSeed() : 
+				Randomness.parseSeed(seedArgument);
+		int width = arguments.getInt("width", 340);
+		int height = arguments.getInt("height", 384);
+		int sample = arguments.getInt("sample", 48);
+		System.out.println("Seed: " + seed);
+		
+		// The first generation may be read from a file
+		ArrayList<FunctionImage> firstGeneration = null;
+		String importPath = arguments.get("import", null);
+		if (importPath != null)
+		{
+			try
+			{
+				long started = System.nanoTime();
+				firstGeneration = FunctionParser.readImages(new File(importPath), 
+						Integer.MAX_VALUE);
+				System.out.println("Imported " + firstGeneration.size() + " images in " + 
+						(System.nanoTime() - started) / 1000000 + " ms");
+			}
+			catch (IOException e)
+			{
+				System.err.println("Failed to import the images from " + importPath);
+				e.printStackTrace();
+				return;
+			}
+			
+			if (firstGeneration.size() < 2)
+			{
+				System.err.println("The first generation needs at least two images");
+				return;
+			}
+		}
+		
+		Evolver evolver = new Evolver(FitnessMeasure.parse(arguments.get("fitness", null), 
+				FitnessMeasure.combine(FitnessMeasure.values())), 
+				arguments.getInt("children", 12), arguments.getInt("population", 30), 
+				width, height, seed, firstGeneration);
+		evolver.setSampleSize(sample, sample);
+		evolver.setKillFraction(arguments.getDouble("kill", 0.5));
+		evolver.setPreScreen(PreScreen.parse(arguments.get("prescreen", null), width, height));
+		
+		// The evolution may continue from a previous run
+		String snapshot = arguments.get("snapshot", null);
+		if (snapshot != null)
+		{
+			File snapshotFile = new File(snapshot);
+			if (snapshotFile.exists())
+			{
+				try (PopulationSnapshot restored = PopulationSnapshot.open(snapshotFile))
+				{
+					evolver.restore(restored);
+					System.out.println("Restored generation " + 
+							evolver.getGenerationNumber() + " from " + snapshotFile + 
+							", seed: " + restored.getSeed());
+				}
+				catch (IOException e)
+				{
+					System.err.println("Failed to restore the population from " + 
+							snapshotFile);
+					e.printStackTrace();
+					return;
+				}
+			}
+			evolver.setSnapshotFile(snapshotFile);
+		}
+		
+		evolver.evolve(arguments.getInt("generations", 1000), 
+				Math.max(1, arguments.getInt("report", 100)));
+		
+		// The population may be exported as text, the last generation first
+		String exportPath = arguments.get("export", null);
+		if (exportPath != null)
+		{
+			ArrayList<FunctionImage> exported = evolver.getChildren();
+			exported.addAll(evolver.getParents());
+			try
+			{
+				FunctionPrinter.writeImages(new File(exportPath), exported, 
+						Boolean.parseBoolean(arguments.get("decimal", "false")));
+			}
+			catch (IOException e)
+			{
+				System.err.println("Failed to export the images to " + exportPath);
+				e.printStackTrace();
+			}
+		}
+		
+		// The last generation may be rendered for viewing
+		String output = arguments.get("output", null);
+		if (output != null)
+		{
+			File outputDirectory = new File(output);
+			if (!outputDirectory.isDirectory() && !outputDirectory.mkdirs())
+			{
+				System.err.println("Can't create the output directory " + outputDirectory);
+				return;
+			}
+			
+			try
+			{
+				new BatchRenderer(width, height, outputDirectory, 
+						FunctionRenderer.getDefaultRenderer(), 2, 4).renderAll(
+						evolver.getChildren());
+			}
+			catch (InterruptedException e)
+			{
+				System.err.println("Rendering was interrupted");
+			}
+		}
+	}
+	
+	
+	// GETTERS & SETTERS	------------------------------------------------------------
+	
+	/**
+	 * @return The number of the latest generation
+	 */
+	public int getGenerationNumber()
+	{
+		return this.generationNumber;
+	}
+	
+	/**
+	 * @return The children of the latest generation that survived the selection, the best 
+	 * one first
+	 */
+	public ArrayList<FunctionImage> getChildren()
+	{
+		return new ArrayList<FunctionImage>(this.children);
+	}
+	
+	/**
+	 * @return The parents that take part in the breeding
+	 */
+	public ArrayList<FunctionImage> getParents()
+	{
+		return this.parents.getImages();
+	}
+	
+	/**
+	 * @return The scores the children of the latest generation got, the best one first. 
+	 * Killed children are included.
+	 */
+	public double[] getScores()
+	{
+		return this.scores.clone();
+	}
+	
+	/**
+	 * Changes how many points of each image are sampled for the fitness function
+	 * @param width How many points are sampled on each row
+	 * @param height How many rows are sampled
+	 */
+	public void setSampleSize(int width, int height)
+	{
+		this.sampleWidth = Math.max(1, width);
+		this.sampleHeight = Math.max(1, height);
+	}
+	
+	/**
+	 * @return The pre-screen that rejects degenerate children before they are judged. Null 
+	 * if the children aren't screened.
+	 */
+	public PreScreen getPreScreen()
+	{
+		return this.preScreen;
+	}
+	
+	/**
+	 * Changes the pre-screen that rejects degenerate children before they are judged
+	 * @param preScreen The new pre-screen. Null if the children shouldn't be screened.
+	 */
+	public void setPreScreen(PreScreen preScreen)
+	{
+		this.preScreen = preScreen;
+	}
+	
+	/**
+	 * @return The file the population is saved into at each report. Null if the population 
+	 * isn't saved.
+	 */
+	public File getSnapshotFile()
+	{
+		return this.snapshotFile;
+	}
+	
+	/**
+	 * Changes the file the population is saved into at each report
+	 * @param snapshotFile The new snapshot file. Null if the population shouldn't be saved.
+	 */
+	public void setSnapshotFile(File snapshotFile)
+	{
+		this.snapshotFile = snapshotFile;
+	}
+	
+	/**
+	 * Changes how large part of each generation is killed
+	 * @param killFraction The fraction of the children that is killed (0 - 1)
+	 */
+	public void setKillFraction(double killFraction)
+	{
+		this.killFraction = Math.max(0, Math.min(1, killFraction));
+	}
+	
+	
+	// OTHER METHODS	----------------------------------------------------------------
+	
+	/**
+	 * Breeds the next generation and judges it. The children of the previous generation 
+	 * become parents and the least fit parents are removed from the population.
+	 */
+	public void createNextGeneration()
+	{
+		// Both the parents and the current children take part in the breeding
+		ArrayList<FunctionImage> population = this.parents.getImages();
+		population.addAll(this.children);
+		
+		// The seed and the generation number decide how the population is bred
+		this.generationNumber ++;
+		SplittableRandom random = Randomness.createGenerationRandom(this.seed, 
+				this.generationNumber);
+		ArrayList<FunctionImage> children = null;
+		if (this.preScreen == null)
+		{
+			children = FunctionImage.createChildren(population, this.childAmount, 
+					random.split());
+			for (FunctionImage image : children)
+			{
+				image.mutate(random.split());
+				image.simplify();
+			}
+		}
+		else
+		{
+			children = this.preScreen.createChildren(population, this.childAmount, 
+					random.split());
+			this.rejectedChildren += this.preScreen.getRejectedAmount();
+		}
+		
+		// The previous children reach maturity
+		this.parents.addAll(this.children);
+		this.children = children;
+		this.parents.removeOverPopulation(this.maximumPopulation);
+		
+		// Parents that don't get to have enough children can't die due to low fitness. If 
+		// the population is still too large, only such parents are left at the top of the 
+		// heap and removeLeastFit retires the oldest of them.
+		while (this.parents.size() > this.maximumPopulation)
+		{
+			this.parents.removeLeastFit().releaseCompiledForms();
+		}
+		
+		judgeChildren();
+	}
+	
+	/**
+	 * Breeds a number of generations, printing the progress every now and then
+	 * 
+	 * @param generations How many generations are bred
+	 * @param reportInterval How many generations are bred between the reports
+	 */
+	public void evolve(int generations, int reportInterval)
+	{
+		long started = System.nanoTime();
+		long lastReport = started;
+		
+		for (int i = 1; i <= generations; i++)
+		{
+			createNextGeneration();
+			
+			if (i % reportInterval == 0 || i == generations)
+			{
+				long now = System.nanoTime();
+				int reported = i % reportInterval == 0 ? reportInterval : i % reportInterval;
+				System.out.println(getReport(reported / ((now - lastReport) / 1000000000.0), 
+						reported));
+				lastReport = now;
+				this.rejectedChildren = 0;
+				
+				if (this.snapshotFile != null)
+				{
+					try
+					{
+						save(this.snapshotFile);
+					}
+					catch (IOException e)
+					{
+						System.err.println("Failed to save the population to " + 
+								this.snapshotFile);
+						e.printStackTrace();
+					}
+				}
+			}
+		}
+		
+		double seconds = (System.nanoTime() - started) / 1000000000.0;
+		System.out.println("Bred " + generations + " generations in " + 
+				Math.round(seconds * 1000) / 1000.0 + " s (" + 
+				Math.round(generations / seconds * 10) / 10.0 + " generations / s)");
+	}
+	
+	/**
+	 * Saves the parents and the children of the latest generation into a snapshot file
+	 * @param file The file the population is saved into
+	 * @throws IOException If the file couldn't be written
+	 * @see PopulationSnapshot
+	 */
+	public void save(File file) throws IOException
+	{
+		PopulationSnapshot.write(file, this.parents.getImages(), this.children, 
+				this.generationNumber, this.seed);
+	}
+	
+	/**
+	 * Replaces the population with the one in a snapshot. The evolution continues from the 
+	 * generation the snapshot was taken in, with the same seed. The scores of the latest 
+	 * generation aren't restored.
+	 * 
+	 * @param snapshot The snapshot the population is restored from
+	 * @throws IOException If the snapshot couldn't be read
+	 */
+	public void restore(PopulationSnapshot snapshot) throws IOException
+	{
+		ArrayList<FunctionImage> restoredParents = snapshot.getParents();
+		ArrayList<FunctionImage> restoredChildren = snapshot.getChildren();
+		if (restoredParents.size() + restoredChildren.size() < 2)
+			throw new IOException("The snapshot doesn't have enough images to breed");
+		
+		// The current population is replaced
+		for (FunctionImage image : this.parents.getImages())
+		{
+			this.parents.remove(image);
+			image.releaseCompiledForms();
+		}
+		this.parents.addAll(restoredParents);
+		this.children = restoredChildren;
+		this.generationNumber = snapshot.getGenerationNumber();
+		this.seed = snapshot.getSeed();
+	}
+	
+	private void judgeChildren()
+	{
+		// Each child is scored with a sample of its pixels
+		final FunctionImage[] judged = this.children.toArray(
+				new FunctionImage[this.children.size()]);
+		final double[] scores = new double[judged.length];
+		Integer[] order = new Integer[judged.length];
+		for (int i = 0; i < judged.length; i++)
+		{
+			order[i] = i;
+			try
+			{
+				scores[i] = this.fitnessFunction.getScore(new ImageSample(judged[i], 
+						this.frameWidth, this.frameHeight, this.sampleWidth, 
+						this.sampleHeight));
+			}
+			catch (RuntimeException e)
+			{
+				// Images that can't be drawn are the worst possible
+				scores[i] = 0;
+			}
+		}
+		
+		// The best children come first
+		Arrays.sort(order, new Comparator<Integer>()
+		{
+			@Override
+			public int compare(Integer first, Integer second)
+			{
+				return Double.compare(scores[second], scores[first]);
+			}
+		});
+		
+		// The worst children are killed, like the user would do. The best one is boosted. 
+		// At least two children survive so that the population can always breed.
+		int survivorAmount = Math.max(2, judged.length - (int) Math.round(judged.length * 
+				this.killFraction));
+		this.children.clear();
+		this.scores = new double[judged.length];
+		for (int i = 0; i < judged.length; i++)
+		{
+			FunctionImage child = judged[order[i]];
+			this.scores[i] = scores[order[i]];
+			
+			if (i < survivorAmount)
+			{
+				if (i == 0)
+					child.boost();
+				child.releaseParents();
+				this.children.add(child);
+			}
+			else
+				child.kill();
+		}
+	}
+	
+	private String getReport(double generationsPerSecond, int generations)
+	{
+		double scoreSum = 0;
+		for (double score : this.scores)
+		{
+			scoreSum += score;
+		}
+		
+		int complexity = 0;
+		for (FunctionImage child : this.children)
+		{
+			complexity += child.getComplexity();
+		}
+		
+		return "Generation " + this.generationNumber + ": " + 
+				Math.round(generationsPerSecond * 10) / 10.0 + " generations / s, best score " + 
+				Math.round(this.scores[0] * 1000) / 1000.0 + ", average score " + 
+				Math.round(scoreSum / this.scores.length * 1000) / 1000.0 + ", " + 
+				this.parents.size() + " parents, average complexity " + 
+				(this.children.isEmpty() ? 0 : complexity / this.children.size()) + 
+				(this.preScreen == null ? "" : ", " + Math.round(10.0 * 
+				this.rejectedChildren / generations) / 10.0 + " rejected / generation");
+	}
+}
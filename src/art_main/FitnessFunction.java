@@ -0,0 +1,18 @@
+package art_main;
+
+/**
+ * FitnessFunctions judge functionImages automatically, so that images can be selected 
+ * without a user
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public interface FitnessFunction
+{
+	/**
+	 * Calculates how good an image looks
+	 * @param sample A sample of the image's pixels
+	 * @return The score of the image, between 0 (worst) and 1 (best)
+	 */
+	public double getScore(ImageSample sample);
+}
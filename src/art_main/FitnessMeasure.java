@@ -0,0 +1,188 @@
+package art_main;
+
+import java.util.ArrayList;
+
+/**
+ * FitnessMeasures are the built-in fitness functions. Each measure scores a single quality 
+ * of the sampled pixels. Multiple measures can be combined so that an image needs all 
+ * of the qualities to get a good score.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public enum FitnessMeasure implements FitnessFunction
+{
+	/**
+	 * Images with a wide spread of colour values score well
+	 */
+	VARIANCE
+	{
+		@Override
+		public double getScore(ImageSample sample)
+		{
+			// The standard deviation of each channel is compared to the largest possible one
+			double deviation = 0;
+			for (int shift = 0; shift <= 16; shift += 8)
+			{
+				double sum = 0;
+				double squareSum = 0;
+				for (int rgb : sample.getPixels())
+				{
+					int value = (rgb >> shift) & 0xFF;
+					sum += value;
+					squareSum += value * value;
+				}
+				
+				double mean = sum / sample.getPixels().length;
+				deviation += Math.sqrt(Math.max(0, squareSum / sample.getPixels().length - 
+						mean * mean));
+			}
+			
+			return Math.min(1, deviation / 3 / 127.5);
+		}
+	}, 
+	/**
+	 * Images where some of the neighbouring points have clearly different colours score 
+	 * well. The score is best when about a quarter of the neighbours differ.
+	 */
+	EDGES
+	{
+		@Override
+		public double getScore(ImageSample sample)
+		{
+			// Noise is as bad as no edges at all
+			double density = sample.getEdgeFraction(EDGE_DIFFERENCE);
+			return Math.max(0, 1 - Math.abs(density - 0.25) / 0.75);
+		}
+	}, 
+	/**
+	 * Images that use many different colours evenly score well
+	 */
+	ENTROPY
+	{
+		@Override
+		public double getScore(ImageSample sample)
+		{
+			// The colours are grouped by the four highest bits of each channel
+			int[] histogram = new int[1 << 12];
+			for (int rgb : sample.getPixels())
+			{
+				histogram[((rgb >> 12) & 0xF00) | ((rgb >> 8) & 0xF0) | ((rgb >> 4) & 0xF)] ++;
+			}
+			
+			double entropy = 0;
+			double total = sample.getPixels().length;
+			for (int amount : histogram)
+			{
+				if (amount > 0)
+				{
+					double probability = amount / total;
+					entropy -= probability * Math.log(probability);
+				}
+			}
+			
+			// The entropy is compared to the largest one possible with this many points
+			double maximum = Math.log(Math.min(histogram.length, total));
+			if (maximum <= 0)
+				return 0;
+			return entropy / maximum;
+		}
+	}, 
+	/**
+	 * Images where the colour functions don't give NaN score well
+	 */
+	NAN
+	{
+		@Override
+		public double getScore(ImageSample sample)
+		{
+			return 1 - sample.getNaNFraction();
+		}
+	}, 
+	/**
+	 * Images without large areas of a single colour score well. A point is flat when it 
+	 * has the same colour as the points right and below it.
+	 */
+	FLAT
+	{
+		@Override
+		public double getScore(ImageSample sample)
+		{
+			return 1 - sample.getFlatFraction();
+		}
+	};
+	
+	
+	// ATTRIBUTES	----------------------------------------------
+	
+	/**
+	 * How much the colour channels of two points must differ in total before there is an 
+	 * edge between them
+	 */
+	public static final int EDGE_DIFFERENCE = 48;
+	
+	
+	// OTHER METHODS	------------------------------------------
+	
+	/**
+	 * Finds the fitness function described by a comma separated list of measure names. 
+	 * If there are multiple measures, the score is the geometric mean of their scores.
+	 * 
+	 * @param names The names of the measures (case-insensitive), like "variance,nan". 
+	 * May be null.
+	 * @param defaultFunction The function that is returned if no measure was recognized
+	 * @return The fitness function described by the names or the default function
+	 */
+	public static FitnessFunction parse(String names, FitnessFunction defaultFunction)
+	{
+		if (names == null)
+			return defaultFunction;
+		
+		final ArrayList<FitnessMeasure> measures = new ArrayList<FitnessMeasure>();
+		for (String name : names.split(","))
+		{
+			FitnessMeasure measure = null;
+			for (FitnessMeasure candidate : values())
+			{
+				if (candidate.name().equalsIgnoreCase(name.trim()))
+					measure = candidate;
+			}
+			
+			if (measure == null)
+				System.err.println("Unknown fitness measure " + name + ", skipping it");
+			else
+				measures.add(measure);
+		}
+		
+		if (measures.isEmpty())
+			return defaultFunction;
+		if (measures.size() == 1)
+			return measures.get(0);
+		
+		return combine(measures.toArray(new FitnessFunction[measures.size()]));
+	}
+	
+	/**
+	 * Combines multiple fitness functions. An image needs to score well with each of the 
+	 * functions to get a good score.
+	 * @param functions The combined functions
+	 * @return A fitness function that gives the geometric mean of the scores
+	 */
+	public static FitnessFunction combine(final FitnessFunction... functions)
+	{
+		return new FitnessFunction()
+		{
+			@Override
+			public double getScore(ImageSample sample)
+			{
+				double score = 1;
+				for (int i = 0; i < functions.length && score > 0; i++)
+				{
+					score *= functions[i].getScore(sample);
+				}
+				
+				return Math.pow(score, 1.0 / functions.length);
+			}
+		};
+	}
+}
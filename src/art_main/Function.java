@@ -1,6 +1,6 @@
 package art_main;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * Functions are mathematical entities that return a value when called. Functions support 
@@ -45,10 +45,37 @@ public abstract class Function
 	protected abstract double getValueWithoutModification(double[] args);
 	
 	/**
-	 * @return How many other functions this function holds
+	 * Calculates the function's values for a batch of parameter sets. The values shouldn't 
+	 * be affected by the function's modifier.
+	 * @param args The parameters used in the calculation. args[i][j] is the i:th parameter 
+	 * of the j:th value.
+	 * @param length How many values are calculated
+	 * @param output The array the values are written into
+	 * @param buffers The buffers that can be used for holding temporary values
+	 */
+	protected abstract void getValuesWithoutModification(double[][] args, int length, 
+			double[] output, ValueBuffers buffers);
+	
+	/**
+	 * Calculates the range of values the function may give when the parameters are inside 
+	 * the given intervals. The range shouldn't be affected by the function's modifier.
+	 * @param args The ranges of the parameters
+	 * @return A range that contains every value the function may give
+	 */
+	protected abstract Interval getIntervalWithoutModification(Interval[] args);
+	
+	/**
+	 * @return How many other functions this function holds. This should be cheap to call 
+	 * since it is called on every level of the tree while mutating.
 	 */
 	protected abstract int getSubFunctionAmount();
 	
+	/**
+	 * @return How many levels of functions there are under this function. Functions that 
+	 * don't hold other functions have the depth 0.
+	 */
+	protected abstract int getDepth();
+	
 	/**
 	 * Creates an exact copy of this function. The copy can't retain its parents, however. 
 	 * At least it shouldn't have the same parent as the called function.
@@ -62,9 +89,26 @@ public abstract class Function
 	public abstract void simplify();
 	
 	/**
-	 * @return Are parameters required for calculating the function's value
+	 * @return Which parameters are required for calculating the function's value. The i:th 
+	 * bit is set if the function depends on the i:th parameter. This should be cheap to 
+	 * call since the simplifier calls it for every function.
 	 */
-	protected abstract boolean dependsOnParameters();
+	protected abstract int getParameterMask();
+	
+	/**
+	 * Calculates a hash that only depends on the structure of the function: the operators, 
+	 * modifiers, constants and parameter indices. Functions with the same structure always 
+	 * have the same hash.
+	 * @return A 64-bit hash of the function's structure
+	 */
+	public abstract long getStructureHash();
+	
+	/**
+	 * Writes the instructions that calculate the function's value into a function program. 
+	 * The instructions shouldn't include the function's modifier.
+	 * @param writer The writer that collects the instructions
+	 */
+	protected abstract void writeInstructionsWithoutModification(FunctionProgram.Writer writer);
 	
 	
 	// GETTERS & SETTERS	-------------------------------------------
@@ -95,6 +139,15 @@ public abstract class Function
 		return this.modifier;
 	}
 	
+	/**
+	 * Changes the modifier used for modifying this function's values
+	 * @param modifier The new modifier of the function
+	 */
+	protected void setModifier(FunctionModifier modifier)
+	{
+		this.modifier = modifier;
+	}
+	
 	
 	// OTHER METHODS	-----------------------------------------------
 	
@@ -110,7 +163,83 @@ public abstract class Function
 	}
 	
 	/**
-	 * @return The parent function that is not part of any other function
+	 * Calculates the function's values for a batch of parameter sets. Each value is the same 
+	 * as the one {@link #getValue(double[])} would return for the same parameters.
+	 * @param args The parameters used in the calculation. args[i][j] is the i:th parameter 
+	 * of the j:th value.
+	 * @param length How many values are calculated
+	 * @param output The array the values are written into
+	 */
+	public void getValues(double[][] args, int length, double[] output)
+	{
+		getValues(args, length, output, new ValueBuffers());
+	}
+	
+	/**
+	 * Calculates the function's values for a batch of parameter sets. Each value is the same 
+	 * as the one {@link #getValue(double[])} would return for the same parameters.
+	 * @param args The parameters used in the calculation. args[i][j] is the i:th parameter 
+	 * of the j:th value.
+	 * @param length How many values are calculated
+	 * @param output The array the values are written into
+	 * @param buffers The buffers that can be used for holding temporary values
+	 */
+	public void getValues(double[][] args, int length, double[] output, ValueBuffers buffers)
+	{
+		getValuesWithoutModification(args, length, output, buffers);
+		this.modifier.modify(output, length);
+	}
+	
+	/**
+	 * Calculates the range of values the function may give when the parameters are inside 
+	 * the given intervals. Each value {@link #getValue(double[])} returns for such 
+	 * parameters is inside the range, but the range may be larger than necessary.
+	 * @param args The ranges of the parameters
+	 * @return A range that contains every value the function may give
+	 */
+	public Interval getInterval(Interval[] args)
+	{
+		return this.modifier.modify(getIntervalWithoutModification(args));
+	}
+	
+	/**
+	 * Writes the instructions that calculate the function's value into a function program. 
+	 * The instructions include the function's modifier as well.
+	 * @param writer The writer that collects the instructions
+	 */
+	protected void writeInstructions(FunctionProgram.Writer writer)
+	{
+		writeInstructionsWithoutModification(writer);
+		writer.writeModifier(this.modifier);
+	}
+	
+	/**
+	 * @return Are parameters required for calculating the function's value
+	 */
+	protected boolean dependsOnParameters()
+	{
+		return getParameterMask() != 0;
+	}
+	
+	/**
+	 * Combines two hashes into one. The order of the hashes matters.
+	 * @param first The first hash
+	 * @param second The second hash
+	 * @return A hash that depends on both of the hashes
+	 */
+	protected static long combineHashes(long first, long second)
+	{
+		// Mixes the bits so that similar structures don't end up with similar hashes
+		long hash = first * 0x9E3779B97F4A7C15L + second;
+		hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+		hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+		return hash ^ (hash >>> 31);
+	}
+	
+	/**
+	 * @return The parent function that is not part of any other function. The parents are 
+	 * followed one by one, so this is meant to be called on the top functions, which only 
+	 * have parents if they grew upwards while mutating.
 	 */
 	public Function getTopFunction()
 	{
@@ -133,7 +262,19 @@ public abstract class Function
 	 */
 	public Function createChild(Function father)
 	{
-		Random random = new Random();
+		return createChild(father, new SplittableRandom());
+	}
+	
+	/**
+	 * Creates a child based on the "mother" and "father" functions. The called function 
+	 * will act as the mother. The mother won't be affected by this function call.
+	 * 
+	 * @param father The father function used for creating the child (won't be modified)
+	 * @param random The random number generator that decides how the child is created
+	 * @return A new function that is created from the two functions.
+	 */
+	public Function createChild(Function father, SplittableRandom random)
+	{
 		double chosen = random.nextDouble();
 		
 		// 33% The child only resembles the father
@@ -150,8 +291,23 @@ public abstract class Function
 		else
 			return new ComplexFunction(createCopy(), 
 					father.createCopy(), 
-					OperatorGenerator.createRandomOperator(), 
-					FunctionModifier.getRandomModifier(), null);
+					OperatorGenerator.createRandomOperator(random), 
+					FunctionModifier.getRandomModifier(random), null);
+	}
+	
+	/**
+	 * Draws the same random numbers {@link #createChild(Function, SplittableRandom)} would, 
+	 * without creating the child
+	 * @param random The random number generator the numbers are drawn from
+	 */
+	protected void skipChild(SplittableRandom random)
+	{
+		// Only the combined child draws more numbers
+		if (random.nextDouble() >= 0.66)
+		{
+			OperatorGenerator.createRandomOperatorType(random);
+			FunctionModifier.getRandomModifier(random);
+		}
 	}
 	
 	/**
@@ -159,15 +315,23 @@ public abstract class Function
 	 */
 	public void mutate()
 	{
-		Random random = new Random();
+		mutate(new SplittableRandom());
+	}
 		
+	/**
+	 * Mutation may change the function's structure
+	 * @param random The random number generator that decides how the function mutates
+	 */
+	public void mutate(SplittableRandom random)
+	{
 		// If the function is light, it may create a new simple function beside it
 		if (random.nextDouble() < (1 - getSubFunctionAmount() / 150.0) * 0.3)
-			new ComplexFunction(this, SimpleFunctionGenerator.createSimpleFunction(2, null), 
-					OperatorGenerator.createRandomOperator(), 
-					FunctionModifier.getRandomModifier(), null);
+			new ComplexFunction(this, 
+					SimpleFunctionGenerator.createSimpleFunction(2, null, random), 
+					OperatorGenerator.createRandomOperator(random), 
+					FunctionModifier.getRandomModifier(random), null);
 		// A function's modifier may also change randomly
 		else if (random.nextDouble() < 0.05)
-			this.modifier = FunctionModifier.getRandomModifier();
+			this.modifier = FunctionModifier.getRandomModifier(random);
 	}
 }
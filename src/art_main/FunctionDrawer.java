@@ -33,12 +33,13 @@ public class FunctionDrawer extends SimpleGameObject implements MouseListener, T
 	// ATTRIBUTES	-------------------------------------------------------
 	
 	private Vector3D dimensions;
-	private BufferedImage image;
-	private FunctionImage functionImage;
+	private volatile BufferedImage image;
+	private volatile FunctionImage functionImage;
 	private ArtUpdater updater;
 	private Transformation transformation;
 	private EventSelector<MouseEvent> selector;
 	private StateOperator visibleOperator;
+	private FunctionRenderer renderer;
 	
 	
 	// CONSTRUCTOR	-------------------------------------------------------
@@ -64,6 +65,7 @@ public class FunctionDrawer extends SimpleGameObject implements MouseListener, T
 		this.functionImage = image;
 		this.updater = updater;
 		this.visibleOperator = new StateOperator(true, true);
+		this.renderer = FunctionRenderer.getDefaultRenderer();
 		
 		StrictEventSelector<MouseEvent, MouseEvent.Feature> selector = 
 				MouseEvent.createButtonEventSelector();
@@ -159,10 +161,50 @@ public class FunctionDrawer extends SimpleGameObject implements MouseListener, T
 	 */
 	public void setImage(FunctionImage image)
 	{
+		// Images that have been rendered before are copied from the cache
+		RenderCache cache = this.renderer.getProgressiveRenderer().getCache();
+		if (cache != null)
+		{
+			BufferedImage cachedImage = new BufferedImage(getDimensions().getFirstInt(), 
+					getDimensions().getSecondInt(), BufferedImage.TYPE_INT_RGB);
+			if (cache.load(image, cachedImage))
+			{
+				setImage(image, cachedImage);
+				return;
+			}
+		}
+		
 		this.functionImage = image;
 		updatePixels();
 	}
 	
+	/**
+	 * Changes the functionImage visualized by the drawer. The functionImage has already 
+	 * been rendered, so it is shown right away.
+	 * @param image The functionImage that will be visualized by the drawer
+	 * @param renderedImage The rendered functionImage. Must be of type TYPE_INT_RGB and 
+	 * of the same size as the drawer.
+	 */
+	public void setImage(FunctionImage image, BufferedImage renderedImage)
+	{
+		// The previous image doesn't need to be rendered anymore
+		this.renderer.getProgressiveRenderer().cancel(this.image);
+		
+		this.functionImage = image;
+		this.image = renderedImage;
+	}
+	
+	/**
+	 * Changes the renderer used for drawing the functionImages. The current image is 
+	 * redrawn with the new renderer.
+	 * @param renderer The renderer that will draw the images
+	 */
+	public void setRenderer(FunctionRenderer renderer)
+	{
+		this.renderer = renderer;
+		updatePixels();
+	}
+	
 	/**
 	 * @return The function visualized by this drawer
 	 */
@@ -192,14 +234,8 @@ public class FunctionDrawer extends SimpleGameObject implements MouseListener, T
 	
 	private void updatePixels()
 	{
-		for (int x = 0; x < getDimensions().getFirst(); x++)
-		{
-			for (int y = 0; y < getDimensions().getSecond(); y++)
-			{
-				// TODO: Add other parameters when necessary
-				double[] args = {x, y};
-				this.image.setRGB(x, y, this.functionImage.getRGB(args));
-			}
-		}
+		// The image is rendered in the background, starting from a coarse preview. The 
+		// passes are drawn straight into the image raster.
+		this.renderer.getProgressiveRenderer().render(this.functionImage, this.image);
 	}
 }
@@ -1,8 +1,10 @@
 package art_main;
 
-import java.awt.Color;
 import java.util.ArrayList;
-import java.util.Random;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * FunctionImages are objects that can produce images using mathematical functions. The images 
@@ -15,9 +17,20 @@ public class FunctionImage
 {
 	// ATTRIBUTES	----------------------------------------------
 	
+	private static final ThreadLocal<double[][]> modifierArgBuffers = 
+			new ThreadLocal<double[][]>();
+	
 	private Function[] functions;
 	private FunctionImage mother, father;
-	private int childrenKilled, childrenSpawned, fitnessBoost;
+	private AtomicInteger childrenKilled, childrenSpawned;
+	private int fitnessBoost;
+	private Population.Member member;
+	private long culledTiles, renderedTiles;
+	// The compiled forms are created lazily by the rendering threads, so they are 
+	// published through volatile fields
+	private volatile RGBFunction rgbFunction;
+	private volatile FunctionProgram[] programs;
+	private volatile SeparableFrame separableFrame;
 	
 	
 	// CONSTRUCTOR	----------------------------------------------
@@ -27,9 +40,15 @@ public class FunctionImage
 		// Initializes attributes
 		this.mother = mother;
 		this.father = father;
-		this.childrenKilled = 0;
-		this.childrenSpawned = 0;
+		this.childrenKilled = new AtomicInteger();
+		this.childrenSpawned = new AtomicInteger();
 		this.fitnessBoost = 0;
+		this.member = null;
+		this.rgbFunction = null;
+		this.programs = null;
+		this.separableFrame = null;
+		this.culledTiles = 0;
+		this.renderedTiles = 0;
 		
 		this.functions = functions;
 	}
@@ -41,25 +60,56 @@ public class FunctionImage
 	 * in use
 	 */
 	public FunctionImage(int maxParameterAmount)
+	{
+		this(maxParameterAmount, new SplittableRandom());
+	}
+	
+	/**
+	 * Creates a new functionImage using randomly generated, rather simple functions
+	 * 
+	 * @param maxParameterAmount How many parameters are given to the functions when they are 
+	 * in use
+	 * @param random The random number generator used for generating the functions
+	 */
+	public FunctionImage(int maxParameterAmount, SplittableRandom random)
 	{
 		// Initializes attributes
 		this.mother = null;
 		this.father = null;
-		this.childrenKilled = 0;
-		this.childrenSpawned = 0;
+		this.childrenKilled = new AtomicInteger();
+		this.childrenSpawned = new AtomicInteger();
+		this.rgbFunction = null;
+		this.programs = null;
+		this.separableFrame = null;
+		this.culledTiles = 0;
+		this.renderedTiles = 0;
 		
 		this.functions = new Function[4];
 		this.functions[0] = SimpleFunctionGenerator.createSimpleFunction(
-				maxParameterAmount, null);
+				maxParameterAmount, null, random);
 		for (int i = 1; i < this.functions.length; i++)
 		{
 			// RGB have reference function value as the last parameter
 			this.functions[i] = SimpleFunctionGenerator.createSimpleFunction(
-					maxParameterAmount + 1, null);
+					maxParameterAmount + 1, null, random);
 		}
 	}
 	
 	
+	/**
+	 * Creates a new functionImage that uses the given functions. The image won't have 
+	 * any parents.
+	 * 
+	 * @param functions The functions used by the image. The first one is the reference 
+	 * function (two parameters), the others are the red, green and blue functions 
+	 * (three parameters).
+	 */
+	public FunctionImage(Function[] functions)
+	{
+		this(functions, null, null);
+	}
+	
+	
 	// OTHER METHODS	------------------------------------------------------
 	
 	/**
@@ -67,9 +117,10 @@ public class FunctionImage
 	 */
 	public void simplify()
 	{
+		releaseCompiledForms();
 		for (int i = 0; i < this.functions.length; i++)
 		{
-			this.functions[i].simplify();
+			this.functions[i] = FunctionSimplifier.simplify(this.functions[i]);
 		}
 	}
 	
@@ -79,6 +130,7 @@ public class FunctionImage
 	public void boost()
 	{
 		this.fitnessBoost = 25;
+		onFitnessChanged();
 	}
 	
 	/**
@@ -87,7 +139,7 @@ public class FunctionImage
 	public boolean canDie()
 	{
 		// Images need to create a certain amount of children before they may die
-		return (this.childrenSpawned >= 5);
+		return (this.childrenSpawned.get() >= 5);
 	}
 	
 	/**
@@ -97,11 +149,12 @@ public class FunctionImage
 	public int getFitness()
 	{
 		// If no children have been born yet, has full fitness
-		if (this.childrenSpawned == 0)
+		int spawned = this.childrenSpawned.get();
+		if (spawned == 0)
 			return 100 + this.fitnessBoost;
 		
 		// Otherwise returns a percentage of survived children
-		return 100 - (100 * this.childrenKilled / this.childrenSpawned) + this.fitnessBoost;
+		return 100 - (100 * this.childrenKilled.get() / spawned) + this.fitnessBoost;
 	}
 	
 	/**
@@ -111,14 +164,52 @@ public class FunctionImage
 	{
 		// Informs the parents that their child was killed
 		if (this.mother != null)
-			this.mother.childrenKilled ++;
+		{
+			this.mother.childrenKilled.incrementAndGet();
+			this.mother.onFitnessChanged();
+		}
 		if (this.father != null)
-			this.father.childrenKilled ++;
+		{
+			this.father.childrenKilled.incrementAndGet();
+			this.father.onFitnessChanged();
+		}
 		
 		this.mother = null;
 		this.father = null;
 	}
 	
+	/**
+	 * This method should be called when a child is thrown away before it has taken part in 
+	 * the selection process. The child won't count as a child of its parents anymore.
+	 */
+	public void discard()
+	{
+		if (this.mother != null)
+		{
+			this.mother.childrenSpawned.decrementAndGet();
+			this.mother.onFitnessChanged();
+		}
+		if (this.father != null)
+		{
+			this.father.childrenSpawned.decrementAndGet();
+			this.father.onFitnessChanged();
+		}
+		
+		this.mother = null;
+		this.father = null;
+	}
+	
+	/**
+	 * This method should be called when the image has survived the selection process for 
+	 * good. The parents are forgotten so that they can be garbage collected once they leave 
+	 * the population. Killing the image afterwards doesn't affect the parents.
+	 */
+	public void releaseParents()
+	{
+		this.mother = null;
+		this.father = null;
+	}
+	
 	/**
 	 * @return how complex the image is (as in how many terms / functions are used in it)
 	 */
@@ -133,6 +224,51 @@ public class FunctionImage
 		return complexity;
 	}
 	
+	/**
+	 * @return How many nodes (functions) there are in the image's function trees
+	 */
+	public int getTreeNodeAmount()
+	{
+		int nodes = 0;
+		for (FunctionProgram program : getPrograms())
+		{
+			nodes += program.getTreeNodeAmount();
+		}
+		
+		return nodes;
+	}
+	
+	/**
+	 * @return How many nodes need to be calculated for each pixel once the identical 
+	 * subtrees are shared
+	 */
+	public int getSharedNodeAmount()
+	{
+		int nodes = 0;
+		for (FunctionProgram program : getPrograms())
+		{
+			nodes += program.getNodeAmount();
+		}
+		
+		return nodes;
+	}
+	
+	/**
+	 * @return A hash of the structure of the image's functions. Images with the same hash 
+	 * give the same rgb values.
+	 * @see Function#getStructureHash()
+	 */
+	public long getStructureHash()
+	{
+		long hash = this.functions.length;
+		for (Function function : this.functions)
+		{
+			hash = Function.combineHashes(hash, function.getStructureHash());
+		}
+		
+		return hash;
+	}
+	
 	/**
 	 * @return A copy of this functionImage
 	 */
@@ -155,26 +291,127 @@ public class FunctionImage
 	 */
 	public int getRGB(double[] args)
 	{
-		double[] modifierArgs = new double[args.length + 1];
-		for (int i = 0; i < args.length; i++)
+		// The modifier arguments are reused between calls
+		double[] modifierArgs = getModifierArgBuffer(args.length + 1);
+		System.arraycopy(args, 0, modifierArgs, 0, args.length);
+		modifierArgs[args.length] = wrapReferenceValue(this.functions[0].getValue(args));
+		
+		return packRGB(wrapColourValue(this.functions[1].getValue(modifierArgs)), 
+				wrapColourValue(this.functions[2].getValue(modifierArgs)), 
+				wrapColourValue(this.functions[3].getValue(modifierArgs)));
+	}
+	
+	/**
+	 * Calculates the rgb values for a batch of parameter sets. The compiled functions 
+	 * process the whole batch one instruction at a time, and identical subtrees are only 
+	 * calculated once per batch. The values are the same as {@link #getRGB(double[])} 
+	 * would give for each parameter set.
+	 * 
+	 * @param args The parameters used for calculating the rgb values. args[i][j] is the i:th 
+	 * parameter of the j:th rgb value.
+	 * @param length How many rgb values are calculated
+	 * @param output The array the rgb values are written into
+	 * @param offset The index of the first written rgb value in the output array
+	 * @param buffers The buffers used for holding temporary values
+	 */
+	public void getRGBs(double[][] args, int length, int[] output, int offset, 
+			ValueBuffers buffers)
+	{
+		getRGBs(getPrograms(), null, args, length, output, offset, buffers);
+	}
+	
+	/**
+	 * Calculates the rgb values of a whole frame, one row at a time. The x-coordinate of 
+	 * each pixel is used as the first parameter and the y-coordinate as the second one.
+	 * 
+	 * @param width The width of the frame in pixels
+	 * @param height The height of the frame in pixels
+	 * @param output The array the rgb values are written into, row by row. Must be able to 
+	 * hold width * height values.
+	 */
+	public void getRGBs(int width, int height, int[] output)
+	{
+		ValueBuffers buffers = new ValueBuffers();
+		double[] xs = new double[width];
+		double[] ys = new double[width];
+		double[][] args = {xs, ys};
+		
+		for (int x = 0; x < width; x++)
 		{
-			modifierArgs[i] = args[i];
+			xs[x] = x;
 		}
-		double referenceValue = this.functions[0].getValue(args) % 255;
-		if (referenceValue < 0)
-			referenceValue += 255;
-		modifierArgs[args.length] = referenceValue;
 		
-		int[] rgb = new int[3];
-		for (int i = 0; i < 3; i++)
+		// The single-axis subtrees are only calculated once per column or row
+		SeparableFrame frame = getSeparableFrame(width, height);
+		for (int y = 0; y < height; y++)
 		{
-			rgb[i] = (int) this.functions[i + 1].getValue(modifierArgs) % 255;
-			
-			if (rgb[i] < 0)
-				rgb[i] += 255;
+			Arrays.fill(ys, y);
+			frame.getRGBs(args, width, output, y * width, buffers);
+		}
+	}
+	
+	/**
+	 * Creates a frame that calculates the image's rgb values for the given frame size. The 
+	 * subtrees that depend on a single axis are precalculated for each column and row of 
+	 * the frame. The frame is reused until the image or the frame size changes.
+	 * 
+	 * @param width The width of the frame in pixels
+	 * @param height The height of the frame in pixels
+	 * @return A frame that calculates the same rgb values as this image
+	 */
+	public SeparableFrame getSeparableFrame(int width, int height)
+	{
+		SeparableFrame frame = this.separableFrame;
+		if (frame == null || frame.getWidth() != width || frame.getHeight() != height)
+		{
+			frame = new SeparableFrame(this.functions, getPrograms()[0], width, height);
+			this.separableFrame = frame;
 		}
 		
-		return new Color(rgb[0], rgb[1], rgb[2]).getRGB();
+		return frame;
+	}
+	
+	/**
+	 * Compiles the image's functions into programs. The program won't be affected by any 
+	 * changes made to the image afterwards.
+	 * 
+	 * @return A program that calculates the same rgb values as this image
+	 */
+	public ImageProgram compile()
+	{
+		return new ImageProgram(getPrograms());
+	}
+	
+	/**
+	 * Creates an rgbFunction that calculates the image's colours with generated bytecode 
+	 * (or an interpreter, if the image is too complex). The function is reused until the 
+	 * image changes.
+	 * 
+	 * @return A function that calculates the same rgb values as this image
+	 * @see RGBFunctionGenerator
+	 */
+	public RGBFunction getRGBFunction()
+	{
+		RGBFunction function = this.rgbFunction;
+		if (function == null)
+		{
+			function = RGBFunctionGenerator.createRGBFunction(getPrograms());
+			this.rgbFunction = function;
+		}
+		
+		return function;
+	}
+	
+	/**
+	 * Releases the compiled programs and the rgbFunction created for this image, so that 
+	 * the generated class can be unloaded. They are compiled again if the image is used 
+	 * again.
+	 */
+	public void releaseCompiledForms()
+	{
+		this.rgbFunction = null;
+		this.programs = null;
+		this.separableFrame = null;
 	}
 	
 	/**
@@ -184,11 +421,20 @@ public class FunctionImage
 	 */
 	public FunctionImage createChild(FunctionImage father)
 	{
-		Random random = new Random();
+		return createChild(father, new SplittableRandom());
+	}
 		
+	/**
+	 * Creates a new child with the father image
+	 * @param father The father image that will affect the child
+	 * @param random The random number generator that decides how the child is created
+	 * @return The child created by this image and the father image
+	 */
+	public FunctionImage createChild(FunctionImage father, SplittableRandom random)
+	{
 		Function[] generatedFunctions = new Function[this.functions.length];
 		// The reference function will always be created the same way
-		generatedFunctions[0] = this.functions[0].createChild(father.functions[0]);
+		generatedFunctions[0] = this.functions[0].createChild(father.functions[0], random);
 		
 		// Any colour function may mate with any colour function, most likely with 
 		// the same colour. Father's functions act as the father most of the time
@@ -218,12 +464,14 @@ public class FunctionImage
 			}
 			
 			// The child image will use the produced child function to calculate the colour
-			generatedFunctions[i] = functionMother.createChild(functionFather);
+			generatedFunctions[i] = functionMother.createChild(functionFather, random);
 		}
 		
-		// Counts the amount of created children
-		this.childrenSpawned ++;
-		father.childrenSpawned ++;
+		// Counts the amount of created children. Children may be created in parallel.
+		this.childrenSpawned.incrementAndGet();
+		father.childrenSpawned.incrementAndGet();
+		onFitnessChanged();
+		father.onFitnessChanged();
 		
 		return new FunctionImage(generatedFunctions, this, father);
 	}
@@ -233,15 +481,260 @@ public class FunctionImage
 	 */
 	public void mutate()
 	{
+		mutate(new SplittableRandom());
+	}
+	
+	/**
+	 * Mutates the functions randomly
+	 * @param random The random number generator that decides how the functions mutate
+	 */
+	public void mutate(SplittableRandom random)
+	{
+		releaseCompiledForms();
+		
 		// Mutates all of the functions
 		for (int i = 0; i < 3; i++)
 		{
-			this.functions[i].mutate();
+			this.functions[i].mutate(random);
 			// If the function grew upwards, goes to the top
 			this.functions[i] = this.functions[i].getTopFunction();
 		}
 	}
 	
+	/**
+	 * Checks whether the image has the same rgb value everywhere inside an area. The 
+	 * functions are calculated over the ranges of the coordinates with interval arithmetic, 
+	 * so the result is certain but not all constant areas are recognized.
+	 * 
+	 * @param x The range of the x-coordinates in the area
+	 * @param y The range of the y-coordinates in the area
+	 * @return The rgb value {@link #getRGB(double[])} gives everywhere inside the area. 
+	 * 0 if the value may vary. (The rgb values always have an alpha component, so they are 
+	 * never 0.)
+	 */
+	public int getConstantRGB(Interval x, Interval y)
+	{
+		Interval[] args = {x, y, null};
+		args[2] = wrapReferenceInterval(this.functions[0].getInterval(args));
+		
+		// Each colour must collapse to a single value
+		int[] colours = new int[3];
+		for (int i = 0; i < colours.length; i++)
+		{
+			colours[i] = getConstantColour(this.functions[i + 1].getInterval(args));
+			if (colours[i] < 0)
+				return 0;
+		}
+		
+		return packRGB(colours[0], colours[1], colours[2]);
+	}
+	
+	/**
+	 * Records how many tiles were skipped while the image was rendered, because they were 
+	 * known to have a single colour
+	 * 
+	 * @param culledTiles How many tiles were filled with a single colour
+	 * @param tiles How many tiles were rendered in total
+	 */
+	synchronized void recordCulling(int culledTiles, int tiles)
+	{
+		this.culledTiles += culledTiles;
+		this.renderedTiles += tiles;
+	}
+	
+	/**
+	 * @return The portion of the rendered tiles that were filled with a single colour 
+	 * without calculating the pixels (0-1)
+	 * @see FunctionRenderer#setCulling(boolean)
+	 */
+	public synchronized double getCullRate()
+	{
+		if (this.renderedTiles == 0)
+			return 0;
+		return this.culledTiles / (double) this.renderedTiles;
+	}
+	
+	/**
+	 * Wraps a reference function value to the range used by the colour functions
+	 * 
+	 * @param value The value of the reference function
+	 * @return The value that is given to the colour functions, between 0 and 255
+	 */
+	static double wrapReferenceValue(double value)
+	{
+		double referenceValue = value % 255;
+		if (referenceValue < 0)
+			referenceValue += 255;
+		return referenceValue;
+	}
+	
+	/**
+	 * Wraps a colour function value to a colour component
+	 * 
+	 * @param value The value of a colour function
+	 * @return The colour component, between 0 and 254
+	 */
+	static int wrapColourValue(double value)
+	{
+		int colour = (int) value % 255;
+		if (colour < 0)
+			colour += 255;
+		return colour;
+	}
+	
+	/**
+	 * Packs the colour components into an opaque rgb value, like {@link java.awt.Color#getRGB()} 
+	 * would, but without creating any objects
+	 * 
+	 * @param red The red component (0-255)
+	 * @param green The green component (0-255)
+	 * @param blue The blue component (0-255)
+	 * @return The packed rgb value
+	 */
+	static int packRGB(int red, int green, int blue)
+	{
+		return 0xFF000000 | (red << 16) | (green << 8) | blue;
+	}
+	
+	/**
+	 * @return The reference, red, green and blue functions of the image
+	 */
+	Function[] getFunctions()
+	{
+		return this.functions;
+	}
+	
+	private static Interval wrapReferenceInterval(Interval interval)
+	{
+		// Infinite values become NaN, like in wrapReferenceValue
+		if (!interval.isFinite())
+			return new Interval(-0.0, 255, true);
+		
+		double min = interval.getMin();
+		double max = interval.getMax();
+		boolean canBeNaN = interval.canBeNaN();
+		
+		// The values wrap monotonically if no multiple of 255 is crossed. (The remainders 
+		// are exact.)
+		double wrappedMin = min % 255;
+		double wrappedMax = max % 255;
+		if (max - min < 255 && wrappedMin <= wrappedMax)
+		{
+			if (min >= 0)
+				return new Interval(wrappedMin, wrappedMax, canBeNaN);
+			if (max <= 0 && wrappedMax < 0)
+				return new Interval(wrappedMin + 255, wrappedMax + 255, canBeNaN);
+		}
+		
+		return new Interval(-0.0, 255, canBeNaN);
+	}
+	
+	private static int getConstantColour(Interval interval)
+	{
+		// NaN values become 0
+		if (!interval.hasValues())
+			return interval.canBeNaN() ? 0 : -1;
+		
+		// The values are truncated (monotonically) before they are wrapped
+		int min = (int) interval.getMin();
+		if (min != (int) interval.getMax())
+			return -1;
+		
+		int colour = wrapColourValue(min);
+		if (interval.canBeNaN() && colour != 0)
+			return -1;
+		return colour;
+	}
+	
+	private static double[] getModifierArgBuffer(int length)
+	{
+		// Each thread has its own buffer, indexed by the argument amount
+		double[][] buffers = modifierArgBuffers.get();
+		if (buffers == null || buffers.length <= length)
+		{
+			double[][] newBuffers = new double[length + 1][];
+			if (buffers != null)
+				System.arraycopy(buffers, 0, newBuffers, 0, buffers.length);
+			buffers = newBuffers;
+			modifierArgBuffers.set(buffers);
+		}
+		
+		if (buffers[length] == null)
+			buffers[length] = new double[length];
+		
+		return buffers[length];
+	}
+	
+	/**
+	 * Calculates the rgb values for a batch of parameter sets using compiled functions
+	 * 
+	 * @param programs The compiled reference, red, green and blue functions
+	 * @param lookups The lookup tables used by the programs. Null if the programs don't 
+	 * use lookups.
+	 * @param args The parameters used for calculating the rgb values
+	 * @param length How many rgb values are calculated
+	 * @param output The array the rgb values are written into
+	 * @param offset The index of the first written rgb value in the output array
+	 * @param buffers The buffers used for holding temporary values
+	 */
+	static void getRGBs(FunctionProgram[] programs, double[][] lookups, double[][] args, 
+			int length, int[] output, int offset, ValueBuffers buffers)
+	{
+		// RGB have reference function value as the last parameter
+		double[] referenceValues = buffers.borrow(length);
+		programs[0].getValues(args, length, referenceValues, buffers, lookups);
+		for (int i = 0; i < length; i++)
+		{
+			referenceValues[i] = wrapReferenceValue(referenceValues[i]);
+		}
+		
+		double[][] modifierArgs = buffers.getArgs(args.length + 1);
+		System.arraycopy(args, 0, modifierArgs, 0, args.length);
+		modifierArgs[args.length] = referenceValues;
+		
+		// Each colour is calculated separately and then packed into the output
+		double[] colourValues = buffers.borrow(length);
+		for (int colourIndex = 0; colourIndex < 3; colourIndex++)
+		{
+			programs[colourIndex + 1].getValues(modifierArgs, length, colourValues, buffers, 
+					lookups);
+			int shift = 16 - 8 * colourIndex;
+			
+			for (int i = 0; i < length; i++)
+			{
+				int colour = wrapColourValue(colourValues[i]);
+				
+				if (colourIndex == 0)
+					output[offset + i] = packRGB(0, 0, 0) | (colour << shift);
+				else
+					output[offset + i] |= colour << shift;
+			}
+		}
+		
+		buffers.release();
+		buffers.release();
+	}
+	
+	/**
+	 * @return The compiled forms of the reference, red, green and blue functions. The 
+	 * programs are reused until the image changes.
+	 */
+	FunctionProgram[] getPrograms()
+	{
+		FunctionProgram[] programs = this.programs;
+		if (programs == null)
+		{
+			programs = new FunctionProgram[this.functions.length];
+			for (int i = 0; i < programs.length; i++)
+			{
+				programs[i] = FunctionProgram.compile(this.functions[i]);
+			}
+			this.programs = programs;
+		}
+		
+		return programs;
+	}
+	
 	/**
 	 * Creates a set of children from a set of parents
 	 * 
@@ -249,14 +742,27 @@ public class FunctionImage
 	 * @param childAmount How many children will be created
 	 * @return The children created by the parents
 	 */
-	public static ArrayList<FunctionImage> createChildren(ArrayList<FunctionImage> parents, 
+	public static ArrayList<FunctionImage> createChildren(List<FunctionImage> parents, 
 			int childAmount)
 	{
-		// Creates new children from random parents until enough children have been produced
-		Random random = new Random();
-		ArrayList<FunctionImage> children = new ArrayList<FunctionImage>();
-		int childrenCreated = 0;
-		
+		return createChildren(parents, childAmount, new SplittableRandom());
+	}
+	
+	/**
+	 * Creates a set of children from a set of parents. The children are created in 
+	 * parallel by the default breeder. Each child is created with its own stream split 
+	 * from the given random number generator, so the children only depend on the 
+	 * generator's seed and the order of the parents, not on the amount of threads.
+	 * 
+	 * @param parents The parents that will produce the children
+	 * @param childAmount How many children will be created
+	 * @param random The random number generator the children's streams are split from
+	 * @return The children created by the parents. Null if there weren't enough parents.
+	 * @see Breeder
+	 */
+	public static ArrayList<FunctionImage> createChildren(List<FunctionImage> parents, 
+			int childAmount, SplittableRandom random)
+	{
 		// A singular image can't create children (because I say so)
 		if (parents.size() < 2)
 		{
@@ -264,22 +770,71 @@ public class FunctionImage
 			return null;
 		}
 		
-		while (childrenCreated < childAmount)
-		{
-			FunctionImage mother = parents.get(random.nextInt(parents.size()));
-			FunctionImage father = parents.get(random.nextInt(parents.size()));
-			
-			if (mother == null || father == null)
-				System.err.println("Mother or father is NULL!");
-			
-			// An image can't mate with itself
-			if (mother.equals(father))
-				continue;
-			
-			children.add(mother.createChild(father));
-			childrenCreated ++;
-		}
-		
-		return children;
+		return Breeder.getDefaultBreeder().createChildren(parents, childAmount, random);
+	}
+	
+	/**
+	 * @return How many children of this image have taken part in the selection
+	 */
+	int getChildrenSpawned()
+	{
+		return this.childrenSpawned.get();
+	}
+	
+	/**
+	 * @return How many children of this image have been killed
+	 */
+	int getChildrenKilled()
+	{
+		return this.childrenKilled.get();
+	}
+	
+	/**
+	 * @return How much the image has been boosted
+	 */
+	int getFitnessBoost()
+	{
+		return this.fitnessBoost;
+	}
+	
+	/**
+	 * Restores the counters the fitness of the image is based on, like when the image is 
+	 * loaded from a snapshot
+	 * @param childrenSpawned How many children of this image have taken part in the 
+	 * selection
+	 * @param childrenKilled How many children of this image have been killed
+	 * @param fitnessBoost How much the image has been boosted
+	 */
+	void restoreFitness(int childrenSpawned, int childrenKilled, int fitnessBoost)
+	{
+		this.childrenSpawned.set(childrenSpawned);
+		this.childrenKilled.set(childrenKilled);
+		this.fitnessBoost = fitnessBoost;
+		onFitnessChanged();
+	}
+	
+	/**
+	 * @return The membership of the image in a population. Null if the image isn't in any 
+	 * population.
+	 */
+	Population.Member getMember()
+	{
+		return this.member;
+	}
+	
+	/**
+	 * @param member The new membership of the image in a population
+	 */
+	void setMember(Population.Member member)
+	{
+		this.member = member;
+	}
+	
+	private void onFitnessChanged()
+	{
+		// The population keeps the images in fitness order
+		Population.Member member = this.member;
+		if (member != null)
+			member.onFitnessChanged();
 	}
 }
@@ -1,6 +1,6 @@
 package art_main;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * FunctionModifiers are additional effects that can be given to a function. They change 
@@ -74,14 +74,170 @@ public enum FunctionModifier
 		}
 	}
 	
+	/**
+	 * Transforms a batch of values. Each value is transformed the same way as in 
+	 * {@link #modify(double)}.
+	 * 
+	 * @param values The values that will be transformed. The transformed values are 
+	 * written back to the same array.
+	 * @param length How many values are transformed
+	 */
+	public void modify(double[] values, int length)
+	{
+		switch (this)
+		{
+			case SIN:
+				for (int i = 0; i < length; i++)
+				{
+					values[i] = Math.sin(values[i]);
+				}
+				break;
+			case COS:
+				for (int i = 0; i < length; i++)
+				{
+					values[i] = Math.cos(values[i]);
+				}
+				break;
+			case TAN:
+				for (int i = 0; i < length; i++)
+				{
+					values[i] = Math.tan(values[i]);
+				}
+				break;
+			case ARCSIN:
+				for (int i = 0; i < length; i++)
+				{
+					values[i] = Math.asin(values[i]);
+				}
+				break;
+			case ARCOS:
+				for (int i = 0; i < length; i++)
+				{
+					values[i] = Math.acos(values[i]);
+				}
+				break;
+			case ARCTAN:
+				for (int i = 0; i < length; i++)
+				{
+					values[i] = Math.atan(values[i]);
+				}
+				break;
+			case SQRT:
+				for (int i = 0; i < length; i++)
+				{
+					values[i] = Math.sqrt(values[i]);
+				}
+				break;
+			case CBRT:
+				for (int i = 0; i < length; i++)
+				{
+					values[i] = Math.cbrt(values[i]);
+				}
+				break;
+			
+			// Unmodified values stay as they are
+			default: break;
+		}
+	}
+	
+	/**
+	 * Calculates the range of values this modifier may give when the modified values are 
+	 * inside the given interval. The range contains the values exactly as they are 
+	 * calculated in {@link #modify(double)}. The math functions are semi-monotonic, so 
+	 * the values at the ends of each monotonic part give the bounds.
+	 * 
+	 * @param interval The range of the values that are modified
+	 * @return The range of the modified values
+	 */
+	public Interval modify(Interval interval)
+	{
+		// NaN stays NaN and single values are simply calculated
+		if (this == NONE || !interval.hasValues())
+			return interval;
+		if (interval.isSingleValue())
+			return Interval.of(modify(interval.getMin()));
+		
+		double min = interval.getMin();
+		double max = interval.getMax();
+		boolean canBeNaN = interval.canBeNaN();
+		
+		switch (this)
+		{
+			case SIN: return getPeriodicInterval(min, max, canBeNaN, Math.PI / 2);
+			case COS: return getPeriodicInterval(min, max, canBeNaN, 0.0);
+			case TAN:
+				// Tan is increasing between its poles
+				if (Double.isInfinite(min) || Double.isInfinite(max) || 
+						mayContain(min, max, Math.PI / 2, Math.PI))
+					return Interval.ALL;
+				return new Interval(Math.tan(min), Math.tan(max), canBeNaN);
+			case ARCSIN:
+				if (max < -1 || min > 1)
+					return Interval.NAN;
+				return new Interval(Math.asin(Math.max(min, -1)), Math.asin(Math.min(max, 1)), 
+						canBeNaN || min < -1 || max > 1);
+			case ARCOS:
+				if (max < -1 || min > 1)
+					return Interval.NAN;
+				return new Interval(Math.acos(Math.min(max, 1)), Math.acos(Math.max(min, -1)), 
+						canBeNaN || min < -1 || max > 1);
+			case ARCTAN: return new Interval(Math.atan(min), Math.atan(max), canBeNaN);
+			case SQRT:
+				if (max < 0)
+					return Interval.NAN;
+				return new Interval(Math.sqrt(Math.max(min, 0)), Math.sqrt(max), 
+						canBeNaN || min < 0);
+			case CBRT: return new Interval(Math.cbrt(min), Math.cbrt(max), canBeNaN);
+			
+			default: return interval;
+		}
+	}
+	
+	private Interval getPeriodicInterval(double min, double max, boolean canBeNaN, 
+			double peak)
+	{
+		// Sin and cos of infinity are NaN
+		if (Double.isInfinite(min) || Double.isInfinite(max))
+			return new Interval(-1, 1, true);
+		
+		// Sin and cos are monotonic between the peaks and the troughs
+		double low = Math.min(modify(min), modify(max));
+		double high = Math.max(modify(min), modify(max));
+		if (mayContain(min, max, peak, 2 * Math.PI))
+			high = 1;
+		if (mayContain(min, max, peak + Math.PI, 2 * Math.PI))
+			low = -1;
+		
+		return new Interval(low, high, canBeNaN);
+	}
+	
+	private static boolean mayContain(double min, double max, double offset, double period)
+	{
+		// The points can't be located exactly so a small margin is used
+		double margin = 1e-9 * (1 + Math.abs(min) + Math.abs(max));
+		if (max - min + 2 * margin >= period)
+			return true;
+		
+		double first = Math.ceil((min - margin - offset) / period) * period + offset;
+		return first <= max + margin;
+	}
+	
 	/**
 	 * @return A randomly picked function modifier. 
 	 * NONE is returned more often than the others.
 	 */
 	public static FunctionModifier getRandomModifier()
 	{
-		Random random = new Random();
+		return getRandomModifier(new SplittableRandom());
+	}
 		
+	/**
+	 * @param random The random number generator used
+	 * @return A randomly picked function modifier. 
+	 * NONE is returned more often than the others.
+	 */
+	public static FunctionModifier getRandomModifier(SplittableRandom random)
+	{
 		// 50% No modifier is used
 		if (random.nextDouble() < 0.5)
 			return NONE;
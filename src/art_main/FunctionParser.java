@@ -0,0 +1,601 @@
+package art_main;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import art_main.SimpleFunctionGenerator.ConstantFunction;
+
+/**
+ * FunctionParsers read functions and images from the text form {@link FunctionPrinter} 
+ * writes. The text is read in a stream, so files of millions of images can be read one 
+ * image at a time. The parser only creates the functions it returns, unless a constant 
+ * is too long to be read directly.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ * @see FunctionPrinter
+ */
+public class FunctionParser implements Closeable
+{
+	// ATTRIBUTES	-------------------------------------------------
+	
+	/**
+	 * How many functions each image has in the text form
+	 */
+	public static final int IMAGE_FUNCTION_AMOUNT = 4;
+	
+	private static final FunctionModifier[] MODIFIERS = FunctionModifier.values();
+	private static final Operator[] OPERATORS = createOperators();
+	private static final double[] POWERS_OF_TEN = createPowersOfTen();
+	
+	private Reader reader;
+	private char[] buffer, token;
+	private int position, limit, tokenLength, line;
+	private Function[] terms;
+	private Operator[] operators;
+	private FunctionModifier[] modifiers;
+	
+	
+	// CONSTRUCTOR	-------------------------------------------------
+	
+	/**
+	 * Creates a new parser
+	 * @param reader The reader the text is read from
+	 */
+	public FunctionParser(Reader reader)
+	{
+		// Initializes attributes
+		this.reader = reader;
+		this.buffer = new char[8192];
+		this.token = new char[32];
+		this.position = 0;
+		this.limit = 0;
+		this.tokenLength = 0;
+		this.line = 1;
+		this.terms = new Function[16];
+		this.operators = new Operator[16];
+		this.modifiers = new FunctionModifier[16];
+	}
+	
+	
+	// IMPLEMENTED METHODS	-----------------------------------------
+	
+	@Override
+	public void close() throws IOException
+	{
+		this.reader.close();
+	}
+	
+	
+	// OTHER METHODS	-----------------------------------------------
+	
+	/**
+	 * Reads a function from its text form
+	 * @param text The function in the text form
+	 * @return The function that was read
+	 */
+	public static Function parseFunction(String text)
+	{
+		FunctionParser parser = new FunctionParser(new StringReader(text));
+		try
+		{
+			Function function = parser.nextFunction();
+			parser.skipWhitespace();
+			if (function == null || parser.peek() >= 0)
+				throw parser.createException("The text should contain a single function");
+			return function;
+		}
+		catch (IOException e)
+		{
+			System.err.println("Can't parse \"" + text + "\": " + e.getMessage());
+			throw new InvalidParameterException();
+		}
+	}
+	
+	/**
+	 * Reads images from a text file
+	 * @param file The file the images are read from
+	 * @param maxAmount How many images are read at most
+	 * @return The images that were read
+	 * @throws IOException If the file couldn't be read or it had errors
+	 */
+	public static ArrayList<FunctionImage> readImages(File file, int maxAmount)
+			throws IOException
+	{
+		ArrayList<FunctionImage> images = new ArrayList<FunctionImage>();
+		try (FunctionParser parser = new FunctionParser(new InputStreamReader(
+				new FileInputStream(file), StandardCharsets.UTF_8)))
+		{
+			while (images.size() < maxAmount)
+			{
+				FunctionImage image = parser.nextImage();
+				if (image == null)
+					break;
+				images.add(image);
+			}
+		}
+		
+		return images;
+	}
+	
+	/**
+	 * Reads the next image. The functions of the image are in square brackets.
+	 * @return The image that was read. Null if there are no more images.
+	 * @throws IOException If the text couldn't be read or it had errors
+	 */
+	public FunctionImage nextImage() throws IOException
+	{
+		skipWhitespace();
+		if (peek() < 0)
+			return null;
+		
+		expect('[');
+		Function[] functions = new Function[IMAGE_FUNCTION_AMOUNT];
+		for (int i = 0; i < functions.length; i++)
+		{
+			skipWhitespace();
+			if (peek() == ']')
+				throw createException("An image needs " + IMAGE_FUNCTION_AMOUNT + 
+						" functions");
+			functions[i] = parse();
+		}
+		skipWhitespace();
+		expect(']');
+		
+		return new FunctionImage(functions);
+	}
+	
+	/**
+	 * Reads the next function
+	 * @return The function that was read. Null if there are no more functions.
+	 * @throws IOException If the text couldn't be read or it had errors
+	 */
+	public Function nextFunction() throws IOException
+	{
+		skipWhitespace();
+		if (peek() < 0)
+			return null;
+		
+		return parse();
+	}
+	
+	private Function parse() throws IOException
+	{
+		// The complex functions that are still missing terms are kept in a stack
+		int depth = 0;
+		try
+		{
+			while (true)
+			{
+				skipWhitespace();
+				FunctionModifier modifier = FunctionModifier.NONE;
+				boolean complex = peek() == '(';
+				if (!complex)
+				{
+					readToken();
+					if (peek() == ':')
+					{
+						this.position ++;
+						modifier = parseModifier();
+						skipWhitespace();
+						complex = peek() == '(';
+						if (!complex)
+							readToken();
+					}
+				}
+				
+				if (complex)
+				{
+					this.position ++;
+					skipWhitespace();
+					int symbol = read();
+					if (symbol < 0 || symbol >= OPERATORS.length || OPERATORS[symbol] == null)
+						throw createException("Expected an operator");
+					
+					if (depth == this.terms.length)
+					{
+						this.terms = Arrays.copyOf(this.terms, depth * 2);
+						this.operators = Arrays.copyOf(this.operators, depth * 2);
+						this.modifiers = Arrays.copyOf(this.modifiers, depth * 2);
+					}
+					this.operators[depth] = OPERATORS[symbol];
+					this.modifiers[depth] = modifier;
+					depth ++;
+					continue;
+				}
+				
+				// Each completed function is a term of the latest complex function
+				Function completed = parseSimpleFunction(modifier);
+				while (true)
+				{
+					if (depth == 0)
+						return completed;
+					if (this.terms[depth - 1] == null)
+					{
+						this.terms[depth - 1] = completed;
+						break;
+					}
+					
+					skipWhitespace();
+					expect(')');
+					depth --;
+					completed = new ComplexFunction(this.terms[depth], completed, 
+							this.operators[depth], this.modifiers[depth], null);
+					this.terms[depth] = null;
+				}
+			}
+		}
+		catch (IOException | RuntimeException e)
+		{
+			// The unfinished functions are forgotten
+			Arrays.fill(this.terms, 0, depth, null);
+			throw e;
+		}
+	}
+	
+	private Function parseSimpleFunction(FunctionModifier modifier) throws IOException
+	{
+		if (this.tokenLength == 0)
+		{
+			if (peek() < 0)
+				throw createException("Unexpected end of input");
+			throw createException("Expected a function instead of '" + (char) peek() + "'");
+		}
+		
+		// Parameters are "p" followed by their index
+		if (this.token[0] == 'p' && this.tokenLength > 1)
+		{
+			int index = 0;
+			for (int i = 1; i < this.tokenLength; i++)
+			{
+				int digit = this.token[i] - '0';
+				if (digit < 0 || digit > 9 || index >= Integer.SIZE)
+					throw createException("Invalid parameter " + getToken());
+				index = index * 10 + digit;
+			}
+			if (index >= Integer.SIZE)
+				throw createException("Invalid parameter " + getToken());
+			
+			return SimpleFunctionGenerator.createParameterFunction(index, modifier, null);
+		}
+		
+		return new ConstantFunction(parseConstant(), modifier, null);
+	}
+	
+	private double parseConstant() throws IOException
+	{
+		// The raw bits are used as they are
+		if (this.token[0] == '#')
+		{
+			if (this.tokenLength < 2 || this.tokenLength > 17)
+				throw createException("Invalid raw constant " + getToken());
+			long bits = 0;
+			for (int i = 1; i < this.tokenLength; i++)
+			{
+				bits = (bits << 4) | parseHexDigit(this.token[i]);
+			}
+			return Double.longBitsToDouble(bits);
+		}
+		
+		int start = 0;
+		boolean negative = false;
+		if (this.token[0] == '-' || this.token[0] == '+')
+		{
+			negative = this.token[0] == '-';
+			start = 1;
+		}
+		
+		double value = 0;
+		if (tokenEquals(start, "Infinity"))
+			value = Double.POSITIVE_INFINITY;
+		else if (tokenEquals(start, "NaN"))
+			value = Double.NaN;
+		else if (this.tokenLength - start > 2 && this.token[start] == '0' && 
+				(this.token[start + 1] == 'x' || this.token[start + 1] == 'X'))
+			value = parseHexadecimal(start);
+		else
+			value = parseDecimal(start);
+		
+		return negative ? -value : value;
+	}
+	
+	private double parseHexadecimal(int start) throws IOException
+	{
+		// The form the printer uses ("0x1.8p3") is read directly into bits
+		int i = start + 2;
+		int leading = this.token[i] - '0';
+		if ((leading == 0 || leading == 1) && i + 1 < this.tokenLength && 
+				this.token[i + 1] == '.')
+		{
+			long fraction = 0;
+			int digits = 0;
+			for (i += 2; i < this.tokenLength && this.token[i] != 'p' && 
+					this.token[i] != 'P' && digits <= 13; i++, digits++)
+			{
+				fraction = (fraction << 4) | parseHexDigit(this.token[i]);
+			}
+			
+			int exponent = Integer.MIN_VALUE;
+			if (digits > 0 && digits <= 13 && i < this.tokenLength - 1)
+				exponent = parseExponent(i + 1);
+			fraction <<= 4 * (13 - digits);
+			
+			if (leading == 1 && exponent >= -1022 && exponent <= 1023)
+				return Double.longBitsToDouble(((long) (exponent + 1023) << 52) | fraction);
+			if (leading == 0 && exponent == -1022)
+				return Double.longBitsToDouble(fraction);
+		}
+		
+		// Other forms are left to Java
+		return parseWithJava(start);
+	}
+	
+	private double parseDecimal(int start) throws IOException
+	{
+		// The digits are collected into a long as long as they fit exactly into a double
+		long mantissa = 0;
+		int digits = 0, scale = 0, i = start;
+		boolean anyDigits = false, exact = true;
+		boolean fraction = false;
+		for (; i < this.tokenLength; i++)
+		{
+			char character = this.token[i];
+			if (character == '.' && !fraction)
+			{
+				fraction = true;
+				continue;
+			}
+			if (character < '0' || character > '9')
+				break;
+			
+			anyDigits = true;
+			if (mantissa != 0 || character != '0')
+			{
+				if (digits < 15)
+				{
+					mantissa = mantissa * 10 + (character - '0');
+					digits ++;
+				}
+				else
+					exact = false;
+			}
+			if (fraction)
+				scale --;
+		}
+		
+		if (!anyDigits)
+			throw createException("Invalid constant " + getToken());
+		if (i < this.tokenLength)
+		{
+			if ((this.token[i] != 'e' && this.token[i] != 'E') || i == this.tokenLength - 1)
+				throw createException("Invalid constant " + getToken());
+			scale += parseExponent(i + 1);
+		}
+		
+		// A single multiplication or division of exact values is rounded correctly
+		if (exact)
+		{
+			if (mantissa == 0)
+				return 0;
+			if (scale >= 0 && scale < POWERS_OF_TEN.length)
+				return mantissa * POWERS_OF_TEN[scale];
+			if (scale < 0 && -scale < POWERS_OF_TEN.length)
+				return mantissa / POWERS_OF_TEN[-scale];
+		}
+		
+		return parseWithJava(start);
+	}
+	
+	private int parseExponent(int start) throws IOException
+	{
+		int i = start;
+		boolean negative = false;
+		if (i < this.tokenLength && (this.token[i] == '-' || this.token[i] == '+'))
+		{
+			negative = this.token[i] == '-';
+			i ++;
+		}
+		if (i == this.tokenLength)
+			throw createException("Invalid constant " + getToken());
+		
+		// Large exponents are capped, they give zero or infinity anyway
+		int exponent = 0;
+		for (; i < this.tokenLength; i++)
+		{
+			int digit = this.token[i] - '0';
+			if (digit < 0 || digit > 9)
+				throw createException("Invalid constant " + getToken());
+			exponent = Math.min(100000, exponent * 10 + digit);
+		}
+		
+		return negative ? -exponent : exponent;
+	}
+	
+	private double parseWithJava(int start) throws IOException
+	{
+		try
+		{
+			return Double.parseDouble(new String(this.token, start, this.tokenLength - start));
+		}
+		catch (NumberFormatException e)
+		{
+			throw createException("Invalid constant " + getToken());
+		}
+	}
+	
+	private int parseHexDigit(char character) throws IOException
+	{
+		if (character >= '0' && character <= '9')
+			return character - '0';
+		if (character >= 'a' && character <= 'f')
+			return character - 'a' + 10;
+		if (character >= 'A' && character <= 'F')
+			return character - 'A' + 10;
+		
+		throw createException("Invalid constant " + getToken());
+	}
+	
+	private FunctionModifier parseModifier() throws IOException
+	{
+		for (FunctionModifier modifier : MODIFIERS)
+		{
+			if (tokenEquals(FunctionPrinter.getModifierName(modifier)))
+				return modifier;
+		}
+		
+		throw createException("Unknown modifier " + getToken());
+	}
+	
+	private boolean tokenEquals(int start, String text)
+	{
+		if (this.tokenLength - start != text.length())
+			return false;
+		for (int i = 0; i < text.length(); i++)
+		{
+			if (this.token[start + i] != text.charAt(i))
+				return false;
+		}
+		
+		return true;
+	}
+	
+	private boolean tokenEquals(char[] text)
+	{
+		if (this.tokenLength != text.length)
+			return false;
+		for (int i = 0; i < text.length; i++)
+		{
+			if (this.token[i] != text[i])
+				return false;
+		}
+		
+		return true;
+	}
+	
+	private String getToken()
+	{
+		return new String(this.token, 0, this.tokenLength);
+	}
+	
+	private void readToken() throws IOException
+	{
+		this.tokenLength = 0;
+		while (true)
+		{
+			int character = peek();
+			if (!isTokenCharacter(character))
+				return;
+			
+			if (this.tokenLength == this.token.length)
+				this.token = Arrays.copyOf(this.token, this.tokenLength * 2);
+			this.token[this.tokenLength ++] = (char) character;
+			this.position ++;
+		}
+	}
+	
+	private void skipWhitespace() throws IOException
+	{
+		while (true)
+		{
+			int character = peek();
+			if (character == ';')
+			{
+				// Comments last until the end of the line
+				while (character >= 0 && character != '\n')
+				{
+					this.position ++;
+					character = peek();
+				}
+			}
+			else if (character >= 0 && character <= ' ')
+			{
+				if (character == '\n')
+					this.line ++;
+				this.position ++;
+			}
+			else
+				return;
+		}
+	}
+	
+	private void expect(char expected) throws IOException
+	{
+		int character = read();
+		if (character != expected)
+			throw createException("Expected '" + expected + "'" + (character < 0 ? 
+					" before the end of input" : " instead of '" + (char) character + "'"));
+	}
+	
+	private int read() throws IOException
+	{
+		int character = peek();
+		if (character >= 0)
+			this.position ++;
+		return character;
+	}
+	
+	private int peek() throws IOException
+	{
+		// The buffer is filled when it runs out
+		if (this.position == this.limit)
+		{
+			int read = 0;
+			while (read == 0)
+			{
+				read = this.reader.read(this.buffer, 0, this.buffer.length);
+			}
+			this.position = 0;
+			this.limit = Math.max(0, read);
+			if (read < 0)
+				return -1;
+		}
+		
+		return this.buffer[this.position];
+	}
+	
+	private IOException createException(String message)
+	{
+		return new IOException("Line " + this.line + ": " + message);
+	}
+	
+	private static boolean isTokenCharacter(int character)
+	{
+		return (character >= 'a' && character <= 'z') || (character >= 'A' && 
+				character <= 'Z') || (character >= '0' && character <= '9') || 
+				character == '.' || character == '-' || character == '+' || character == '#';
+	}
+	
+	private static Operator[] createOperators()
+	{
+		// The operators don't have a state so they can be shared
+		Operator[] operators = new Operator[128];
+		for (OperatorType type : OperatorType.values())
+		{
+			operators[type.getSymbol()] = OperatorGenerator.createOperator(type);
+		}
+		
+		return operators;
+	}
+	
+	private static double[] createPowersOfTen()
+	{
+		// The powers up to 10^22 are exact doubles
+		double[] powers = new double[23];
+		powers[0] = 1;
+		for (int i = 1; i < powers.length; i++)
+		{
+			powers[i] = powers[i - 1] * 10;
+		}
+		
+		return powers;
+	}
+}
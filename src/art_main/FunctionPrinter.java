@@ -0,0 +1,317 @@
+package art_main;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * FunctionPrinters write functions in a compact text form that {@link FunctionParser} 
+ * reads back exactly. The functions are written as prefix expressions: 
+ * <ul> 
+ * <li>A complex function is its operator and terms in parentheses, like "(+ p0 2)". The 
+ * operators are + - * / ^ and %.</li> 
+ * <li>A parameter is "p" followed by the index of the parameter, like "p1".</li> 
+ * <li>A constant is an integer ("2", "-0"), a hexadecimal floating point number 
+ * ("0x1.8p-1"), "Infinity", "-Infinity", "NaN" or, if it is a NaN with another payload, 
+ * its raw bits after "#" ("#7ff0000000000001"). Decimal numbers ("0.375") are written 
+ * in decimal mode and are always accepted by the parser.</li> 
+ * <li>A modifier other than NONE is written before the function it modifies, followed by 
+ * a colon, like "sin:(* p0 cbrt:p1)".</li> 
+ * </ul> 
+ * An image is written on its own line as its four functions in square brackets. A ";" 
+ * starts a comment that lasts until the end of the line.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public class FunctionPrinter implements Flushable
+{
+	// ATTRIBUTES	-------------------------------------------------
+	
+	private static final double[] NO_ARGS = new double[0];
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+	private static final char[][] MODIFIER_NAMES = createModifierNames();
+	private static final long CANONICAL_NAN = Double.doubleToRawLongBits(Double.NaN);
+	private static final long MANTISSA_MASK = (1L << 52) - 1;
+	
+	private Writer writer;
+	private boolean decimal;
+	private char[] buffer;
+	private int position;
+	
+	
+	// CONSTRUCTOR	-------------------------------------------------
+	
+	/**
+	 * Creates a new printer
+	 * @param writer The writer the functions are written into
+	 * @param decimal Should the constants be written as decimal numbers instead of exact 
+	 * hexadecimal ones. Both forms are read back exactly, but the hexadecimal form is 
+	 * faster to write and read.
+	 */
+	public FunctionPrinter(Writer writer, boolean decimal)
+	{
+		// Initializes attributes
+		this.writer = writer;
+		this.decimal = decimal;
+		this.buffer = new char[8192];
+		this.position = 0;
+	}
+	
+	
+	// IMPLEMENTED METHODS	-----------------------------------------
+	
+	@Override
+	public void flush() throws IOException
+	{
+		this.writer.write(this.buffer, 0, this.position);
+		this.position = 0;
+		this.writer.flush();
+	}
+	
+	
+	// OTHER METHODS	-----------------------------------------------
+	
+	/**
+	 * Writes a function in the text form
+	 * @param function The function that is written
+	 * @return The function in the text form
+	 */
+	public static String toText(Function function)
+	{
+		StringWriter text = new StringWriter();
+		FunctionPrinter printer = new FunctionPrinter(text, false);
+		try
+		{
+			printer.print(function);
+			printer.flush();
+		}
+		catch (IOException e)
+		{
+			// StringWriters don't throw IOExceptions
+			throw new IllegalStateException(e);
+		}
+		
+		return text.toString();
+	}
+	
+	/**
+	 * Writes images into a text file, one image on each line
+	 * @param file The file the images are written into
+	 * @param images The images that are written
+	 * @param decimal Should the constants be written as decimal numbers
+	 * @throws IOException If the file couldn't be written
+	 */
+	public static void writeImages(File file, List<FunctionImage> images, boolean decimal)
+			throws IOException
+	{
+		try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), 
+				StandardCharsets.UTF_8))
+		{
+			FunctionPrinter printer = new FunctionPrinter(writer, decimal);
+			for (FunctionImage image : images)
+			{
+				printer.print(image);
+			}
+			printer.flush();
+		}
+	}
+	
+	/**
+	 * Writes an image on its own line. The functions are written in square brackets.
+	 * @param image The image that is written
+	 * @throws IOException If the image couldn't be written
+	 */
+	public void print(FunctionImage image) throws IOException
+	{
+		Function[] functions = image.getFunctions();
+		write('[');
+		for (int i = 0; i < functions.length; i++)
+		{
+			if (i > 0)
+				write(' ');
+			print(functions[i]);
+		}
+		write(']');
+		write('\n');
+	}
+	
+	/**
+	 * Writes a function. No separator is written after the function.
+	 * @param function The function that is written
+	 * @throws IOException If the function couldn't be written
+	 */
+	public void print(Function function) throws IOException
+	{
+		FunctionModifier modifier = function.getModifier();
+		if (modifier != FunctionModifier.NONE)
+		{
+			write(MODIFIER_NAMES[modifier.ordinal()]);
+			write(':');
+		}
+		
+		if (function instanceof ComplexFunction)
+		{
+			ComplexFunction complex = (ComplexFunction) function;
+			write('(');
+			write(complex.getOperator().getType().getSymbol());
+			write(' ');
+			print(complex.getTerm1());
+			write(' ');
+			print(complex.getTerm2());
+			write(')');
+		}
+		// Constants and parameters are told apart like in the simplifier
+		else if (function.dependsOnParameters())
+		{
+			write('p');
+			writeLong(Integer.numberOfTrailingZeros(function.getParameterMask()));
+		}
+		else
+			writeConstant(function.getValueWithoutModification(NO_ARGS));
+	}
+	
+	/**
+	 * @param modifier A modifier
+	 * @return The name of the modifier in the text form. The array shouldn't be modified.
+	 */
+	static char[] getModifierName(FunctionModifier modifier)
+	{
+		return MODIFIER_NAMES[modifier.ordinal()];
+	}
+	
+	private void writeConstant(double value) throws IOException
+	{
+		long bits = Double.doubleToRawLongBits(value);
+		
+		// NaNs only keep their payload in the raw form
+		if (value != value)
+		{
+			if (bits == CANONICAL_NAN)
+				write("NaN");
+			else
+			{
+				write('#');
+				for (int shift = 60; shift >= 0; shift -= 4)
+				{
+					write(HEX_DIGITS[(int) (bits >>> shift) & 0xf]);
+				}
+			}
+			return;
+		}
+		
+		// The sign is written separately so that -0 keeps its sign
+		if (bits < 0)
+		{
+			write('-');
+			value = -value;
+			bits &= Long.MAX_VALUE;
+		}
+		
+		if (Double.isInfinite(value))
+			write("Infinity");
+		else if (this.decimal)
+			write(Double.toString(value));
+		// Integers are written as they are
+		else if (value < 1L << 53 && value == (long) value)
+			writeLong((long) value);
+		// Other numbers are written in the hexadecimal form, which holds the bits exactly
+		else
+		{
+			int exponent = (int) (bits >>> 52);
+			long mantissa = bits & MANTISSA_MASK;
+			write(exponent == 0 ? "0x0." : "0x1.");
+			
+			// Trailing zeros are left out, but at least one digit is written
+			int digits = 13;
+			while (digits > 1 && (mantissa & 0xf) == 0)
+			{
+				mantissa >>>= 4;
+				digits --;
+			}
+			for (int shift = 4 * (digits - 1); shift >= 0; shift -= 4)
+			{
+				write(HEX_DIGITS[(int) (mantissa >>> shift) & 0xf]);
+			}
+			
+			write('p');
+			writeLong(exponent == 0 ? -1022 : exponent - 1023);
+		}
+	}
+	
+	private void writeLong(long value) throws IOException
+	{
+		if (value < 0)
+		{
+			write('-');
+			value = -value;
+		}
+		
+		// The digits are collected backwards
+		ensureCapacity(20);
+		int start = this.position;
+		do
+		{
+			this.buffer[this.position ++] = (char) ('0' + value % 10);
+			value /= 10;
+		}
+		while (value > 0);
+		
+		for (int i = start, j = this.position - 1; i < j; i++, j--)
+		{
+			char digit = this.buffer[i];
+			this.buffer[i] = this.buffer[j];
+			this.buffer[j] = digit;
+		}
+	}
+	
+	private void write(String text) throws IOException
+	{
+		ensureCapacity(text.length());
+		text.getChars(0, text.length(), this.buffer, this.position);
+		this.position += text.length();
+	}
+	
+	private void write(char[] text) throws IOException
+	{
+		ensureCapacity(text.length);
+		System.arraycopy(text, 0, this.buffer, this.position, text.length);
+		this.position += text.length;
+	}
+	
+	private void write(char character) throws IOException
+	{
+		if (this.position == this.buffer.length)
+			ensureCapacity(1);
+		this.buffer[this.position ++] = character;
+	}
+	
+	private void ensureCapacity(int length) throws IOException
+	{
+		// The buffer is written out when it gets full
+		if (this.position + length > this.buffer.length)
+		{
+			this.writer.write(this.buffer, 0, this.position);
+			this.position = 0;
+		}
+	}
+	
+	private static char[][] createModifierNames()
+	{
+		FunctionModifier[] modifiers = FunctionModifier.values();
+		char[][] names = new char[modifiers.length][];
+		for (int i = 0; i < modifiers.length; i++)
+		{
+			names[i] = modifiers[i].name().toLowerCase(Locale.ROOT).toCharArray();
+		}
+		
+		return names;
+	}
+}
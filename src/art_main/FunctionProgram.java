@@ -0,0 +1,816 @@
+package art_main;
+
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * FunctionPrograms are functions that have been compiled into a flat postfix program. 
+ * Programs don't need to walk the function tree when they are evaluated, which makes them 
+ * a lot faster to use when the same function is evaluated over and over again. A program 
+ * won't change when the function it was compiled from changes. Identical subtrees of the 
+ * function are only calculated once, their values are kept in registers after the stack.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public class FunctionProgram
+{
+	// ATTRIBUTES	-------------------------------------------------
+	
+	// Each instruction holds the opcode in the lowest 8 bits and the operand in the rest
+	static final int PUSH_CONSTANT = 0;
+	static final int PUSH_PARAMETER = 1;
+	static final int ADDITION = 2;
+	static final int SUBTRACTION = 3;
+	static final int MULTIPLICATION = 4;
+	static final int DIVISION = 5;
+	static final int POWER = 6;
+	static final int MODULO = 7;
+	static final int SIN = 8;
+	static final int COS = 9;
+	static final int TAN = 10;
+	static final int ARCSIN = 11;
+	static final int ARCOS = 12;
+	static final int ARCTAN = 13;
+	static final int SQRT = 14;
+	static final int CBRT = 15;
+	static final int STORE_REGISTER = 16;
+	static final int LOAD_REGISTER = 17;
+	static final int LOAD_LOOKUP = 18;
+	
+	// The axes single-axis subtrees are calculated along, as parameter masks
+	static final int NO_AXIS = 0;
+	static final int X_AXIS = 1;
+	static final int Y_AXIS = 2;
+	static final int BOTH_AXES = X_AXIS | Y_AXIS;
+	
+	private static final OperatorType[] OPERATOR_TYPES = OperatorType.values();
+	private static final FunctionModifier[] MODIFIERS = {FunctionModifier.SIN, 
+			FunctionModifier.COS, FunctionModifier.TAN, FunctionModifier.ARCSIN, 
+			FunctionModifier.ARCOS, FunctionModifier.ARCTAN, FunctionModifier.SQRT, 
+			FunctionModifier.CBRT};
+	
+	private static final int OPCODE_MASK = 0xFF;
+	private static final int OPERAND_SHIFT = 8;
+	
+	private final int[] code;
+	private final double[] constants;
+	private final int stackDepth, registerAmount;
+	private final int requiredParameterAmount;
+	private final int treeNodeAmount, nodeAmount;
+	
+	
+	// CONSTRUCTOR	-------------------------------------------------
+	
+	private FunctionProgram(int[] code, double[] constants, int stackDepth, 
+			int registerAmount, int requiredParameterAmount, int treeNodeAmount, 
+			int nodeAmount)
+	{
+		// Initializes attributes
+		this.code = code;
+		this.constants = constants;
+		this.stackDepth = stackDepth;
+		this.registerAmount = registerAmount;
+		this.requiredParameterAmount = requiredParameterAmount;
+		this.treeNodeAmount = treeNodeAmount;
+		this.nodeAmount = nodeAmount;
+	}
+	
+	
+	// GETTERS & SETTERS	-------------------------------------------
+	
+	/**
+	 * @return How large a stack is needed for evaluating the program, including the 
+	 * registers that hold the shared values
+	 */
+	public int getMaxStackSize()
+	{
+		return this.stackDepth + this.registerAmount;
+	}
+	
+	/**
+	 * @return How many values there are in the stack at most, not including the registers
+	 */
+	int getStackDepth()
+	{
+		return this.stackDepth;
+	}
+	
+	/**
+	 * @return How many registers are used for holding the shared values. The registers 
+	 * are placed in the stack right after the {@link #getStackDepth()} stack values.
+	 */
+	int getRegisterAmount()
+	{
+		return this.registerAmount;
+	}
+	
+	/**
+	 * @return How many nodes (functions) there were in the compiled function tree
+	 */
+	public int getTreeNodeAmount()
+	{
+		return this.treeNodeAmount;
+	}
+	
+	/**
+	 * @return How many nodes are calculated when the program is evaluated. This is smaller 
+	 * than the tree node amount when the tree contains identical subtrees.
+	 */
+	public int getNodeAmount()
+	{
+		return this.nodeAmount;
+	}
+	
+	/**
+	 * @return How many parameters must be provided when the program is evaluated
+	 */
+	public int getRequiredParameterAmount()
+	{
+		return this.requiredParameterAmount;
+	}
+	
+	/**
+	 * @return How many instructions the program contains
+	 */
+	public int getLength()
+	{
+		return this.code.length;
+	}
+	
+	/**
+	 * @param index The index of the instruction
+	 * @return The opcode of the instruction at the given index
+	 */
+	int getOpcode(int index)
+	{
+		return this.code[index] & OPCODE_MASK;
+	}
+	
+	/**
+	 * @param index The index of the instruction
+	 * @return The operand of the instruction at the given index. For constants this is the 
+	 * index of the constant, for parameters the index of the parameter.
+	 */
+	int getOperand(int index)
+	{
+		return this.code[index] >>> OPERAND_SHIFT;
+	}
+	
+	/**
+	 * @param index The index of the constant
+	 * @return The constant at the given index of the constant pool
+	 */
+	double getConstant(int index)
+	{
+		return this.constants[index];
+	}
+	
+	
+	// OTHER METHODS	-----------------------------------------------
+	
+	/**
+	 * Compiles a function into a program. The program will give the same values as the 
+	 * function's getValue(...) method.
+	 * 
+	 * @param function The function that is compiled
+	 * @return A program that calculates the function's value
+	 */
+	public static FunctionProgram compile(Function function)
+	{
+		Writer writer = new Writer();
+		function.writeInstructions(writer);
+		return writer.toProgram();
+	}
+	
+	/**
+	 * Compiles a function into a program where each subtree that depends on a single axis 
+	 * only is replaced by a lookup. The subtrees are compiled into separate lookup programs 
+	 * that can be calculated once for each coordinate of their axis. The returned program 
+	 * can only be calculated with 
+	 * {@link #getValues(double[][], int, double[], ValueBuffers, double[][])}, where the 
+	 * x- and y-coordinates are the first two parameters and the lookup tables are provided.
+	 * 
+	 * @param function The function that is compiled
+	 * @param parameterAxes The axes each parameter depends on (NO_AXIS, X_AXIS, Y_AXIS or 
+	 * BOTH_AXES). Parameters outside the array are expected to depend on both axes.
+	 * @param lookupPrograms The list the compiled single-axis subtrees are added to. The 
+	 * index of the program in the list is the index of its lookup table.
+	 * @param lookupAxes The list the axis of each lookup table is added to. 0 for the 
+	 * x-axis and 1 for the y-axis.
+	 * @return A program that calculates the function's value using the lookup tables
+	 */
+	static FunctionProgram compileSeparable(Function function, int[] parameterAxes, 
+			ArrayList<FunctionProgram> lookupPrograms, ArrayList<Integer> lookupAxes)
+	{
+		Writer writer = new Writer();
+		function.writeInstructions(writer);
+		return writer.toSeparableProgram(parameterAxes, lookupPrograms, lookupAxes);
+	}
+	
+	/**
+	 * Calculates the program's value. A new stack is created for the calculation.
+	 * 
+	 * @param args The arguments used in the calculation
+	 * @return The value of the compiled function
+	 * @see #getValue(double[], double[])
+	 */
+	public double getValue(double[] args)
+	{
+		return getValue(args, new double[getMaxStackSize()]);
+	}
+	
+	/**
+	 * Calculates the program's value
+	 * 
+	 * @param args The arguments used in the calculation
+	 * @param stack The stack used in the calculation. The stack must be at least 
+	 * {@link #getMaxStackSize()} long. The contents of the stack will be overwritten.
+	 * @return The value of the compiled function
+	 */
+	public double getValue(double[] args, double[] stack)
+	{
+		// Checks the parameter availability
+		if (args.length < this.requiredParameterAmount)
+		{
+			System.err.println("Can't retrieve the " + (this.requiredParameterAmount - 1) + 
+					". parameter from the given parameter list");
+			throw new InvalidParameterException();
+		}
+		
+		int[] code = this.code;
+		int top = -1;
+		int registers = this.stackDepth;
+		
+		for (int i = 0; i < code.length; i++)
+		{
+			int instruction = code[i];
+			
+			switch (instruction & OPCODE_MASK)
+			{
+				case STORE_REGISTER: 
+					stack[registers + (instruction >>> OPERAND_SHIFT)] = stack[top]; break;
+				case LOAD_REGISTER: 
+					stack[++top] = stack[registers + (instruction >>> OPERAND_SHIFT)]; break;
+				case PUSH_CONSTANT: 
+					stack[++top] = this.constants[instruction >>> OPERAND_SHIFT]; break;
+				case PUSH_PARAMETER: 
+					stack[++top] = args[instruction >>> OPERAND_SHIFT]; break;
+				case ADDITION: top --; stack[top] = stack[top] + stack[top + 1]; break;
+				case SUBTRACTION: top --; stack[top] = stack[top] - stack[top + 1]; break;
+				case MULTIPLICATION: top --; stack[top] = stack[top] * stack[top + 1]; break;
+				case DIVISION: top --; stack[top] = stack[top] / stack[top + 1]; break;
+				case POWER: top --; stack[top] = Math.pow(stack[top], stack[top + 1]); break;
+				case MODULO: top --; stack[top] = stack[top] % stack[top + 1]; break;
+				case SIN: stack[top] = Math.sin(stack[top]); break;
+				case COS: stack[top] = Math.cos(stack[top]); break;
+				case TAN: stack[top] = Math.tan(stack[top]); break;
+				case ARCSIN: stack[top] = Math.asin(stack[top]); break;
+				case ARCOS: stack[top] = Math.acos(stack[top]); break;
+				case ARCTAN: stack[top] = Math.atan(stack[top]); break;
+				case SQRT: stack[top] = Math.sqrt(stack[top]); break;
+				case CBRT: stack[top] = Math.cbrt(stack[top]); break;
+			}
+		}
+		
+		return stack[0];
+	}
+	
+	
+	/**
+	 * Calculates the program's values for a batch of parameter sets. Each instruction 
+	 * processes the whole batch before the next one is executed.
+	 * 
+	 * @param args The parameters used in the calculation. args[i][j] is the i:th parameter 
+	 * of the j:th value.
+	 * @param length How many values are calculated
+	 * @param output The array the values are written into
+	 * @param buffers The buffers used for holding the stack and the registers
+	 */
+	public void getValues(double[][] args, int length, double[] output, ValueBuffers buffers)
+	{
+		getValues(args, length, output, buffers, null);
+	}
+	
+	/**
+	 * Calculates the program's values for a batch of parameter sets, reading the values of 
+	 * the precalculated single-axis subtrees from lookup tables.
+	 * 
+	 * @param args The parameters used in the calculation. args[i][j] is the i:th parameter 
+	 * of the j:th value. The first two parameters must be the x- and y-coordinates, which 
+	 * are used as indices to the lookup tables.
+	 * @param length How many values are calculated
+	 * @param output The array the values are written into
+	 * @param buffers The buffers used for holding the stack and the registers
+	 * @param lookups The lookup tables of a separable program. May be null for programs 
+	 * that don't use lookups.
+	 * @see #compileSeparable(Function, int[], ArrayList, ArrayList)
+	 */
+	void getValues(double[][] args, int length, double[] output, ValueBuffers buffers, 
+			double[][] lookups)
+	{
+		// Checks the parameter availability
+		if (args.length < this.requiredParameterAmount)
+		{
+			System.err.println("Can't retrieve the " + (this.requiredParameterAmount - 1) + 
+					". parameter from the given parameter list");
+			throw new InvalidParameterException();
+		}
+		
+		double[][] stack = buffers.borrowPlanes(getMaxStackSize(), length);
+		int top = -1;
+		int registers = this.stackDepth;
+		
+		for (int i = 0; i < this.code.length; i++)
+		{
+			int opcode = this.code[i] & OPCODE_MASK;
+			int operand = this.code[i] >>> OPERAND_SHIFT;
+			
+			switch (opcode)
+			{
+				case PUSH_CONSTANT:
+					top ++;
+					Arrays.fill(stack[top], 0, length, this.constants[operand]);
+					break;
+				case PUSH_PARAMETER:
+					top ++;
+					System.arraycopy(args[operand], 0, stack[top], 0, length);
+					break;
+				case STORE_REGISTER:
+					System.arraycopy(stack[top], 0, stack[registers + operand], 0, length);
+					break;
+				case LOAD_REGISTER:
+					top ++;
+					System.arraycopy(stack[registers + operand], 0, stack[top], 0, length);
+					break;
+				case LOAD_LOOKUP:
+					top ++;
+					double[] lookup = lookups[operand >>> 1];
+					double[] coordinates = args[operand & 1];
+					double[] values = stack[top];
+					for (int j = 0; j < length; j++)
+					{
+						values[j] = lookup[(int) coordinates[j]];
+					}
+					break;
+				default:
+					if (isBinary(opcode))
+					{
+						top --;
+						OPERATOR_TYPES[opcode - ADDITION].getValues(stack[top], stack[top + 1], 
+								length, stack[top]);
+					}
+					else
+						MODIFIERS[opcode - SIN].modify(stack[top], length);
+					break;
+			}
+		}
+		
+		System.arraycopy(stack[0], 0, output, 0, length);
+		buffers.releasePlanes();
+	}
+	
+	
+	// SUBCLASSES	-------------------------------------------------
+	
+	/**
+	 * Writers are used by the functions for writing their instructions in postfix order
+	 * 
+	 * @author Mikko Hilpinen
+	 * @since 17.10.2026
+	 */
+	static class Writer
+	{
+		// ATTRIBUTES	---------------------------------------------
+		
+		private int[] code;
+		private int length;
+		private ArrayList<Double> constants;
+		private int requiredParameterAmount;
+		
+		
+		// CONSTRUCTOR	---------------------------------------------
+		
+		private Writer()
+		{
+			// Initializes attributes
+			this.code = new int[16];
+			this.length = 0;
+			this.constants = new ArrayList<Double>();
+			this.requiredParameterAmount = 0;
+		}
+		
+		
+		// OTHER METHODS	-----------------------------------------
+		
+		/**
+		 * Writes an instruction that pushes a constant value to the stack
+		 * @param value The constant value
+		 */
+		void writeConstant(double value)
+		{
+			this.constants.add(value);
+			write(PUSH_CONSTANT, this.constants.size() - 1);
+		}
+		
+		/**
+		 * Writes an instruction that pushes a parameter value to the stack
+		 * @param parameterIndex The index of the parameter
+		 */
+		void writeParameter(int parameterIndex)
+		{
+			if (parameterIndex >= this.requiredParameterAmount)
+				this.requiredParameterAmount = parameterIndex + 1;
+			write(PUSH_PARAMETER, parameterIndex);
+		}
+		
+		/**
+		 * Writes an instruction that combines the two topmost values in the stack
+		 * @param operator The operator used for combining the values
+		 */
+		void writeOperator(Operator operator)
+		{
+			write(ADDITION + operator.getType().ordinal(), 0);
+		}
+		
+		/**
+		 * Writes an instruction that modifies the topmost value in the stack
+		 * @param modifier The modifier used for modifying the value
+		 */
+		void writeModifier(FunctionModifier modifier)
+		{
+			switch (modifier)
+			{
+				case SIN: write(SIN, 0); break;
+				case COS: write(COS, 0); break;
+				case TAN: write(TAN, 0); break;
+				case ARCSIN: write(ARCSIN, 0); break;
+				case ARCOS: write(ARCOS, 0); break;
+				case ARCTAN: write(ARCTAN, 0); break;
+				case SQRT: write(SQRT, 0); break;
+				case CBRT: write(CBRT, 0); break;
+				
+				// Unmodified values don't need an instruction
+				default: break;
+			}
+		}
+		
+		private void write(int opcode, int operand)
+		{
+			if (this.length == this.code.length)
+			{
+				int[] newCode = new int[this.code.length * 2];
+				System.arraycopy(this.code, 0, newCode, 0, this.length);
+				this.code = newCode;
+			}
+			
+			this.code[this.length] = (operand << OPERAND_SHIFT) | opcode;
+			this.length ++;
+		}
+		
+		private FunctionProgram toProgram()
+		{
+			double[] constants = getConstants();
+			
+			// Identical subtrees are shared before the program is created
+			SubtreeSharer sharer = new SubtreeSharer(this.code, this.length, constants);
+			int[] code = sharer.shareSubtrees();
+			
+			return new FunctionProgram(code, constants, getStackDepth(code), 
+					sharer.registerAmount, this.requiredParameterAmount, 
+					countNodes(this.code, this.length), countNodes(code, code.length));
+		}
+		
+		private FunctionProgram toSeparableProgram(int[] parameterAxes, 
+				ArrayList<FunctionProgram> lookupPrograms, ArrayList<Integer> lookupAxes)
+		{
+			// Finds out where each subtree starts and which axes it depends on
+			int[] starts = new int[this.length];
+			int[] axes = new int[this.length];
+			int[] stack = new int[this.length];
+			int top = -1;
+			
+			for (int i = 0; i < this.length; i++)
+			{
+				int opcode = this.code[i] & OPCODE_MASK;
+				int operand = this.code[i] >>> OPERAND_SHIFT;
+				
+				if (opcode == PUSH_CONSTANT)
+				{
+					starts[i] = i;
+					axes[i] = NO_AXIS;
+				}
+				else if (opcode == PUSH_PARAMETER)
+				{
+					starts[i] = i;
+					if (operand < parameterAxes.length)
+						axes[i] = parameterAxes[operand];
+					else
+						axes[i] = BOTH_AXES;
+				}
+				else if (isBinary(opcode))
+				{
+					int right = stack[top--];
+					int left = stack[top--];
+					starts[i] = starts[left];
+					axes[i] = axes[left] | axes[right];
+				}
+				else
+				{
+					int child = stack[top--];
+					starts[i] = starts[child];
+					axes[i] = axes[child];
+				}
+				
+				stack[++top] = i;
+			}
+			
+			Writer writer = new Writer();
+			if (this.length > 0)
+				writeSeparated(writer, this.length - 1, getConstants(), starts, axes, 
+						lookupPrograms, lookupAxes);
+			
+			return writer.toProgram();
+		}
+		
+		private void writeSeparated(Writer writer, int index, double[] constants, 
+				int[] starts, int[] axes, ArrayList<FunctionProgram> lookupPrograms, 
+				ArrayList<Integer> lookupAxes)
+		{
+			int opcode = this.code[index] & OPCODE_MASK;
+			
+			if (opcode == PUSH_CONSTANT || opcode == PUSH_PARAMETER)
+				copy(writer, index, index, constants);
+			// Single-axis subtrees are compiled into lookups. Subtrees that don't depend 
+			// on either axis are calculated along the x-axis.
+			else if (axes[index] != BOTH_AXES)
+			{
+				int axis = axes[index] == Y_AXIS ? 1 : 0;
+				Writer lookupWriter = new Writer();
+				copy(lookupWriter, starts[index], index, constants);
+				
+				writer.write(LOAD_LOOKUP, (lookupPrograms.size() << 1) | axis);
+				lookupPrograms.add(lookupWriter.toProgram());
+				lookupAxes.add(axis);
+			}
+			else
+			{
+				// The second term ends right before the operator, the first right before that
+				if (isBinary(opcode))
+					writeSeparated(writer, starts[index - 1] - 1, constants, starts, axes, 
+							lookupPrograms, lookupAxes);
+				writeSeparated(writer, index - 1, constants, starts, axes, lookupPrograms, 
+						lookupAxes);
+				writer.write(opcode, 0);
+			}
+		}
+		
+		private void copy(Writer writer, int first, int last, double[] constants)
+		{
+			for (int i = first; i <= last; i++)
+			{
+				int opcode = this.code[i] & OPCODE_MASK;
+				int operand = this.code[i] >>> OPERAND_SHIFT;
+				
+				if (opcode == PUSH_CONSTANT)
+					writer.writeConstant(constants[operand]);
+				else if (opcode == PUSH_PARAMETER)
+					writer.writeParameter(operand);
+				else
+					writer.write(opcode, operand);
+			}
+		}
+		
+		private double[] getConstants()
+		{
+			double[] constants = new double[this.constants.size()];
+			for (int i = 0; i < constants.length; i++)
+			{
+				constants[i] = this.constants.get(i);
+			}
+			
+			return constants;
+		}
+		
+		private static int getStackDepth(int[] code)
+		{
+			int stackSize = 0;
+			int maxStackSize = 0;
+			for (int instruction : code)
+			{
+				int opcode = instruction & OPCODE_MASK;
+				if (isLeaf(opcode) || opcode == LOAD_REGISTER)
+					stackSize ++;
+				else if (isBinary(opcode))
+					stackSize --;
+				
+				if (stackSize > maxStackSize)
+					maxStackSize = stackSize;
+			}
+			
+			return maxStackSize;
+		}
+		
+		private static int countNodes(int[] code, int length)
+		{
+			// Nodes are either leaves or operators
+			int nodes = 0;
+			for (int i = 0; i < length; i++)
+			{
+				int opcode = code[i] & OPCODE_MASK;
+				if (isLeaf(opcode) || isBinary(opcode))
+					nodes ++;
+			}
+			
+			return nodes;
+		}
+	}
+	
+	/**
+	 * SubtreeSharer finds the identical subtrees of a program by hash-consing them. Each 
+	 * structurally different subtree gets its own id. Subtrees that appear multiple times 
+	 * are calculated once, stored to a register and loaded from there afterwards.
+	 * 
+	 * @author Mikko Hilpinen
+	 * @since 17.10.2026
+	 */
+	private static class SubtreeSharer
+	{
+		// ATTRIBUTES	---------------------------------------------
+		
+		private int[] code, ids, starts, counts, registers;
+		private int length, registerAmount, outputLength;
+		private int[] output;
+		
+		
+		// CONSTRUCTOR	---------------------------------------------
+		
+		public SubtreeSharer(int[] code, int length, double[] constants)
+		{
+			// Initializes attributes
+			this.code = code;
+			this.length = length;
+			this.ids = new int[length];
+			this.starts = new int[length];
+			this.registerAmount = 0;
+			this.output = new int[length];
+			this.outputLength = 0;
+			
+			// Each subtree is identified by its operation and the ids of its subtrees. 
+			// Constants are identified by their bits so that NaN and -0 stay separate.
+			HashMap<Long, Integer> internedIds = new HashMap<Long, Integer>();
+			HashMap<Long, Integer> constantIds = new HashMap<Long, Integer>();
+			int[] stack = new int[length];
+			int top = -1;
+			
+			for (int i = 0; i < length; i++)
+			{
+				int opcode = code[i] & OPCODE_MASK;
+				int operand = code[i] >>> OPERAND_SHIFT;
+				
+				Long key;
+				HashMap<Long, Integer> keyIds = internedIds;
+				if (opcode == PUSH_CONSTANT)
+				{
+					key = Double.doubleToRawLongBits(constants[operand]);
+					keyIds = constantIds;
+					this.starts[i] = i;
+				}
+				else if (opcode == PUSH_PARAMETER || opcode == LOAD_LOOKUP)
+				{
+					key = ((long) opcode << 56) | operand;
+					this.starts[i] = i;
+				}
+				else if (isBinary(opcode))
+				{
+					int right = stack[top--];
+					int left = stack[top--];
+					key = ((long) opcode << 56) | ((long) this.ids[left] << 28) | 
+							this.ids[right];
+					this.starts[i] = this.starts[left];
+				}
+				else
+				{
+					int child = stack[top--];
+					key = ((long) opcode << 56) | this.ids[child];
+					this.starts[i] = this.starts[child];
+				}
+				
+				Integer id = keyIds.get(key);
+				if (id == null)
+				{
+					id = internedIds.size() + constantIds.size();
+					keyIds.put(key, id);
+				}
+				
+				this.ids[i] = id;
+				stack[++top] = i;
+			}
+			
+			this.counts = new int[internedIds.size() + constantIds.size()];
+			this.registers = new int[this.counts.length];
+			for (int i = 0; i < length; i++)
+			{
+				this.counts[this.ids[i]] ++;
+			}
+			Arrays.fill(this.registers, -1);
+		}
+		
+		
+		// OTHER METHODS	-----------------------------------------
+		
+		public int[] shareSubtrees()
+		{
+			if (this.length == 0)
+				return new int[0];
+			
+			write(this.length - 1);
+			
+			// Registers that are never loaded are removed and the rest are renumbered
+			int[] newRegisters = new int[this.registerAmount];
+			boolean[] loaded = new boolean[this.registerAmount];
+			for (int i = 0; i < this.outputLength; i++)
+			{
+				if ((this.output[i] & OPCODE_MASK) == LOAD_REGISTER)
+					loaded[this.output[i] >>> OPERAND_SHIFT] = true;
+			}
+			
+			int usedRegisters = 0;
+			for (int i = 0; i < this.registerAmount; i++)
+			{
+				if (loaded[i])
+					newRegisters[i] = usedRegisters++;
+			}
+			
+			int[] code = new int[this.outputLength];
+			int codeLength = 0;
+			for (int i = 0; i < this.outputLength; i++)
+			{
+				int opcode = this.output[i] & OPCODE_MASK;
+				int register = this.output[i] >>> OPERAND_SHIFT;
+				
+				if (opcode == STORE_REGISTER || opcode == LOAD_REGISTER)
+				{
+					if (!loaded[register])
+						continue;
+					code[codeLength++] = (newRegisters[register] << OPERAND_SHIFT) | opcode;
+				}
+				else
+					code[codeLength++] = this.output[i];
+			}
+			
+			this.registerAmount = usedRegisters;
+			return Arrays.copyOf(code, codeLength);
+		}
+		
+		private void write(int index)
+		{
+			int id = this.ids[index];
+			// Only non-leaf subtrees are worth sharing
+			boolean shared = this.counts[id] > 1 && this.starts[index] < index;
+			
+			if (shared && this.registers[id] >= 0)
+			{
+				append((this.registers[id] << OPERAND_SHIFT) | LOAD_REGISTER);
+				return;
+			}
+			
+			int opcode = this.code[index] & OPCODE_MASK;
+			if (isBinary(opcode))
+			{
+				// The second term ends right before the operator, the first right before that
+				write(this.starts[index - 1] - 1);
+				write(index - 1);
+			}
+			else if (!isLeaf(opcode))
+				write(index - 1);
+			
+			append(this.code[index]);
+			
+			if (shared)
+			{
+				this.registers[id] = this.registerAmount++;
+				append((this.registers[id] << OPERAND_SHIFT) | STORE_REGISTER);
+			}
+		}
+		
+		private void append(int instruction)
+		{
+			if (this.outputLength == this.output.length)
+				this.output = Arrays.copyOf(this.output, this.output.length * 2);
+			this.output[this.outputLength++] = instruction;
+		}
+	}
+	
+	private static boolean isBinary(int opcode)
+	{
+		return opcode >= ADDITION && opcode <= MODULO;
+	}
+	
+	private static boolean isLeaf(int opcode)
+	{
+		return opcode == PUSH_CONSTANT || opcode == PUSH_PARAMETER || opcode == LOAD_LOOKUP;
+	}
+}
@@ -0,0 +1,454 @@
+package art_main;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.security.InvalidParameterException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * FunctionRenderer draws functionImages into pixel buffers. The drawn area is split into 
+ * tiles which are rendered in parallel by a fork-join pool. The rgb values are written 
+ * straight into the image raster. Before a tile is rendered pixel by pixel, the image's 
+ * functions are calculated over the whole tile with interval arithmetic. If the tile 
+ * turns out to have a single colour, it is simply filled with it.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public class FunctionRenderer
+{
+	// ATTRIBUTES	----------------------------------------------
+	
+	/**
+	 * The system property that can be used for selecting the default render backend
+	 */
+	public static final String BACKEND_PROPERTY = "art.renderBackend";
+	
+	private static FunctionRenderer defaultRenderer = null;
+	
+	private int tileSize;
+	// The settings can be changed from another thread while the images are rendered
+	private volatile RenderBackend backend;
+	private ForkJoinPool pool;
+	private ThreadLocal<TileBuffers> tileBuffers;
+	private ProgressiveRenderer progressiveRenderer;
+	private volatile boolean culling;
+	private AtomicLong culledTiles, renderedTiles;
+	
+	
+	// CONSTRUCTOR	----------------------------------------------
+	
+	/**
+	 * Creates a new renderer
+	 * 
+	 * @param tileSize The width and height of the rendered tiles (pixels)
+	 * @param parallelism How many threads are used for rendering the tiles
+	 */
+	public FunctionRenderer(int tileSize, int parallelism)
+	{
+		// Initializes attributes
+		this.tileSize = tileSize;
+		if (this.tileSize < 1)
+			this.tileSize = 1;
+		this.backend = RenderBackend.BATCH;
+		if (parallelism < 1)
+			parallelism = 1;
+		
+		this.pool = new ForkJoinPool(parallelism);
+		this.tileBuffers = new ThreadLocal<TileBuffers>()
+		{
+			@Override
+			protected TileBuffers initialValue()
+			{
+				return new TileBuffers(FunctionRenderer.this.tileSize);
+			}
+		};
+		this.progressiveRenderer = null;
+		this.culling = true;
+		this.culledTiles = new AtomicLong();
+		this.renderedTiles = new AtomicLong();
+	}
+	
+	
+	// GETTERS & SETTERS	------------------------------------------
+	
+	/**
+	 * @return The renderer used when no other renderer has been specified. The default 
+	 * renderer uses 64 pixel tiles and all available processors. The backend is read from 
+	 * the {@value #BACKEND_PROPERTY} system property.
+	 */
+	public static synchronized FunctionRenderer getDefaultRenderer()
+	{
+		if (defaultRenderer == null)
+		{
+			// The renderer is only shared once its backend has been set
+			FunctionRenderer renderer = new FunctionRenderer(64, 
+					Runtime.getRuntime().availableProcessors());
+			renderer.setBackend(RenderBackend.parse(
+					System.getProperty(BACKEND_PROPERTY), RenderBackend.BATCH));
+			defaultRenderer = renderer;
+		}
+		
+		return defaultRenderer;
+	}
+	
+	/**
+	 * @return The width and height of the rendered tiles (pixels)
+	 */
+	public int getTileSize()
+	{
+		return this.tileSize;
+	}
+	
+	/**
+	 * @return The way the renderer calculates the pixel values
+	 */
+	public RenderBackend getBackend()
+	{
+		return this.backend;
+	}
+	
+	/**
+	 * Changes the way the renderer calculates the pixel values. All backends produce the 
+	 * same pixels. If the vector backend isn't available, the batch backend is used instead.
+	 * @param backend The new backend
+	 */
+	public void setBackend(RenderBackend backend)
+	{
+		if (backend == RenderBackend.VECTOR && !VectorBackend.isAvailable())
+			backend = RenderBackend.BATCH;
+		
+		this.backend = backend;
+	}
+	
+	/**
+	 * @return A progressive renderer that renders its passes with this renderer. The same 
+	 * progressive renderer is returned each time.
+	 */
+	public synchronized ProgressiveRenderer getProgressiveRenderer()
+	{
+		if (this.progressiveRenderer == null)
+			this.progressiveRenderer = new ProgressiveRenderer(this);
+		
+		return this.progressiveRenderer;
+	}
+	
+	/**
+	 * @return Are the tiles that have a single colour filled without calculating their 
+	 * pixels
+	 */
+	public boolean isCulling()
+	{
+		return this.culling;
+	}
+	
+	/**
+	 * Changes whether the tiles that have a single colour are filled without calculating 
+	 * their pixels. Culling is on by default.
+	 * @param culling Should the single colour tiles be culled
+	 */
+	public void setCulling(boolean culling)
+	{
+		this.culling = culling;
+	}
+	
+	/**
+	 * @return The portion of all the tiles rendered with this renderer that were filled 
+	 * with a single colour (0-1)
+	 * @see FunctionImage#getCullRate()
+	 */
+	public double getCullRate()
+	{
+		long tiles = this.renderedTiles.get();
+		if (tiles == 0)
+			return 0;
+		return this.culledTiles.get() / (double) tiles;
+	}
+	
+	/**
+	 * @return A description of how many tiles have been culled
+	 */
+	public String getCullStatistics()
+	{
+		return "Tile culling: " + this.culledTiles.get() + " of " + this.renderedTiles.get() + 
+				" tiles (" + Math.round(100 * getCullRate()) + "%)";
+	}
+	
+	/**
+	 * @return How many threads are used for rendering
+	 */
+	public int getParallelism()
+	{
+		return this.pool.getParallelism();
+	}
+	
+	
+	// OTHER METHODS	------------------------------------------
+	
+	/**
+	 * Renders a functionImage into a bufferedImage. The x-coordinate of each pixel is used 
+	 * as the first parameter and the y-coordinate as the second one.
+	 * 
+	 * @param image The functionImage that is rendered
+	 * @param target The image the pixels are written into. Must be of type TYPE_INT_RGB.
+	 */
+	public void render(FunctionImage image, BufferedImage target)
+	{
+		if (target.getType() != BufferedImage.TYPE_INT_RGB)
+		{
+			System.err.println("Can only render to TYPE_INT_RGB images");
+			throw new InvalidParameterException();
+		}
+		
+		int[] pixels = ((DataBufferInt) target.getRaster().getDataBuffer()).getData();
+		render(image, target.getWidth(), target.getHeight(), pixels);
+	}
+	
+	/**
+	 * Renders a functionImage into a pixel buffer. The pixels are written in the same form 
+	 * a TYPE_INT_RGB image stores them in (without alpha).
+	 * 
+	 * @param image The functionImage that is rendered
+	 * @param width The width of the rendered area
+	 * @param height The height of the rendered area
+	 * @param pixels The buffer the pixels are written into, row by row
+	 */
+	public void render(FunctionImage image, int width, int height, int[] pixels)
+	{
+		renderPass(image, width, height, pixels, 1, 0);
+	}
+	
+	/**
+	 * Renders a single pass of a progressive rendering. Only the pixels whose coordinates 
+	 * are both divisible by the step are calculated and each of them is drawn as a block 
+	 * of step x step pixels. The pixels that were already calculated in the previous 
+	 * (coarser) pass are skipped.
+	 * 
+	 * @param image The functionImage that is rendered
+	 * @param width The width of the rendered area
+	 * @param height The height of the rendered area
+	 * @param pixels The buffer the pixels are written into, row by row
+	 * @param step The distance between the calculated pixels
+	 * @param previousStep The step used in the previous pass. Must be a multiple of the 
+	 * step. 0 if this is the first pass.
+	 * @see ProgressiveRenderer
+	 */
+	public void renderPass(FunctionImage image, int width, int height, int[] pixels, 
+			int step, int previousStep)
+	{
+		if (step < 1 || previousStep < 0 || previousStep % step != 0)
+		{
+			System.err.println("Invalid render pass step " + step + " after step " + 
+					previousStep);
+			throw new InvalidParameterException();
+		}
+		
+		RenderJob job = new RenderJob(image, width, height, pixels, step, previousStep);
+		
+		// The compiled functions are created before the tiles are rendered
+		image.getPrograms();
+		RenderBackend backend = this.backend;
+		if (backend == RenderBackend.GENERATED)
+			job.rgbFunction = image.getRGBFunction();
+		else if (backend == RenderBackend.VECTOR)
+			job.rowFunction = VectorBackend.createRowFunction(image);
+		else
+			job.frame = image.getSeparableFrame(width, height);
+		
+		int tiles = job.tileColumns * job.tileRows;
+		this.pool.invoke(new TileTask(job, 0, tiles));
+		
+		// Records how many of the tiles had a single colour
+		this.culledTiles.addAndGet(job.culledTiles.get());
+		this.renderedTiles.addAndGet(tiles);
+		image.recordCulling(job.culledTiles.get(), tiles);
+	}
+	
+	private void renderTile(RenderJob job, int tileIndex)
+	{
+		int minX = (tileIndex % job.tileColumns) * this.tileSize;
+		int minY = (tileIndex / job.tileColumns) * this.tileSize;
+		int maxX = Math.min(minX + this.tileSize, job.width);
+		int maxY = Math.min(minY + this.tileSize, job.height);
+		
+		// Tiles that have a single colour are simply filled
+		if (this.culling)
+		{
+			int rgb = job.image.getConstantRGB(new Interval(minX, maxX - 1, false), 
+					new Interval(minY, maxY - 1, false));
+			if (rgb != 0)
+			{
+				for (int y = minY; y < maxY; y++)
+				{
+					Arrays.fill(job.pixels, y * job.width + minX, y * job.width + maxX, 
+							rgb & 0xFFFFFF);
+				}
+				job.culledTiles.incrementAndGet();
+				return;
+			}
+		}
+		
+		TileBuffers buffers = this.tileBuffers.get();
+		int step = job.step;
+		
+		// Each row of the tile is calculated as a single batch
+		for (int y = (minY + step - 1) / step * step; y < maxY; y += step)
+		{
+			// Skips the pixels that were calculated in the previous pass
+			boolean previousRow = job.previousStep > 0 && y % job.previousStep == 0;
+			int length = 0;
+			for (int x = (minX + step - 1) / step * step; x < maxX; x += step)
+			{
+				if (!previousRow || x % job.previousStep != 0)
+				{
+					buffers.xs[length] = x;
+					buffers.ys[length] = y;
+					length ++;
+				}
+			}
+			
+			calculateRGBs(job, buffers, length);
+			
+			// Each calculated pixel fills its block. The raster doesn't hold the alpha values
+			int blockHeight = Math.min(step, job.height - y);
+			for (int i = 0; i < length; i++)
+			{
+				int x = (int) buffers.xs[i];
+				int rgb = buffers.rgbs[i] & 0xFFFFFF;
+				
+				if (step == 1)
+					job.pixels[y * job.width + x] = rgb;
+				else
+				{
+					int blockWidth = Math.min(step, job.width - x);
+					for (int blockY = y; blockY < y + blockHeight; blockY++)
+					{
+						int offset = blockY * job.width + x;
+						Arrays.fill(job.pixels, offset, offset + blockWidth, rgb);
+					}
+				}
+			}
+		}
+	}
+	
+	private static void calculateRGBs(RenderJob job, TileBuffers buffers, int length)
+	{
+		if (job.rgbFunction != null)
+		{
+			// The generated function is called for each pixel separately
+			for (int i = 0; i < length; i++)
+			{
+				buffers.rgbs[i] = job.rgbFunction.rgb(buffers.xs[i], buffers.ys[i]);
+			}
+		}
+		else if (job.rowFunction != null)
+			job.rowFunction.getRGBs(buffers.xs, buffers.ys, length, buffers.rgbs, 0);
+		else
+			job.frame.getRGBs(buffers.args, length, buffers.rgbs, 0, buffers.values);
+	}
+	
+	
+	// SUBCLASSES	-----------------------------------------------
+	
+	private class RenderJob
+	{
+		// ATTRIBUTES	-------------------------------------------
+		
+		private FunctionImage image;
+		private RGBFunction rgbFunction;
+		private RGBRowFunction rowFunction;
+		private SeparableFrame frame;
+		private int width, height, tileColumns, tileRows, step, previousStep;
+		private int[] pixels;
+		private AtomicInteger culledTiles;
+		
+		
+		// CONSTRUCTOR	-------------------------------------------
+		
+		public RenderJob(FunctionImage image, int width, int height, int[] pixels, int step, 
+				int previousStep)
+		{
+			// Initializes attributes
+			this.image = image;
+			this.culledTiles = new AtomicInteger();
+			this.rgbFunction = null;
+			this.rowFunction = null;
+			this.frame = null;
+			this.width = width;
+			this.height = height;
+			this.pixels = pixels;
+			this.step = step;
+			this.previousStep = previousStep;
+			this.tileColumns = (width + getTileSize() - 1) / getTileSize();
+			this.tileRows = (height + getTileSize() - 1) / getTileSize();
+		}
+	}
+	
+	private class TileTask extends RecursiveAction
+	{
+		// ATTRIBUTES	-------------------------------------------
+		
+		private static final long serialVersionUID = 1L;
+		
+		private RenderJob job;
+		private int firstTile, lastTile;
+		
+		
+		// CONSTRUCTOR	-------------------------------------------
+		
+		public TileTask(RenderJob job, int firstTile, int lastTile)
+		{
+			// Initializes attributes
+			this.job = job;
+			this.firstTile = firstTile;
+			this.lastTile = lastTile;
+		}
+		
+		
+		// IMPLEMENTED METHODS	-----------------------------------
+		
+		@Override
+		protected void compute()
+		{
+			// Single tiles are rendered, larger sets are split in half
+			if (this.lastTile - this.firstTile <= 1)
+			{
+				if (this.lastTile > this.firstTile)
+					renderTile(this.job, this.firstTile);
+			}
+			else
+			{
+				int middle = (this.firstTile + this.lastTile) / 2;
+				invokeAll(new TileTask(this.job, this.firstTile, middle), 
+						new TileTask(this.job, middle, this.lastTile));
+			}
+		}
+	}
+	
+	private static class TileBuffers
+	{
+		// ATTRIBUTES	-------------------------------------------
+		
+		private double[] xs, ys;
+		private double[][] args;
+		private int[] rgbs;
+		private ValueBuffers values;
+		
+		
+		// CONSTRUCTOR	-------------------------------------------
+		
+		public TileBuffers(int tileSize)
+		{
+			// Initializes attributes
+			this.xs = new double[tileSize];
+			this.ys = new double[tileSize];
+			this.args = new double[][] {this.xs, this.ys};
+			this.rgbs = new int[tileSize];
+			this.values = new ValueBuffers();
+		}
+	}
+}
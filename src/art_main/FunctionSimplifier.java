@@ -0,0 +1,268 @@
+package art_main;
+
+import art_main.SimpleFunctionGenerator.ConstantFunction;
+
+/**
+ * FunctionSimplifier rewrites functions into simpler forms using a set of simplification 
+ * rules. The rules are applied from the bottom of the function tree upwards until none 
+ * of them can be applied anymore. Only rewrites that keep the values exactly the same 
+ * are used. For example x - x or x / x can't be simplified since they aren't 0 and 1 when 
+ * x is NaN or infinite, and constants can't be moved across operators since that would 
+ * change the rounding.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public class FunctionSimplifier
+{
+	// ATTRIBUTES	-------------------------------------------------
+	
+	private static final SimplificationRule[] RULES = {new ConstantFoldingRule(), 
+			new NaNPropagationRule(), new ZeroExponentRule(), new IdentityRule(), 
+			new DuplicateTermRule()};
+	
+	private static final double[] NO_ARGS = new double[0];
+	
+	
+	// CONSTRUCTOR	-------------------------------------------------
+	
+	private FunctionSimplifier()
+	{
+		// The constructor is hidden since the interface is static
+	}
+	
+	
+	// OTHER METHODS	-----------------------------------------------
+	
+	/**
+	 * Simplifies a function to its most simple form. The function may be modified in the 
+	 * process.
+	 * 
+	 * @param function The function that is simplified
+	 * @return The simplified function. This is either the given function or a function that 
+	 * replaces it. The replacement has the same parent as the given function.
+	 */
+	public static Function simplify(Function function)
+	{
+		// The subFunctions are simplified first
+		function.simplify();
+		
+		// The rules are applied until the function can't be simplified anymore
+		Function simplified = function;
+		while (simplified instanceof ComplexFunction)
+		{
+			Function replacement = applyRules((ComplexFunction) simplified);
+			if (replacement == null)
+				break;
+			simplified = replacement;
+		}
+		
+		if (simplified != function)
+			simplified.setParent(function.getParent());
+		
+		return simplified;
+	}
+	
+	/**
+	 * Checks whether two functions are structurally identical, in which case they always 
+	 * give the same values
+	 * 
+	 * @param first The first function
+	 * @param second The second function
+	 * @return Are the functions identical
+	 */
+	public static boolean areIdentical(Function first, Function second)
+	{
+		if (first.getModifier() != second.getModifier())
+			return false;
+		
+		if (first instanceof ComplexFunction)
+		{
+			if (!(second instanceof ComplexFunction))
+				return false;
+			
+			ComplexFunction complex1 = (ComplexFunction) first;
+			ComplexFunction complex2 = (ComplexFunction) second;
+			return complex1.getOperator().getType() == complex2.getOperator().getType() && 
+					areIdentical(complex1.getTerm1(), complex2.getTerm1()) && 
+					areIdentical(complex1.getTerm2(), complex2.getTerm2());
+		}
+		if (second instanceof ComplexFunction)
+			return false;
+		
+		// Constants are compared by their bits, parameters by their indices
+		if (first.dependsOnParameters() || second.dependsOnParameters())
+			return first.getParameterMask() == second.getParameterMask();
+		return Double.doubleToRawLongBits(first.getValueWithoutModification(NO_ARGS)) == 
+				Double.doubleToRawLongBits(second.getValueWithoutModification(NO_ARGS));
+	}
+	
+	private static Function applyRules(ComplexFunction function)
+	{
+		for (SimplificationRule rule : RULES)
+		{
+			Function replacement = rule.apply(function);
+			if (replacement != null)
+				return replacement;
+		}
+		
+		return null;
+	}
+	
+	private static boolean isConstant(Function function, double value)
+	{
+		return !function.dependsOnParameters() && 
+				Double.doubleToRawLongBits(function.getValue(NO_ARGS)) == 
+				Double.doubleToRawLongBits(value);
+	}
+	
+	private static boolean isNaN(Function function)
+	{
+		return !function.dependsOnParameters() && Double.isNaN(function.getValue(NO_ARGS));
+	}
+	
+	private static Function createConstant(double value, FunctionModifier modifier)
+	{
+		return new ConstantFunction(value, modifier, null);
+	}
+	
+	
+	// SUBCLASSES	-------------------------------------------------
+	
+	/**
+	 * Functions that don't depend on parameters are replaced with constants. The constant 
+	 * keeps the function's modifier, like the other parts of the genome do.
+	 */
+	private static class ConstantFoldingRule implements SimplificationRule
+	{
+		@Override
+		public Function apply(ComplexFunction function)
+		{
+			if (function.dependsOnParameters())
+				return null;
+			
+			return new ConstantFunction(function.getValueWithoutModification(NO_ARGS), 
+					function.getModifier(), null);
+		}
+	}
+	
+	/**
+	 * Addition, subtraction, multiplication, division and modulo always give NaN when 
+	 * either one of the values is NaN. So does power when the exponent is NaN. (NaN to the 
+	 * power of zero is 1.) Every modifier keeps NaN as NaN.
+	 */
+	private static class NaNPropagationRule implements SimplificationRule
+	{
+		@Override
+		public Function apply(ComplexFunction function)
+		{
+			Function term1 = function.getTerm1();
+			Function term2 = function.getTerm2();
+			
+			if (isNaN(term2))
+				return createConstant(term2.getValue(NO_ARGS), function.getModifier());
+			if (isNaN(term1) && function.getOperator().getType() != OperatorType.POWER)
+				return createConstant(term1.getValue(NO_ARGS), function.getModifier());
+			
+			return null;
+		}
+	}
+	
+	/**
+	 * Anything to the power of zero is 1, even NaN and infinity
+	 */
+	private static class ZeroExponentRule implements SimplificationRule
+	{
+		@Override
+		public Function apply(ComplexFunction function)
+		{
+			if (function.getOperator().getType() == OperatorType.POWER && 
+					(isConstant(function.getTerm2(), 0.0) || 
+					isConstant(function.getTerm2(), -0.0)))
+				return createConstant(1.0, function.getModifier());
+			
+			return null;
+		}
+	}
+	
+	/**
+	 * Removes the operations that don't change the value: x + -0, -0 + x, x - 0, x * 1, 
+	 * 1 * x, x / 1 and x ^ 1. (x + 0 is not the same as x when x is -0.) The remaining 
+	 * term takes the function's modifier, which is only possible when either one of 
+	 * them is NONE.
+	 */
+	private static class IdentityRule implements SimplificationRule
+	{
+		@Override
+		public Function apply(ComplexFunction function)
+		{
+			Function term1 = function.getTerm1();
+			Function term2 = function.getTerm2();
+			Function remaining = null;
+			
+			switch (function.getOperator().getType())
+			{
+				case ADDITION:
+					if (isConstant(term2, -0.0))
+						remaining = term1;
+					else if (isConstant(term1, -0.0))
+						remaining = term2;
+					break;
+				case SUBTRACTION:
+					if (isConstant(term2, 0.0))
+						remaining = term1;
+					break;
+				case MULTIPLICATION:
+					if (isConstant(term2, 1.0))
+						remaining = term1;
+					else if (isConstant(term1, 1.0))
+						remaining = term2;
+					break;
+				case DIVISION:
+				case POWER:
+					if (isConstant(term2, 1.0))
+						remaining = term1;
+					break;
+				
+				// Modulo doesn't have an identity value
+				default: break;
+			}
+			
+			if (remaining == null)
+				return null;
+			
+			// The modifiers are combined
+			if (function.getModifier() == FunctionModifier.NONE)
+				return remaining;
+			if (remaining.getModifier() == FunctionModifier.NONE)
+			{
+				remaining.setModifier(function.getModifier());
+				return remaining;
+			}
+			
+			return null;
+		}
+	}
+	
+	/**
+	 * x + x is replaced with x * 2, which gives exactly the same value but only holds 
+	 * the term once
+	 */
+	private static class DuplicateTermRule implements SimplificationRule
+	{
+		@Override
+		public Function apply(ComplexFunction function)
+		{
+			Function term1 = function.getTerm1();
+			
+			if (function.getOperator().getType() != OperatorType.ADDITION || 
+					!(term1 instanceof ComplexFunction) || 
+					!areIdentical(term1, function.getTerm2()))
+				return null;
+			
+			return new ComplexFunction(term1, new ConstantFunction(2, FunctionModifier.NONE, 
+					null), OperatorGenerator.createOperator(OperatorType.MULTIPLICATION), 
+					function.getModifier(), null);
+		}
+	}
+}
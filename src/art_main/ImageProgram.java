@@ -0,0 +1,73 @@
+package art_main;
+
+/**
+ * ImagePrograms are functionImages that have been compiled into function programs. They 
+ * calculate the same colours as the image they were compiled from but without walking the 
+ * function trees. An imageProgram reuses its buffers between calls, which is why it 
+ * shouldn't be shared between threads.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public class ImageProgram
+{
+	// ATTRIBUTES	----------------------------------------------
+	
+	private FunctionProgram[] programs;
+	private double[] stack;
+	private double[] modifierArgs;
+	
+	
+	// CONSTRUCTOR	----------------------------------------------
+	
+	/**
+	 * Creates a new imageProgram from the compiled image functions
+	 * 
+	 * @param programs The compiled functions of the image. The first one is the reference 
+	 * function, the others are the red, green and blue functions.
+	 */
+	public ImageProgram(FunctionProgram[] programs)
+	{
+		// Initializes attributes
+		this.programs = programs;
+		
+		int maxStackSize = 0;
+		for (FunctionProgram program : programs)
+		{
+			if (program.getMaxStackSize() > maxStackSize)
+				maxStackSize = program.getMaxStackSize();
+		}
+		
+		this.stack = new double[maxStackSize];
+		this.modifierArgs = new double[0];
+	}
+	
+	
+	// OTHER METHODS	------------------------------------------
+	
+	/**
+	 * Calculates an rgb value for corresponding to the given parameters. The result is the 
+	 * same as with {@link FunctionImage#getRGB(double[])}.
+	 * 
+	 * @param args The parameters used for calculating the rgb values
+	 * @return An rgb value calculated for the given parameters.
+	 */
+	public int getRGB(double[] args)
+	{
+		if (this.modifierArgs.length != args.length + 1)
+			this.modifierArgs = new double[args.length + 1];
+		
+		System.arraycopy(args, 0, this.modifierArgs, 0, args.length);
+		this.modifierArgs[args.length] = FunctionImage.wrapReferenceValue(
+				this.programs[0].getValue(args, this.stack));
+		
+		int red = FunctionImage.wrapColourValue(
+				this.programs[1].getValue(this.modifierArgs, this.stack));
+		int green = FunctionImage.wrapColourValue(
+				this.programs[2].getValue(this.modifierArgs, this.stack));
+		int blue = FunctionImage.wrapColourValue(
+				this.programs[3].getValue(this.modifierArgs, this.stack));
+		
+		return FunctionImage.packRGB(red, green, blue);
+	}
+}
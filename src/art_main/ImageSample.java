@@ -0,0 +1,231 @@
+package art_main;
+
+import java.security.InvalidParameterException;
+import java.util.Arrays;
+
+/**
+ * ImageSamples hold the colours of a functionImage at a coarse grid of points. The points 
+ * are spread evenly over the frame the image would be drawn into, so that the sample 
+ * looks like a downscaled version of the drawn image. Samples are used for judging images 
+ * without rendering them completely.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public class ImageSample
+{
+	// ATTRIBUTES	-------------------------------------------------
+	
+	private FunctionImage image;
+	private int width, height;
+	private double[] xs, ys;
+	private int[] pixels;
+	private double nanFraction;
+	
+	
+	// CONSTRUCTOR	-------------------------------------------------
+	
+	/**
+	 * Samples a functionImage
+	 * 
+	 * @param image The image that is sampled
+	 * @param frameWidth The width of the frame the image would be drawn into (pixels)
+	 * @param frameHeight The height of the frame the image would be drawn into (pixels)
+	 * @param width How many points there are on each row of the sample
+	 * @param height How many rows there are in the sample
+	 */
+	public ImageSample(FunctionImage image, int frameWidth, int frameHeight, int width, 
+			int height)
+	{
+		if (width < 1 || height < 1 || frameWidth < 1 || frameHeight < 1)
+		{
+			System.err.println("The sample and the frame must contain at least one pixel");
+			throw new InvalidParameterException();
+		}
+		
+		// Initializes attributes
+		this.image = image;
+		this.width = width;
+		this.height = height;
+		this.xs = getCoordinates(width, frameWidth);
+		this.ys = getCoordinates(height, frameHeight);
+		this.pixels = new int[width * height];
+		this.nanFraction = -1;
+		
+		// The sampled pixels are calculated like any other pixels, one row at a time
+		ValueBuffers buffers = new ValueBuffers();
+		double[] rowYs = new double[width];
+		double[][] args = {this.xs, rowYs};
+		for (int y = 0; y < height; y++)
+		{
+			Arrays.fill(rowYs, this.ys[y]);
+			image.getRGBs(args, width, this.pixels, y * width, buffers);
+		}
+	}
+	
+	
+	// GETTERS & SETTERS	-------------------------------------------
+	
+	/**
+	 * @return How many points there are on each row of the sample
+	 */
+	public int getWidth()
+	{
+		return this.width;
+	}
+	
+	/**
+	 * @return How many rows there are in the sample
+	 */
+	public int getHeight()
+	{
+		return this.height;
+	}
+	
+	/**
+	 * @return The rgb values of the sampled points, row by row. The array shouldn't be 
+	 * modified.
+	 */
+	public int[] getPixels()
+	{
+		return this.pixels;
+	}
+	
+	/**
+	 * @return The fraction of the sampled colour values (red, green and blue) that are NaN. 
+	 * NaN values are drawn as zero so they can't be seen from the pixels. The fraction is 
+	 * calculated the first time it is needed.
+	 */
+	public double getNaNFraction()
+	{
+		if (this.nanFraction < 0)
+		{
+			// The colour values are calculated again with the compiled functions, one row 
+			// at a time
+			FunctionProgram[] programs = this.image.getPrograms();
+			ValueBuffers buffers = new ValueBuffers();
+			double[] rowYs = new double[this.width];
+			double[] referenceValues = new double[this.width];
+			double[] colourValues = new double[this.width];
+			double[][] args = {this.xs, rowYs};
+			double[][] modifierArgs = {this.xs, rowYs, referenceValues};
+			int nanAmount = 0;
+			
+			for (int y = 0; y < this.height; y++)
+			{
+				Arrays.fill(rowYs, this.ys[y]);
+				programs[0].getValues(args, this.width, referenceValues, buffers);
+				for (int x = 0; x < this.width; x++)
+				{
+					referenceValues[x] = FunctionImage.wrapReferenceValue(referenceValues[x]);
+				}
+				
+				for (int i = 1; i < programs.length; i++)
+				{
+					programs[i].getValues(modifierArgs, this.width, colourValues, buffers);
+					for (int x = 0; x < this.width; x++)
+					{
+						if (Double.isNaN(colourValues[x]))
+							nanAmount ++;
+					}
+				}
+			}
+			
+			this.nanFraction = nanAmount / (double) (this.pixels.length * 
+					(programs.length - 1));
+		}
+		
+		return this.nanFraction;
+	}
+	
+	
+	// OTHER METHODS	-----------------------------------------------
+	
+	/**
+	 * @return The fraction of the sampled points that have the same colour as the points 
+	 * right and below them. The last row and column aren't counted.
+	 */
+	public double getFlatFraction()
+	{
+		int flat = 0;
+		int points = 0;
+		for (int y = 0; y < this.height - 1; y++)
+		{
+			for (int x = 0; x < this.width - 1; x++)
+			{
+				points ++;
+				int rgb = getRGB(x, y);
+				if (rgb == getRGB(x + 1, y) && rgb == getRGB(x, y + 1))
+					flat ++;
+			}
+		}
+		
+		// A single row or column can't tell whether the image is flat
+		if (points == 0)
+			return 0;
+		return flat / (double) points;
+	}
+	
+	/**
+	 * Calculates how large part of the neighbouring points have clearly different colours
+	 * @param difference How much the colour channels of two points must differ in total 
+	 * before there is an edge between them
+	 * @return The fraction of the neighbouring point pairs that have an edge between them
+	 */
+	public double getEdgeFraction(int difference)
+	{
+		int edges = 0;
+		int neighbours = 0;
+		for (int y = 0; y < this.height; y++)
+		{
+			for (int x = 0; x < this.width; x++)
+			{
+				if (x > 0)
+				{
+					neighbours ++;
+					if (getDifference(getRGB(x, y), getRGB(x - 1, y)) > difference)
+						edges ++;
+				}
+				if (y > 0)
+				{
+					neighbours ++;
+					if (getDifference(getRGB(x, y), getRGB(x, y - 1)) > difference)
+						edges ++;
+				}
+			}
+		}
+		
+		if (neighbours == 0)
+			return 0;
+		return edges / (double) neighbours;
+	}
+	
+	/**
+	 * @param x The x-coordinate of the sampled point
+	 * @param y The y-coordinate of the sampled point
+	 * @return The rgb value of the point
+	 */
+	public int getRGB(int x, int y)
+	{
+		return this.pixels[y * this.width + x];
+	}
+	
+	private static int getDifference(int rgb1, int rgb2)
+	{
+		return Math.abs(((rgb1 >> 16) & 0xFF) - ((rgb2 >> 16) & 0xFF)) + 
+				Math.abs(((rgb1 >> 8) & 0xFF) - ((rgb2 >> 8) & 0xFF)) + 
+				Math.abs((rgb1 & 0xFF) - (rgb2 & 0xFF));
+	}
+	
+	private static double[] getCoordinates(int amount, int frameSize)
+	{
+		// Each point is in the middle of the area it represents, on a whole pixel
+		double[] coordinates = new double[amount];
+		for (int i = 0; i < amount; i++)
+		{
+			coordinates[i] = (int) ((i + 0.5) * frameSize / amount);
+		}
+		
+		return coordinates;
+	}
+}
@@ -0,0 +1,172 @@
+package art_main;
+
+/**
+ * Intervals hold the range of values a function may give over a set of parameters. The 
+ * interval contains every value the function can actually give with double arithmetic, 
+ * including the rounding. An interval may also tell that the value may be NaN, in which 
+ * case the range may be empty.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public class Interval
+{
+	// ATTRIBUTES	-------------------------------------------------
+	
+	/**
+	 * An interval that contains every value, including NaN
+	 */
+	public static final Interval ALL = new Interval(Double.NEGATIVE_INFINITY, 
+			Double.POSITIVE_INFINITY, true);
+	
+	/**
+	 * An interval that only contains NaN
+	 */
+	public static final Interval NAN = new Interval(Double.POSITIVE_INFINITY, 
+			Double.NEGATIVE_INFINITY, true);
+	
+	private final double min, max;
+	private final boolean canBeNaN;
+	
+	
+	// CONSTRUCTOR	-------------------------------------------------
+	
+	/**
+	 * Creates a new interval
+	 * 
+	 * @param min The smallest value in the interval
+	 * @param max The largest value in the interval. If this is smaller than the minimum, 
+	 * the interval doesn't contain any numbers.
+	 * @param canBeNaN Does the interval contain NaN
+	 */
+	public Interval(double min, double max, boolean canBeNaN)
+	{
+		// Initializes attributes
+		this.min = min;
+		this.max = max;
+		this.canBeNaN = canBeNaN;
+	}
+	
+	
+	// IMPLEMENTED METHODS	-----------------------------------------
+	
+	@Override
+	public String toString()
+	{
+		if (!hasValues())
+			return this.canBeNaN ? "[NaN]" : "[]";
+		return "[" + this.min + ", " + this.max + "]" + (this.canBeNaN ? " or NaN" : "");
+	}
+	
+	
+	// GETTERS & SETTERS	-------------------------------------------
+	
+	/**
+	 * @return The smallest value in the interval
+	 */
+	public double getMin()
+	{
+		return this.min;
+	}
+	
+	/**
+	 * @return The largest value in the interval
+	 */
+	public double getMax()
+	{
+		return this.max;
+	}
+	
+	/**
+	 * @return Does the interval contain NaN
+	 */
+	public boolean canBeNaN()
+	{
+		return this.canBeNaN;
+	}
+	
+	
+	// OTHER METHODS	-----------------------------------------------
+	
+	/**
+	 * Creates an interval that only contains a single value
+	 * @param value The value in the interval
+	 * @return An interval that only contains the value
+	 */
+	public static Interval of(double value)
+	{
+		if (Double.isNaN(value))
+			return NAN;
+		return new Interval(value, value, false);
+	}
+	
+	/**
+	 * Creates an interval that contains all of the given values
+	 * 
+	 * @param canBeNaN Does the interval contain NaN
+	 * @param values The values in the interval. None of them should be NaN.
+	 * @return An interval from the smallest value to the largest one
+	 */
+	public static Interval containing(boolean canBeNaN, double... values)
+	{
+		double min = values[0];
+		double max = values[0];
+		for (int i = 1; i < values.length; i++)
+		{
+			min = Math.min(min, values[i]);
+			max = Math.max(max, values[i]);
+		}
+		
+		// The bounds should never be NaN but if they are, anything is possible
+		if (Double.isNaN(min) || Double.isNaN(max))
+			return ALL;
+		return new Interval(min, max, canBeNaN);
+	}
+	
+	/**
+	 * @return Does the interval contain any numbers (other than NaN)
+	 */
+	public boolean hasValues()
+	{
+		return this.min <= this.max;
+	}
+	
+	/**
+	 * @return Does the interval contain numbers and are all of them finite
+	 */
+	public boolean isFinite()
+	{
+		return hasValues() && !Double.isInfinite(this.min) && !Double.isInfinite(this.max);
+	}
+	
+	/**
+	 * @return Does the interval contain only a single number (and no NaN). 0 and -0 are 
+	 * considered different numbers.
+	 */
+	public boolean isSingleValue()
+	{
+		return !this.canBeNaN && Double.doubleToLongBits(this.min) == 
+				Double.doubleToLongBits(this.max);
+	}
+	
+	/**
+	 * @return Does the interval contain zero (or negative zero)
+	 */
+	public boolean containsZero()
+	{
+		return this.min <= 0 && this.max >= 0;
+	}
+	
+	/**
+	 * Creates a copy of this interval that may also contain NaN
+	 * @param canBeNaN Should the new interval contain NaN
+	 * @return An interval with the same numbers, containing NaN if either this interval 
+	 * or the parameter says so
+	 */
+	public Interval withNaN(boolean canBeNaN)
+	{
+		if (!canBeNaN || this.canBeNaN)
+			return this;
+		return new Interval(this.min, this.max, true);
+	}
+}
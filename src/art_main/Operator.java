@@ -15,4 +15,30 @@ public interface Operator
 	 * @return a value based on the two values
 	 */
 	public double getValue(double value1, double value2);
+	
+	/**
+	 * Operators can combine whole batches of values at once. Each value is the same as the 
+	 * one {@link #getValue(double, double)} would return.
+	 * @param values1 The first values used in the operator
+	 * @param values2 The second values used in the operator
+	 * @param length How many values are combined
+	 * @param output The array the values are written into. This may be the same array as 
+	 * either of the input arrays.
+	 */
+	public void getValues(double[] values1, double[] values2, int length, double[] output);
+	
+	/**
+	 * Operators can tell the range of values they may give when the values are inside 
+	 * the given ranges. Every value {@link #getValue(double, double)} returns for such 
+	 * values must be inside the range.
+	 * @param interval1 The range of the first values
+	 * @param interval2 The range of the second values
+	 * @return A range that contains every value the operator may give
+	 */
+	public Interval getInterval(Interval interval1, Interval interval2);
+	
+	/**
+	 * @return The type of the operator, which tells how the two values are combined
+	 */
+	public OperatorType getType();
 }
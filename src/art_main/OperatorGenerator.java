@@ -1,6 +1,6 @@
 package art_main;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * OperatorGenerator is used for generating different operators
@@ -25,21 +25,59 @@ public class OperatorGenerator
 	 */
 	public static Operator createRandomOperator()
 	{
-		Random random = new Random();
+		return createRandomOperator(new SplittableRandom());
+	}
+	
+	/**
+	 * @param random The random number generator used
+	 * @return A randomly generated operator
+	 */
+	public static Operator createRandomOperator(SplittableRandom random)
+	{
+		return createOperator(createRandomOperatorType(random));
+	}
+	
+	/**
+	 * @param random The random number generator used
+	 * @return The type of a randomly generated operator. The types are picked the same way 
+	 * as in {@link #createRandomOperator(SplittableRandom)}.
+	 */
+	public static OperatorType createRandomOperatorType(SplittableRandom random)
+	{
 		int chosen = random.nextInt(7);
 		
 		if (chosen < 1)
-			return new AdditionOperator(1);
+			return OperatorType.ADDITION;
 		if (chosen < 2)
-			return new AdditionOperator(-1);
+			return OperatorType.SUBTRACTION;
 		if (chosen < 3)
-			return new MultiplicationOperator();
+			return OperatorType.MULTIPLICATION;
 		if (chosen < 4)
-			return new DivisionOperator();
+			return OperatorType.DIVISION;
 		if (chosen < 5)
-			return new PowerOperator();
+			return OperatorType.POWER;
 		
-		return new ModuloOperator();
+		return OperatorType.MODULO;
+	}
+	
+	/**
+	 * Creates an operator of the given type
+	 * 
+	 * @param type The type of the created operator
+	 * @return An operator of the given type
+	 */
+	public static Operator createOperator(OperatorType type)
+	{
+		switch (type)
+		{
+			case ADDITION: return new AdditionOperator(1);
+			case SUBTRACTION: return new AdditionOperator(-1);
+			case MULTIPLICATION: return new MultiplicationOperator();
+			case DIVISION: return new DivisionOperator();
+			case POWER: return new PowerOperator();
+			
+			default: return new ModuloOperator();
+		}
 	}
 
 	
@@ -68,6 +106,41 @@ public class OperatorGenerator
 		{
 			return value1 + this.sign * value2;
 		}
+		
+		@Override
+		public void getValues(double[] values1, double[] values2, int length, 
+				double[] output)
+		{
+			// The sign is checked only once for the whole batch
+			if (this.sign < 0)
+			{
+				for (int i = 0; i < length; i++)
+				{
+					output[i] = values1[i] - values2[i];
+				}
+			}
+			else
+			{
+				for (int i = 0; i < length; i++)
+				{
+					output[i] = values1[i] + this.sign * values2[i];
+				}
+			}
+		}
+		
+		@Override
+		public Interval getInterval(Interval interval1, Interval interval2)
+		{
+			return getType().getInterval(interval1, interval2);
+		}
+		
+		@Override
+		public OperatorType getType()
+		{
+			if (this.sign < 0)
+				return OperatorType.SUBTRACTION;
+			return OperatorType.ADDITION;
+		}
 	}
 	
 	private static class MultiplicationOperator implements Operator
@@ -76,6 +149,28 @@ public class OperatorGenerator
 		public double getValue(double value1, double value2)
 		{
 			return value1 * value2;
+		}
+		
+		@Override
+		public void getValues(double[] values1, double[] values2, int length, 
+				double[] output)
+		{
+			for (int i = 0; i < length; i++)
+			{
+				output[i] = values1[i] * values2[i];
+			}
+		}
+		
+		@Override
+		public Interval getInterval(Interval interval1, Interval interval2)
+		{
+			return getType().getInterval(interval1, interval2);
+		}
+		
+		@Override
+		public OperatorType getType()
+		{
+			return OperatorType.MULTIPLICATION;
 		}	
 	}
 	
@@ -86,6 +181,28 @@ public class OperatorGenerator
 		{
 			return value1 / value2;
 		}
+		
+		@Override
+		public void getValues(double[] values1, double[] values2, int length, 
+				double[] output)
+		{
+			for (int i = 0; i < length; i++)
+			{
+				output[i] = values1[i] / values2[i];
+			}
+		}
+		
+		@Override
+		public Interval getInterval(Interval interval1, Interval interval2)
+		{
+			return getType().getInterval(interval1, interval2);
+		}
+		
+		@Override
+		public OperatorType getType()
+		{
+			return OperatorType.DIVISION;
+		}
 	}
 	
 	private static class PowerOperator implements Operator
@@ -94,6 +211,28 @@ public class OperatorGenerator
 		public double getValue(double value1, double value2)
 		{
 			return Math.pow(value1, value2);
+		}
+		
+		@Override
+		public void getValues(double[] values1, double[] values2, int length, 
+				double[] output)
+		{
+			for (int i = 0; i < length; i++)
+			{
+				output[i] = Math.pow(values1[i], values2[i]);
+			}
+		}
+		
+		@Override
+		public Interval getInterval(Interval interval1, Interval interval2)
+		{
+			return getType().getInterval(interval1, interval2);
+		}
+		
+		@Override
+		public OperatorType getType()
+		{
+			return OperatorType.POWER;
 		}	
 	}
 	
@@ -104,5 +243,27 @@ public class OperatorGenerator
 		{
 			return value1 % value2;
 		}
+		
+		@Override
+		public void getValues(double[] values1, double[] values2, int length, 
+				double[] output)
+		{
+			for (int i = 0; i < length; i++)
+			{
+				output[i] = values1[i] % values2[i];
+			}
+		}
+		
+		@Override
+		public Interval getInterval(Interval interval1, Interval interval2)
+		{
+			return getType().getInterval(interval1, interval2);
+		}
+		
+		@Override
+		public OperatorType getType()
+		{
+			return OperatorType.MODULO;
+		}
 	}
 }
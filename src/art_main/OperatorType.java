@@ -0,0 +1,220 @@
+package art_main;
+
+/**
+ * OperatorTypes tell how an operator combines its two values. The type is used when 
+ * functions are lowered into other forms, like function programs.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public enum OperatorType
+{
+	/**
+	 * x + y
+	 */
+	ADDITION, 
+	/**
+	 * x - y
+	 */
+	SUBTRACTION, 
+	/**
+	 * x * y
+	 */
+	MULTIPLICATION, 
+	/**
+	 * x / y
+	 */
+	DIVISION, 
+	/**
+	 * x ^ y
+	 */
+	POWER, 
+	/**
+	 * x % y
+	 */
+	MODULO;
+	
+	
+	// OTHER METHODS	------------------------------------------
+	
+	/**
+	 * @return The character that stands for the operator in the text form of functions
+	 * @see FunctionPrinter
+	 */
+	public char getSymbol()
+	{
+		switch (this)
+		{
+			case ADDITION: return '+';
+			case SUBTRACTION: return '-';
+			case MULTIPLICATION: return '*';
+			case DIVISION: return '/';
+			case POWER: return '^';
+			
+			default: return '%';
+		}
+	}
+	
+	/**
+	 * Combines the two values like an operator of this type would
+	 * 
+	 * @param value1 The first value used in the operation
+	 * @param value2 The second value used in the operation
+	 * @return A value based on the two values
+	 */
+	public double getValue(double value1, double value2)
+	{
+		switch (this)
+		{
+			case ADDITION: return value1 + value2;
+			case SUBTRACTION: return value1 - value2;
+			case MULTIPLICATION: return value1 * value2;
+			case DIVISION: return value1 / value2;
+			case POWER: return Math.pow(value1, value2);
+			
+			default: return value1 % value2;
+		}
+	}
+	
+	/**
+	 * Combines batches of values like an operator of this type would
+	 * 
+	 * @param values1 The first values used in the operation
+	 * @param values2 The second values used in the operation
+	 * @param length How many values are combined
+	 * @param output The array the values are written into. This may be the same array as 
+	 * either of the input arrays.
+	 */
+	public void getValues(double[] values1, double[] values2, int length, double[] output)
+	{
+		switch (this)
+		{
+			case ADDITION:
+				for (int i = 0; i < length; i++)
+				{
+					output[i] = values1[i] + values2[i];
+				}
+				break;
+			case SUBTRACTION:
+				for (int i = 0; i < length; i++)
+				{
+					output[i] = values1[i] - values2[i];
+				}
+				break;
+			case MULTIPLICATION:
+				for (int i = 0; i < length; i++)
+				{
+					output[i] = values1[i] * values2[i];
+				}
+				break;
+			case DIVISION:
+				for (int i = 0; i < length; i++)
+				{
+					output[i] = values1[i] / values2[i];
+				}
+				break;
+			case POWER:
+				for (int i = 0; i < length; i++)
+				{
+					output[i] = Math.pow(values1[i], values2[i]);
+				}
+				break;
+			
+			default:
+				for (int i = 0; i < length; i++)
+				{
+					output[i] = values1[i] % values2[i];
+				}
+				break;
+		}
+	}
+	
+	/**
+	 * Calculates the range of values an operator of this type may give when its values 
+	 * are inside the given intervals. The range contains the values exactly as they are 
+	 * calculated in {@link #getValue(double, double)}, rounding included. The rounding of 
+	 * the basic operations and Math.pow are monotonic, so the values at the ends of the 
+	 * intervals give the bounds.
+	 * 
+	 * @param interval1 The range of the first values
+	 * @param interval2 The range of the second values
+	 * @return The range of the combined values
+	 */
+	public Interval getInterval(Interval interval1, Interval interval2)
+	{
+		// Single values are simply calculated
+		if (interval1.isSingleValue() && interval2.isSingleValue())
+			return Interval.of(getValue(interval1.getMin(), interval2.getMin()));
+		
+		if (this == POWER)
+			return getPowerInterval(interval1, interval2);
+		
+		// The other operations give NaN whenever either value is NaN
+		if (!interval1.hasValues() || !interval2.hasValues())
+			return Interval.NAN;
+		// Infinities can produce NaN in all kinds of ways
+		if (!interval1.isFinite() || !interval2.isFinite())
+			return Interval.ALL;
+		
+		boolean canBeNaN = interval1.canBeNaN() || interval2.canBeNaN();
+		double min1 = interval1.getMin();
+		double max1 = interval1.getMax();
+		double min2 = interval2.getMin();
+		double max2 = interval2.getMax();
+		
+		switch (this)
+		{
+			case ADDITION: return new Interval(min1 + min2, max1 + max2, canBeNaN);
+			case SUBTRACTION: return new Interval(min1 - max2, max1 - min2, canBeNaN);
+			case MULTIPLICATION: return Interval.containing(canBeNaN, min1 * min2, 
+					min1 * max2, max1 * min2, max1 * max2);
+			case DIVISION:
+				// Dividing by (almost) zero can give anything
+				if (interval2.containsZero())
+					return Interval.ALL;
+				return Interval.containing(canBeNaN, min1 / min2, min1 / max2, max1 / min2, 
+						max1 / max2);
+			
+			default: return getModuloInterval(min1, max1, min2, max2, canBeNaN);
+		}
+	}
+	
+	private static Interval getPowerInterval(Interval base, Interval exponent)
+	{
+		// Anything to the power of zero is 1, even NaN
+		if (!base.hasValues() || !exponent.hasValues())
+		{
+			if (exponent.hasValues() && exponent.containsZero())
+				return new Interval(1, 1, true);
+			return Interval.NAN;
+		}
+		
+		// Only positive bases are handled. They are monotonic in both directions.
+		if (!base.isFinite() || !exponent.isFinite() || base.getMin() <= 0)
+			return Interval.ALL;
+		
+		return Interval.containing(base.canBeNaN() || exponent.canBeNaN(), 
+				Math.pow(base.getMin(), exponent.getMin()), 
+				Math.pow(base.getMin(), exponent.getMax()), 
+				Math.pow(base.getMax(), exponent.getMin()), 
+				Math.pow(base.getMax(), exponent.getMax()));
+	}
+	
+	private static Interval getModuloInterval(double min1, double max1, double min2, 
+			double max2, boolean canBeNaN)
+	{
+		// x % 0 is NaN, otherwise the result has the sign of x and is smaller than y
+		boolean divisorCanBeZero = min2 <= 0 && max2 >= 0;
+		if (divisorCanBeZero && min2 == 0 && max2 == 0)
+			return Interval.NAN;
+		double largestDivisor = Math.max(Math.abs(min2), Math.abs(max2));
+		double largestDividend = Math.max(Math.abs(min1), Math.abs(max1));
+		
+		// If the divisor is always larger than the dividend, the dividend stays the same
+		if (!divisorCanBeZero && largestDividend < Math.min(Math.abs(min2), Math.abs(max2)))
+			return new Interval(min1, max1, canBeNaN);
+		
+		return new Interval(min1 >= 0 ? 0 : Math.max(min1, -largestDivisor), 
+				max1 <= 0 ? 0 : Math.min(max1, largestDivisor), canBeNaN || divisorCanBeZero);
+	}
+}
@@ -0,0 +1,855 @@
+package art_main;
+
+import java.nio.ByteBuffer;
+import java.security.InvalidParameterException;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import art_main.SimpleFunctionGenerator.ConstantFunction;
+
+/**
+ * PackedFunctions hold a function tree in parallel primitive arrays instead of function 
+ * objects. Each node has an opcode, a modifier and the indices of its two terms, and the 
+ * values of the constants are kept in a separate constant pool. The nodes are stored in 
+ * pre-order, so the root is the first node and each subtree fills a continuous range of 
+ * the arrays. Copying a packed function only clones the arrays. 
+ * <p> 
+ * Packed functions breed, mutate and simplify exactly like the function trees do. The 
+ * same random number generator produces the same function in both forms.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ * @see PackedGenome
+ */
+public class PackedFunction
+{
+	// ATTRIBUTES	-------------------------------------------------
+	
+	/**
+	 * The opcode of the constant nodes. The first term of a constant node is the index of 
+	 * its value in the constant pool. The opcodes of the complex nodes are the ordinals of 
+	 * their operator types.
+	 */
+	public static final byte CONSTANT = -1;
+	/**
+	 * The opcode of the parameter nodes. The first term of a parameter node is the index 
+	 * of the parameter.
+	 */
+	public static final byte PARAMETER = -2;
+	
+	private static final double[] NO_ARGS = new double[0];
+	private static final OperatorType[] OPERATOR_TYPES = OperatorType.values();
+	private static final FunctionModifier[] MODIFIERS = FunctionModifier.values();
+	private static final Operator[] OPERATORS = createOperators();
+	
+	private byte[] opcodes, modifiers;
+	private int[] terms1, terms2;
+	private double[] constants;
+	
+	
+	// CONSTRUCTOR	-------------------------------------------------
+	
+	private PackedFunction(byte[] opcodes, byte[] modifiers, int[] terms1, int[] terms2, 
+			double[] constants)
+	{
+		// Initializes attributes
+		this.opcodes = opcodes;
+		this.modifiers = modifiers;
+		this.terms1 = terms1;
+		this.terms2 = terms2;
+		this.constants = constants;
+	}
+	
+	
+	// GETTERS & SETTERS	-------------------------------------------
+	
+	/**
+	 * @return How many nodes (functions) there are in the tree
+	 */
+	public int getNodeAmount()
+	{
+		return this.opcodes.length;
+	}
+	
+	/**
+	 * @return How many constants there are in the constant pool
+	 */
+	public int getConstantAmount()
+	{
+		return this.constants.length;
+	}
+	
+	
+	// OTHER METHODS	-----------------------------------------------
+	
+	/**
+	 * Packs a function tree
+	 * @param function The function that is packed (won't be modified)
+	 * @return A packed function with the same structure
+	 */
+	public static PackedFunction pack(Function function)
+	{
+		Builder builder = new Builder(function.getSubFunctionAmount() + 1);
+		return builder.toPackedFunction(builder.add(function));
+	}
+	
+	/**
+	 * @return A function tree with the same structure as this function
+	 */
+	public Function unpack()
+	{
+		return unpack(0);
+	}
+	
+	/**
+	 * @return An exact copy of this function
+	 */
+	public PackedFunction createCopy()
+	{
+		return new PackedFunction(this.opcodes.clone(), this.modifiers.clone(), 
+				this.terms1.clone(), this.terms2.clone(), this.constants.clone());
+	}
+	
+	/**
+	 * Creates a child based on the "mother" and "father" functions. The called function 
+	 * will act as the mother. Neither function is affected by this call. The child is 
+	 * the same as the one {@link Function#createChild(Function, SplittableRandom)} would 
+	 * create from the same trees.
+	 * 
+	 * @param father The father function used for creating the child
+	 * @param random The random number generator that decides how the child is created
+	 * @return A new function that is created from the two functions
+	 */
+	public PackedFunction createChild(PackedFunction father, SplittableRandom random)
+	{
+		// Complex functions draw a child from one of their terms first. The child isn't 
+		// used, but the random numbers are drawn just like in ComplexFunction.
+		if (isComplex(0))
+			skipTermChild(0, random);
+		
+		double chosen = random.nextDouble();
+		
+		// 33% The child only resembles the father
+		if (chosen < 0.33)
+			return father.createCopy();
+		// 33% The child (only) gets the father's function modifier
+		else if (chosen < 0.66)
+		{
+			PackedFunction child = createCopy();
+			child.modifiers[0] = father.modifiers[0];
+			return child;
+		}
+		// 33% Creates a new function that has both functions combined
+		else
+			return combine(this, father, OperatorGenerator.createRandomOperatorType(random), 
+					FunctionModifier.getRandomModifier(random));
+	}
+	
+	/**
+	 * Mutation may change the function's structure. The function mutates like 
+	 * {@link Function#mutate(SplittableRandom)}, including growing upwards.
+	 * @param random The random number generator that decides how the function mutates
+	 */
+	public void mutate(SplittableRandom random)
+	{
+		Builder builder = new Builder(getNodeAmount() + 8);
+		replaceWith(builder.toPackedFunction(mutate(0, true, getSubtreeSizes(), builder, 
+				random)));
+	}
+	
+	/**
+	 * Simplifies the function to its most simple form, like 
+	 * {@link FunctionSimplifier#simplify(Function)} would
+	 */
+	public void simplify()
+	{
+		Builder builder = new Builder(getNodeAmount());
+		replaceWith(builder.toPackedFunction(simplify(0, builder)));
+	}
+	
+	/**
+	 * @return A hash of the function's structure. The hash is the same as the one the 
+	 * unpacked function tree would have.
+	 * @see Function#getStructureHash()
+	 */
+	public long getStructureHash()
+	{
+		return getStructureHash(0);
+	}
+	
+	/**
+	 * @return How many bytes {@link #write(ByteBuffer)} writes
+	 */
+	int getSerializedSize()
+	{
+		int parameters = 0;
+		for (byte opcode : this.opcodes)
+		{
+			if (opcode == PARAMETER)
+				parameters ++;
+		}
+		
+		return 4 + 2 * this.opcodes.length + parameters + 8 * this.constants.length;
+	}
+	
+	/**
+	 * Writes the function into a buffer. The node amount is followed by the opcodes, the 
+	 * modifiers, the parameter indices and the constants. The terms aren't written since 
+	 * the pre-order tells them.
+	 * @param buffer The buffer the function is written into
+	 */
+	void write(ByteBuffer buffer)
+	{
+		buffer.putInt(this.opcodes.length);
+		buffer.put(this.opcodes);
+		buffer.put(this.modifiers);
+		for (int node = 0; node < this.opcodes.length; node++)
+		{
+			if (this.opcodes[node] == PARAMETER)
+				buffer.put((byte) this.terms1[node]);
+		}
+		for (double constant : this.constants)
+		{
+			buffer.putDouble(constant);
+		}
+	}
+	
+	/**
+	 * Reads a function written with {@link #write(ByteBuffer)}
+	 * @param buffer The buffer the function is read from
+	 * @return The function that was read
+	 */
+	static PackedFunction read(ByteBuffer buffer)
+	{
+		int nodes = buffer.getInt();
+		if (nodes < 1 || nodes > buffer.remaining() / 2)
+		{
+			System.err.println("Invalid node amount " + nodes);
+			throw new InvalidParameterException();
+		}
+		
+		byte[] opcodes = new byte[nodes];
+		byte[] modifiers = new byte[nodes];
+		buffer.get(opcodes);
+		buffer.get(modifiers);
+		
+		int[] terms1 = new int[nodes];
+		int[] terms2 = new int[nodes];
+		int constantAmount = 0;
+		for (int node = 0; node < nodes; node++)
+		{
+			if (opcodes[node] < PARAMETER || opcodes[node] >= OPERATOR_TYPES.length || 
+					modifiers[node] < 0 || modifiers[node] >= MODIFIERS.length)
+			{
+				System.err.println("Invalid node " + opcodes[node] + ", " + modifiers[node]);
+				throw new InvalidParameterException();
+			}
+			
+			terms2[node] = -1;
+			if (opcodes[node] == PARAMETER)
+			{
+				terms1[node] = buffer.get();
+				if (terms1[node] < 0)
+				{
+					System.err.println("Invalid parameter index " + terms1[node]);
+					throw new InvalidParameterException();
+				}
+			}
+			else if (opcodes[node] == CONSTANT)
+				terms1[node] = constantAmount ++;
+		}
+		
+		double[] constants = new double[constantAmount];
+		for (int i = 0; i < constantAmount; i++)
+		{
+			constants[i] = buffer.getDouble();
+		}
+		
+		// The terms are found by going through the nodes backwards. The terms of each 
+		// function are the two latest subtrees.
+		int[] subtrees = new int[nodes];
+		int subtreeAmount = 0;
+		for (int node = nodes - 1; node >= 0; node--)
+		{
+			if (opcodes[node] >= 0)
+			{
+				if (subtreeAmount < 2)
+				{
+					System.err.println("A function is missing its terms");
+					throw new InvalidParameterException();
+				}
+				terms1[node] = subtrees[-- subtreeAmount];
+				terms2[node] = subtrees[-- subtreeAmount];
+			}
+			subtrees[subtreeAmount ++] = node;
+		}
+		
+		if (subtreeAmount != 1)
+		{
+			System.err.println("The nodes don't form a single tree");
+			throw new InvalidParameterException();
+		}
+		
+		return new PackedFunction(opcodes, modifiers, terms1, terms2, constants);
+	}
+	
+	private boolean isComplex(int node)
+	{
+		return this.opcodes[node] >= 0;
+	}
+	
+	private Function unpack(int node)
+	{
+		FunctionModifier modifier = MODIFIERS[this.modifiers[node]];
+		switch (this.opcodes[node])
+		{
+			case CONSTANT: return new ConstantFunction(this.constants[this.terms1[node]], 
+					modifier, null);
+			case PARAMETER: return SimpleFunctionGenerator.createParameterFunction(
+					this.terms1[node], modifier, null);
+			
+			default: return new ComplexFunction(unpack(this.terms1[node]), 
+					unpack(this.terms2[node]), OperatorGenerator.createOperator(
+					OPERATOR_TYPES[this.opcodes[node]]), modifier, null);
+		}
+	}
+	
+	private long getStructureHash(int node)
+	{
+		switch (this.opcodes[node])
+		{
+			case CONSTANT: return Function.combineHashes(Function.combineHashes(-1, 
+					Double.doubleToLongBits(this.constants[this.terms1[node]])), 
+					this.modifiers[node]);
+			case PARAMETER: return Function.combineHashes(Function.combineHashes(-2, 
+					this.terms1[node]), this.modifiers[node]);
+			
+			default:
+				long hash = Function.combineHashes(this.opcodes[node], this.modifiers[node]);
+				hash = Function.combineHashes(hash, getStructureHash(this.terms1[node]));
+				return Function.combineHashes(hash, getStructureHash(this.terms2[node]));
+		}
+	}
+	
+	private int getEnd(int node)
+	{
+		// The last node of a subtree is found by following the second terms
+		while (isComplex(node))
+		{
+			node = this.terms2[node];
+		}
+		
+		return node + 1;
+	}
+	
+	private int[] getSubtreeSizes()
+	{
+		// The terms always come after the function in pre-order
+		int[] sizes = new int[getNodeAmount()];
+		for (int node = sizes.length - 1; node >= 0; node--)
+		{
+			sizes[node] = 1;
+			if (isComplex(node))
+				sizes[node] += sizes[this.terms1[node]] + sizes[this.terms2[node]];
+		}
+		
+		return sizes;
+	}
+	
+	private void skipTermChild(int node, SplittableRandom random)
+	{
+		// Draws the same numbers as ComplexFunction.createChild before it calls 
+		// Function.createChild
+		int subFunctionAmount = getEnd(node) - node - 1;
+		if (random.nextDouble() < 1 - (1.0 / subFunctionAmount))
+		{
+			int term2 = this.terms2[node];
+			if (random.nextDouble() < (getEnd(term2) - term2 + 0.0) / subFunctionAmount)
+				skipChild(this.terms1[node], random);
+			else
+				skipChild(term2, random);
+		}
+	}
+	
+	private void skipChild(int node, SplittableRandom random)
+	{
+		// Draws the same numbers as createChild would, without creating anything
+		if (isComplex(node))
+			skipTermChild(node, random);
+		
+		if (random.nextDouble() >= 0.66)
+		{
+			OperatorGenerator.createRandomOperatorType(random);
+			FunctionModifier.getRandomModifier(random);
+		}
+	}
+	
+	private int mutate(int node, boolean top, int[] sizes, Builder builder, 
+			SplittableRandom random)
+	{
+		// The leaves are copied before they are mutated
+		if (!isComplex(node))
+			return builder.mutateLeaf(builder.add(this, node), top, random);
+		
+		// Complex functions may transform their terms into simple functions
+		int subFunctionAmount = sizes[node] - 1;
+		int function = builder.add(this, node);
+		int replacing = function;
+		int term1 = -1;
+		int term2 = -1;
+		if (random.nextDouble() < subFunctionAmount / 150.0)
+		{
+			if (random.nextDouble() < 0.5)
+				term1 = builder.addSimpleFunction(random);
+			else
+				term2 = builder.addSimpleFunction(random);
+		}
+		else
+			// They can also mutate normally
+			replacing = builder.mutate(function, subFunctionAmount, top, random);
+		
+		// Complex functions also mutate their terms
+		if (term1 < 0)
+			term1 = mutate(this.terms1[node], false, sizes, builder, random);
+		else
+			term1 = builder.mutateLeaf(term1, false, random);
+		if (term2 < 0)
+			term2 = mutate(this.terms2[node], false, sizes, builder, random);
+		else
+			term2 = builder.mutateLeaf(term2, false, random);
+		
+		builder.setTerms(function, term1, term2);
+		return replacing;
+	}
+	
+	private int simplify(int node, Builder builder)
+	{
+		// The modifiers of the constants are applied beforehand
+		if (this.opcodes[node] == CONSTANT)
+			return builder.addConstant(MODIFIERS[this.modifiers[node]].modify(
+					this.constants[this.terms1[node]]), FunctionModifier.NONE);
+		if (this.opcodes[node] == PARAMETER)
+			return builder.add(this, node);
+		
+		// The terms are simplified first, after which the simplification rules may 
+		// replace the function with a simpler one
+		int term1 = simplify(this.terms1[node], builder);
+		int term2 = simplify(this.terms2[node], builder);
+		int simplified = builder.addComplex(OPERATOR_TYPES[this.opcodes[node]], 
+				MODIFIERS[this.modifiers[node]], term1, term2);
+		while (builder.isComplex(simplified))
+		{
+			int replacement = builder.applyRules(simplified);
+			if (replacement < 0)
+				break;
+			simplified = replacement;
+		}
+		
+		return simplified;
+	}
+	
+	private void replaceWith(PackedFunction other)
+	{
+		this.opcodes = other.opcodes;
+		this.modifiers = other.modifiers;
+		this.terms1 = other.terms1;
+		this.terms2 = other.terms2;
+		this.constants = other.constants;
+	}
+	
+	private static PackedFunction combine(PackedFunction first, PackedFunction second, 
+			OperatorType operator, FunctionModifier modifier)
+	{
+		// The new root is followed by the two trees, one after another
+		int firstNodes = first.getNodeAmount();
+		int nodes = 1 + firstNodes + second.getNodeAmount();
+		PackedFunction combined = new PackedFunction(new byte[nodes], new byte[nodes], 
+				new int[nodes], new int[nodes], 
+				new double[first.constants.length + second.constants.length]);
+		
+		combined.opcodes[0] = (byte) operator.ordinal();
+		combined.modifiers[0] = (byte) modifier.ordinal();
+		combined.terms1[0] = 1;
+		combined.terms2[0] = 1 + firstNodes;
+		combined.copyNodes(first, 1, 0);
+		combined.copyNodes(second, 1 + firstNodes, first.constants.length);
+		
+		return combined;
+	}
+	
+	private void copyNodes(PackedFunction source, int offset, int constantOffset)
+	{
+		int nodes = source.getNodeAmount();
+		System.arraycopy(source.opcodes, 0, this.opcodes, offset, nodes);
+		System.arraycopy(source.modifiers, 0, this.modifiers, offset, nodes);
+		System.arraycopy(source.constants, 0, this.constants, constantOffset, 
+				source.constants.length);
+		
+		// The indices move with the nodes
+		for (int i = 0; i < nodes; i++)
+		{
+			switch (source.opcodes[i])
+			{
+				case CONSTANT:
+					this.terms1[offset + i] = source.terms1[i] + constantOffset;
+					this.terms2[offset + i] = -1;
+					break;
+				case PARAMETER:
+					this.terms1[offset + i] = source.terms1[i];
+					this.terms2[offset + i] = -1;
+					break;
+				default:
+					this.terms1[offset + i] = source.terms1[i] + offset;
+					this.terms2[offset + i] = source.terms2[i] + offset;
+					break;
+			}
+		}
+	}
+	
+	private static Operator[] createOperators()
+	{
+		// The operators don't have a state so they can be shared
+		Operator[] operators = new Operator[OPERATOR_TYPES.length];
+		for (int i = 0; i < operators.length; i++)
+		{
+			operators[i] = OperatorGenerator.createOperator(OPERATOR_TYPES[i]);
+		}
+		
+		return operators;
+	}
+	
+	
+	// SUBCLASSES	-------------------------------------------------
+	
+	/**
+	 * Builders collect the nodes of a new tree in any order. The terms may be set after 
+	 * the function that holds them. Once the tree is ready, the nodes that can be reached 
+	 * from the root are packed in pre-order.
+	 * 
+	 * @author Mikko Hilpinen
+	 * @since 17.10.2026
+	 */
+	private static class Builder
+	{
+		// ATTRIBUTES	---------------------------------------------
+		
+		private byte[] opcodes, modifiers;
+		private int[] terms1, terms2, parameterMasks;
+		private double[] values;
+		private int size;
+		
+		
+		// CONSTRUCTOR	---------------------------------------------
+		
+		public Builder(int capacity)
+		{
+			// Initializes attributes
+			capacity = Math.max(4, capacity);
+			this.opcodes = new byte[capacity];
+			this.modifiers = new byte[capacity];
+			this.terms1 = new int[capacity];
+			this.terms2 = new int[capacity];
+			this.parameterMasks = new int[capacity];
+			this.values = new double[capacity];
+			this.size = 0;
+		}
+		
+		
+		// OTHER METHODS	-----------------------------------------
+		
+		public int addConstant(double value, FunctionModifier modifier)
+		{
+			int node = addNode(CONSTANT, modifier.ordinal(), -1, -1);
+			this.values[node] = value;
+			return node;
+		}
+		
+		public int addParameter(int parameterIndex, FunctionModifier modifier)
+		{
+			int node = addNode(PARAMETER, modifier.ordinal(), parameterIndex, -1);
+			this.parameterMasks[node] = 1 << parameterIndex;
+			return node;
+		}
+		
+		public int addComplex(OperatorType operator, FunctionModifier modifier, int term1, 
+				int term2)
+		{
+			int node = addNode(operator.ordinal(), modifier.ordinal(), -1, -1);
+			setTerms(node, term1, term2);
+			return node;
+		}
+		
+		public int add(Function function)
+		{
+			if (function instanceof ComplexFunction)
+			{
+				// The function is added before its terms, which keeps the pre-order
+				ComplexFunction complex = (ComplexFunction) function;
+				int node = addNode(complex.getOperator().getType().ordinal(), 
+						function.getModifier().ordinal(), -1, -1);
+				int term1 = add(complex.getTerm1());
+				setTerms(node, term1, add(complex.getTerm2()));
+				return node;
+			}
+			
+			// Constants and parameters are told apart like in the simplifier
+			if (function.dependsOnParameters())
+				return addParameter(Integer.numberOfTrailingZeros(function.getParameterMask()), 
+						function.getModifier());
+			return addConstant(function.getValueWithoutModification(NO_ARGS), 
+					function.getModifier());
+		}
+		
+		public int add(PackedFunction function, int node)
+		{
+			// The terms of complex functions are set separately
+			FunctionModifier modifier = MODIFIERS[function.modifiers[node]];
+			switch (function.opcodes[node])
+			{
+				case CONSTANT: return addConstant(function.constants[function.terms1[node]], 
+						modifier);
+				case PARAMETER: return addParameter(function.terms1[node], modifier);
+				
+				default: return addNode(function.opcodes[node], modifier.ordinal(), -1, -1);
+			}
+		}
+		
+		public int addSimpleFunction(SplittableRandom random)
+		{
+			return add(SimpleFunctionGenerator.createSimpleFunction(2, null, random));
+		}
+		
+		public void setTerms(int node, int term1, int term2)
+		{
+			this.terms1[node] = term1;
+			this.terms2[node] = term2;
+			this.parameterMasks[node] = (term1 < 0 ? 0 : this.parameterMasks[term1]) |
+					(term2 < 0 ? 0 : this.parameterMasks[term2]);
+		}
+		
+		public boolean isComplex(int node)
+		{
+			return this.opcodes[node] >= 0;
+		}
+		
+		public int mutateLeaf(int node, boolean top, SplittableRandom random)
+		{
+			// There is a chance that the constant value mutates somehow
+			if (this.opcodes[node] == CONSTANT && random.nextDouble() < 0.5)
+			{
+				if (random.nextDouble() < 0.25)
+					this.values[node] *= -1;
+				else
+					this.values[node] *= 0.75 + 0.5 * random.nextDouble();
+				return node;
+			}
+			
+			return mutate(node, 0, top, random);
+		}
+		
+		public int mutate(int node, int subFunctionAmount, boolean top, 
+				SplittableRandom random)
+		{
+			// If the function is light, it may create a new simple function beside it. 
+			// This only has an effect at the top of the tree, where the new function becomes 
+			// the root.
+			if (random.nextDouble() < (1 - subFunctionAmount / 150.0) * 0.3)
+			{
+				int simple = addSimpleFunction(random);
+				OperatorType operator = OperatorGenerator.createRandomOperatorType(random);
+				FunctionModifier modifier = FunctionModifier.getRandomModifier(random);
+				if (top)
+					return addComplex(operator, modifier, node, simple);
+			}
+			// A function's modifier may also change randomly
+			else if (random.nextDouble() < 0.05)
+				this.modifiers[node] = (byte) FunctionModifier.getRandomModifier(
+						random).ordinal();
+			
+			return node;
+		}
+		
+		public int applyRules(int node)
+		{
+			int term1 = this.terms1[node];
+			int term2 = this.terms2[node];
+			OperatorType operator = OPERATOR_TYPES[this.opcodes[node]];
+			FunctionModifier modifier = MODIFIERS[this.modifiers[node]];
+			
+			// Functions that don't depend on parameters are replaced with constants
+			if (this.parameterMasks[node] == 0)
+				return addConstant(getValue(node), FunctionModifier.NONE);
+			
+			// NaN values propagate
+			if (isNaN(term2))
+				return addConstant(modifier.modify(getValue(term2)), FunctionModifier.NONE);
+			if (isNaN(term1) && operator != OperatorType.POWER)
+				return addConstant(modifier.modify(getValue(term1)), FunctionModifier.NONE);
+			
+			// Anything to the power of zero is 1
+			if (operator == OperatorType.POWER && (isConstant(term2, 0.0) || 
+					isConstant(term2, -0.0)))
+				return addConstant(modifier.modify(1.0), FunctionModifier.NONE);
+			
+			// The operations that don't change the value are removed, if the modifiers can 
+			// be combined
+			int remaining = getIdentityTerm(operator, term1, term2);
+			if (remaining >= 0 && modifier == FunctionModifier.NONE)
+				return remaining;
+			if (remaining >= 0 && this.modifiers[remaining] == FunctionModifier.NONE.ordinal())
+			{
+				this.modifiers[remaining] = (byte) modifier.ordinal();
+				return remaining;
+			}
+			
+			// x + x is replaced with x * 2
+			if (operator == OperatorType.ADDITION && isComplex(term1) && 
+					areIdentical(term1, term2))
+				return addComplex(OperatorType.MULTIPLICATION, modifier, term1, 
+						addConstant(2, FunctionModifier.NONE));
+			
+			return -1;
+		}
+		
+		public PackedFunction toPackedFunction(int root)
+		{
+			// Only the nodes that can be reached from the root are packed
+			int[] amounts = new int[2];
+			count(root, amounts);
+			PackedFunction function = new PackedFunction(new byte[amounts[0]], 
+					new byte[amounts[0]], new int[amounts[0]], new int[amounts[0]], 
+					new double[amounts[1]]);
+			write(root, function, new int[2]);
+			
+			return function;
+		}
+		
+		private int addNode(int opcode, int modifier, int term1, int term2)
+		{
+			if (this.size == this.opcodes.length)
+			{
+				int capacity = this.size * 2;
+				this.opcodes = Arrays.copyOf(this.opcodes, capacity);
+				this.modifiers = Arrays.copyOf(this.modifiers, capacity);
+				this.terms1 = Arrays.copyOf(this.terms1, capacity);
+				this.terms2 = Arrays.copyOf(this.terms2, capacity);
+				this.parameterMasks = Arrays.copyOf(this.parameterMasks, capacity);
+				this.values = Arrays.copyOf(this.values, capacity);
+			}
+			
+			int node = this.size ++;
+			this.opcodes[node] = (byte) opcode;
+			this.modifiers[node] = (byte) modifier;
+			this.terms1[node] = term1;
+			this.terms2[node] = term2;
+			this.parameterMasks[node] = 0;
+			this.values[node] = 0;
+			
+			return node;
+		}
+		
+		private double getValue(int node)
+		{
+			// Only used for the nodes that don't depend on parameters
+			double value = this.values[node];
+			if (isComplex(node))
+				value = OPERATORS[this.opcodes[node]].getValue(getValue(this.terms1[node]), 
+						getValue(this.terms2[node]));
+			
+			return MODIFIERS[this.modifiers[node]].modify(value);
+		}
+		
+		private boolean isConstant(int node, double value)
+		{
+			return this.parameterMasks[node] == 0 && 
+					Double.doubleToRawLongBits(getValue(node)) == 
+					Double.doubleToRawLongBits(value);
+		}
+		
+		private boolean isNaN(int node)
+		{
+			return this.parameterMasks[node] == 0 && Double.isNaN(getValue(node));
+		}
+		
+		private int getIdentityTerm(OperatorType operator, int term1, int term2)
+		{
+			switch (operator)
+			{
+				case ADDITION:
+					if (isConstant(term2, -0.0))
+						return term1;
+					if (isConstant(term1, -0.0))
+						return term2;
+					return -1;
+				case SUBTRACTION:
+					return isConstant(term2, 0.0) ? term1 : -1;
+				case MULTIPLICATION:
+					if (isConstant(term2, 1.0))
+						return term1;
+					if (isConstant(term1, 1.0))
+						return term2;
+					return -1;
+				case DIVISION:
+				case POWER:
+					return isConstant(term2, 1.0) ? term1 : -1;
+				
+				// Modulo doesn't have an identity value
+				default: return -1;
+			}
+		}
+		
+		private boolean areIdentical(int first, int second)
+		{
+			if (this.modifiers[first] != this.modifiers[second] || 
+					this.opcodes[first] != this.opcodes[second])
+				return false;
+			
+			if (isComplex(first))
+				return areIdentical(this.terms1[first], this.terms1[second]) && 
+						areIdentical(this.terms2[first], this.terms2[second]);
+			
+			// Constants are compared by their bits, parameters by their indices
+			if (this.opcodes[first] == PARAMETER)
+				return this.terms1[first] == this.terms1[second];
+			return Double.doubleToRawLongBits(this.values[first]) == 
+					Double.doubleToRawLongBits(this.values[second]);
+		}
+		
+		private void count(int node, int[] amounts)
+		{
+			amounts[0] ++;
+			if (this.opcodes[node] == CONSTANT)
+				amounts[1] ++;
+			else if (isComplex(node))
+			{
+				count(this.terms1[node], amounts);
+				count(this.terms2[node], amounts);
+			}
+		}
+		
+		private int write(int node, PackedFunction function, int[] positions)
+		{
+			int index = positions[0] ++;
+			function.opcodes[index] = this.opcodes[node];
+			function.modifiers[index] = this.modifiers[node];
+			function.terms2[index] = -1;
+			
+			switch (this.opcodes[node])
+			{
+				case CONSTANT:
+					function.constants[positions[1]] = this.values[node];
+					function.terms1[index] = positions[1] ++;
+					break;
+				case PARAMETER:
+					function.terms1[index] = this.terms1[node];
+					break;
+				default:
+					function.terms1[index] = write(this.terms1[node], function, positions);
+					function.terms2[index] = write(this.terms2[node], function, positions);
+					break;
+			}
+			
+			return index;
+		}
+	}
+}
@@ -0,0 +1,245 @@
+package art_main;
+
+import java.nio.ByteBuffer;
+import java.security.InvalidParameterException;
+import java.util.SplittableRandom;
+
+/**
+ * PackedGenomes hold the functions of a functionImage as packed functions. They breed and 
+ * mutate exactly like functionImages do, but take a fraction of the memory and can be 
+ * copied by cloning arrays. Packed genomes don't keep track of their parents or fitness.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ * @see PackedFunction
+ */
+public class PackedGenome
+{
+	// ATTRIBUTES	-------------------------------------------------
+	
+	// The reference, red, green and blue functions
+	private static final int FUNCTION_AMOUNT = 4;
+	
+	private PackedFunction[] functions;
+	
+	
+	// CONSTRUCTOR	-------------------------------------------------
+	
+	/**
+	 * Creates a new genome
+	 * @param functions The reference, red, green and blue functions of the genome
+	 */
+	public PackedGenome(PackedFunction[] functions)
+	{
+		// Initializes attributes
+		this.functions = functions;
+	}
+	
+	
+	// GETTERS & SETTERS	-------------------------------------------
+	
+	/**
+	 * @return The reference, red, green and blue functions of the genome. The array 
+	 * shouldn't be modified.
+	 */
+	public PackedFunction[] getFunctions()
+	{
+		return this.functions;
+	}
+	
+	
+	// OTHER METHODS	-----------------------------------------------
+	
+	/**
+	 * Packs the functions of an image
+	 * @param image The image whose functions are packed (won't be modified)
+	 * @return A genome with the same functions as the image
+	 */
+	public static PackedGenome pack(FunctionImage image)
+	{
+		Function[] functions = image.getFunctions();
+		PackedFunction[] packed = new PackedFunction[functions.length];
+		for (int i = 0; i < packed.length; i++)
+		{
+			packed[i] = PackedFunction.pack(functions[i]);
+		}
+		
+		return new PackedGenome(packed);
+	}
+	
+	/**
+	 * @return A new functionImage that uses the functions of this genome
+	 */
+	public FunctionImage unpack()
+	{
+		Function[] functions = new Function[this.functions.length];
+		for (int i = 0; i < functions.length; i++)
+		{
+			functions[i] = this.functions[i].unpack();
+		}
+		
+		return new FunctionImage(functions);
+	}
+	
+	/**
+	 * @return A copy of this genome
+	 */
+	public PackedGenome createCopy()
+	{
+		PackedFunction[] copies = new PackedFunction[this.functions.length];
+		for (int i = 0; i < copies.length; i++)
+		{
+			copies[i] = this.functions[i].createCopy();
+		}
+		
+		return new PackedGenome(copies);
+	}
+	
+	/**
+	 * Creates a new child with the father genome. The child is the same as the one 
+	 * {@link FunctionImage#createChild(FunctionImage, SplittableRandom)} would create from 
+	 * the same functions.
+	 * 
+	 * @param father The father genome that will affect the child
+	 * @param random The random number generator that decides how the child is created
+	 * @return The child created by this genome and the father genome
+	 */
+	public PackedGenome createChild(PackedGenome father, SplittableRandom random)
+	{
+		PackedFunction[] generatedFunctions = new PackedFunction[this.functions.length];
+		// The reference function will always be created the same way
+		generatedFunctions[0] = this.functions[0].createChild(father.functions[0], random);
+		
+		// The colour functions are picked like in FunctionImage
+		for (int i = 1; i < generatedFunctions.length; i++)
+		{
+			if (random.nextDouble() < 0.2)
+				generatedFunctions[i] = this.functions[i].createCopy();
+			
+			int fatherColour = i;
+			if (random.nextDouble() < 0.4)
+				fatherColour = 1 + random.nextInt(generatedFunctions.length - 1);
+			
+			PackedFunction functionMother = null;
+			PackedFunction functionFather = null;
+			if (random.nextDouble() < 0.8)
+			{
+				functionMother = this.functions[i];
+				functionFather = father.functions[fatherColour];
+			}
+			else
+			{
+				functionMother = father.functions[i];
+				functionFather = this.functions[fatherColour];
+			}
+			
+			generatedFunctions[i] = functionMother.createChild(functionFather, random);
+		}
+		
+		return new PackedGenome(generatedFunctions);
+	}
+	
+	/**
+	 * Mutates the functions randomly, like {@link FunctionImage#mutate(SplittableRandom)}
+	 * @param random The random number generator that decides how the functions mutate
+	 */
+	public void mutate(SplittableRandom random)
+	{
+		for (int i = 0; i < 3; i++)
+		{
+			this.functions[i].mutate(random);
+		}
+	}
+	
+	/**
+	 * Simplifies the functions to their most simple forms
+	 */
+	public void simplify()
+	{
+		for (PackedFunction function : this.functions)
+		{
+			function.simplify();
+		}
+	}
+	
+	/**
+	 * @return How many nodes there are in the genome's function trees
+	 */
+	public int getNodeAmount()
+	{
+		int nodes = 0;
+		for (PackedFunction function : this.functions)
+		{
+			nodes += function.getNodeAmount();
+		}
+		
+		return nodes;
+	}
+	
+	/**
+	 * @return A hash of the structure of the genome's functions. The hash is the same as 
+	 * the unpacked image's.
+	 * @see FunctionImage#getStructureHash()
+	 */
+	public long getStructureHash()
+	{
+		long hash = this.functions.length;
+		for (PackedFunction function : this.functions)
+		{
+			hash = Function.combineHashes(hash, function.getStructureHash());
+		}
+		
+		return hash;
+	}
+	
+	/**
+	 * @return How many bytes {@link #write(ByteBuffer)} writes
+	 */
+	int getSerializedSize()
+	{
+		int size = 1;
+		for (PackedFunction function : this.functions)
+		{
+			size += function.getSerializedSize();
+		}
+		
+		return size;
+	}
+	
+	/**
+	 * Writes the genome into a buffer: the amount of functions followed by the functions
+	 * @param buffer The buffer the genome is written into
+	 */
+	void write(ByteBuffer buffer)
+	{
+		buffer.put((byte) this.functions.length);
+		for (PackedFunction function : this.functions)
+		{
+			function.write(buffer);
+		}
+	}
+	
+	/**
+	 * Reads a genome written with {@link #write(ByteBuffer)}
+	 * @param buffer The buffer the genome is read from
+	 * @return The genome that was read
+	 */
+	static PackedGenome read(ByteBuffer buffer)
+	{
+		// Only images with all four functions are written
+		int amount = buffer.get();
+		if (amount != FUNCTION_AMOUNT)
+		{
+			System.err.println("Invalid function amount " + amount);
+			throw new InvalidParameterException();
+		}
+		
+		PackedFunction[] functions = new PackedFunction[amount];
+		for (int i = 0; i < amount; i++)
+		{
+			functions[i] = PackedFunction.read(buffer);
+		}
+		
+		return new PackedGenome(functions);
+	}
+}
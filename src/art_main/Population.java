@@ -0,0 +1,338 @@
+package art_main;
+
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Population holds the parents that take part in breeding. The images are kept in an 
+ * indexed min-heap ordered by their fitness, so that the least fit image that can die is 
+ * always found right away. The images tell the population whenever their fitness changes 
+ * and their place in the heap is updated in place. Images that can't die yet come after 
+ * all of the ones that can, oldest first.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public class Population
+{
+	// ATTRIBUTES	-------------------------------------------------
+	
+	private ArrayList<FunctionImage> images;
+	private Member[] heap;
+	private int heapSize;
+	private long nextOrder;
+	
+	
+	// CONSTRUCTOR	-------------------------------------------------
+	
+	/**
+	 * Creates a new empty population
+	 */
+	public Population()
+	{
+		// Initializes attributes
+		this.images = new ArrayList<FunctionImage>();
+		this.heap = new Member[16];
+		this.heapSize = 0;
+		this.nextOrder = 0;
+	}
+	
+	
+	// GETTERS & SETTERS	-------------------------------------------
+	
+	/**
+	 * @return How many images there are in the population
+	 */
+	public synchronized int size()
+	{
+		return this.images.size();
+	}
+	
+	/**
+	 * @param index The index of an image in the population
+	 * @return The image at the index. Removing images changes the order of the remaining 
+	 * ones.
+	 */
+	public synchronized FunctionImage get(int index)
+	{
+		return this.images.get(index);
+	}
+	
+	/**
+	 * @return The images in the population. Removing images changes the order of the 
+	 * remaining ones.
+	 */
+	public synchronized ArrayList<FunctionImage> getImages()
+	{
+		return new ArrayList<FunctionImage>(this.images);
+	}
+	
+	
+	// OTHER METHODS	-----------------------------------------------
+	
+	/**
+	 * Adds an image to the population
+	 * @param image The image that is added. The image can't be in any population yet.
+	 */
+	public synchronized void add(FunctionImage image)
+	{
+		if (image.getMember() != null)
+		{
+			System.err.println("The image is already in a population");
+			throw new InvalidParameterException();
+		}
+		
+		Member member = new Member(this, image, this.images.size(), this.nextOrder ++);
+		this.images.add(image);
+		image.setMember(member);
+		
+		if (this.heapSize == this.heap.length)
+		{
+			Member[] newHeap = new Member[this.heap.length * 2];
+			System.arraycopy(this.heap, 0, newHeap, 0, this.heapSize);
+			this.heap = newHeap;
+		}
+		member.heapIndex = this.heapSize ++;
+		this.heap[member.heapIndex] = member;
+		member.readFitness();
+		siftUp(member.heapIndex);
+	}
+	
+	/**
+	 * Adds images to the population
+	 * @param images The images that are added
+	 */
+	public synchronized void addAll(List<FunctionImage> images)
+	{
+		for (FunctionImage image : images)
+		{
+			add(image);
+		}
+	}
+	
+	/**
+	 * Removes an image from the population
+	 * @param image The image that is removed
+	 * @return Was the image in this population
+	 */
+	public synchronized boolean remove(FunctionImage image)
+	{
+		Member member = image.getMember();
+		if (member == null || member.population != this)
+			return false;
+		
+		removeMember(member);
+		return true;
+	}
+	
+	/**
+	 * @param image An image
+	 * @return Is the image in this population
+	 */
+	public synchronized boolean contains(FunctionImage image)
+	{
+		Member member = image.getMember();
+		return member != null && member.population == this;
+	}
+	
+	/**
+	 * @return The least fit image that can die. If no image can die yet, the oldest image. 
+	 * Null if the population is empty.
+	 */
+	public synchronized FunctionImage getLeastFit()
+	{
+		if (this.heapSize == 0)
+			return null;
+		return this.heap[0].image;
+	}
+	
+	/**
+	 * Removes the least fit image that can die. If no image can die yet, the oldest image 
+	 * is removed instead.
+	 * @return The removed image. Null if the population was empty.
+	 */
+	public synchronized FunctionImage removeLeastFit()
+	{
+		if (this.heapSize == 0)
+			return null;
+		
+		FunctionImage image = this.heap[0].image;
+		removeMember(this.heap[0]);
+		return image;
+	}
+	
+	/**
+	 * Removes the least fit images from the population until there are few enough of them. 
+	 * Images that can't die yet are never removed. The compiled forms of the removed 
+	 * images are released, since children may still refer to them.
+	 * 
+	 * @param maximumPopulation How many images there may be at most
+	 * @return The images that were removed
+	 */
+	public synchronized ArrayList<FunctionImage> removeOverPopulation(int maximumPopulation)
+	{
+		ArrayList<FunctionImage> removed = new ArrayList<FunctionImage>();
+		while (this.images.size() > maximumPopulation && this.heapSize > 0 && 
+				this.heap[0].killable)
+		{
+			FunctionImage image = removeLeastFit();
+			image.releaseCompiledForms();
+			removed.add(image);
+		}
+		
+		return removed;
+	}
+	
+	/**
+	 * This method should be called whenever the fitness of an image in the population 
+	 * changes, so that the image moves to the correct place
+	 * @param member The membership of the image
+	 */
+	synchronized void update(Member member)
+	{
+		// The image may have been removed while its fitness was changing
+		if (member.population != this)
+			return;
+		
+		member.readFitness();
+		siftDown(siftUp(member.heapIndex));
+	}
+	
+	private void removeMember(Member member)
+	{
+		// The last image takes the place of the removed one, both in the list and the heap
+		int index = member.index;
+		FunctionImage last = this.images.remove(this.images.size() - 1);
+		if (index < this.images.size())
+		{
+			this.images.set(index, last);
+			last.getMember().index = index;
+		}
+		
+		int heapIndex = member.heapIndex;
+		Member lastMember = this.heap[-- this.heapSize];
+		this.heap[this.heapSize] = null;
+		if (heapIndex < this.heapSize)
+		{
+			this.heap[heapIndex] = lastMember;
+			lastMember.heapIndex = heapIndex;
+			siftDown(siftUp(heapIndex));
+		}
+		
+		member.population = null;
+		member.image.setMember(null);
+	}
+	
+	private int siftUp(int index)
+	{
+		Member member = this.heap[index];
+		while (index > 0)
+		{
+			int parentIndex = (index - 1) / 2;
+			Member parent = this.heap[parentIndex];
+			if (!member.isBefore(parent))
+				break;
+			
+			this.heap[index] = parent;
+			parent.heapIndex = index;
+			index = parentIndex;
+		}
+		
+		this.heap[index] = member;
+		member.heapIndex = index;
+		return index;
+	}
+	
+	private int siftDown(int index)
+	{
+		Member member = this.heap[index];
+		while (true)
+		{
+			int childIndex = 2 * index + 1;
+			if (childIndex >= this.heapSize)
+				break;
+			if (childIndex + 1 < this.heapSize && 
+					this.heap[childIndex + 1].isBefore(this.heap[childIndex]))
+				childIndex ++;
+			
+			Member child = this.heap[childIndex];
+			if (!child.isBefore(member))
+				break;
+			
+			this.heap[index] = child;
+			child.heapIndex = index;
+			index = childIndex;
+		}
+		
+		this.heap[index] = member;
+		member.heapIndex = index;
+		return index;
+	}
+	
+	
+	// SUBCLASSES	-------------------------------------------------
+	
+	/**
+	 * Members tie images to the population they are in. The fitness of the image is 
+	 * copied to the member when the image is placed in the heap, so that the heap stays 
+	 * consistent even if the image changes meanwhile.
+	 * 
+	 * @author Mikko Hilpinen
+	 * @since 17.10.2026
+	 */
+	static class Member
+	{
+		// ATTRIBUTES	---------------------------------------------
+		
+		private Population population;
+		private FunctionImage image;
+		private int index, heapIndex, fitness;
+		private boolean killable;
+		private long order;
+		
+		
+		// CONSTRUCTOR	---------------------------------------------
+		
+		private Member(Population population, FunctionImage image, int index, long order)
+		{
+			// Initializes attributes
+			this.population = population;
+			this.image = image;
+			this.index = index;
+			this.heapIndex = -1;
+			this.order = order;
+		}
+		
+		
+		// OTHER METHODS	-----------------------------------------
+		
+		/**
+		 * Tells the population that the fitness of the image has changed
+		 */
+		void onFitnessChanged()
+		{
+			Population population = this.population;
+			if (population != null)
+				population.update(this);
+		}
+		
+		private void readFitness()
+		{
+			this.killable = this.image.canDie();
+			this.fitness = this.image.getFitness();
+		}
+		
+		private boolean isBefore(Member other)
+		{
+			// The images that can die come first, the least fit first
+			if (this.killable != other.killable)
+				return this.killable;
+			if (this.killable && this.fitness != other.fitness)
+				return this.fitness < other.fitness;
+			
+			// Otherwise the older images come first
+			return this.order < other.order;
+		}
+	}
+}
@@ -0,0 +1,374 @@
+package art_main;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.InvalidParameterException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * PopulationSnapshots store the parents and children of an evolution in a binary file, so 
+ * that the evolution can be continued later. The file is memory-mapped when it is opened 
+ * and the images are only decoded when they are asked for, so opening a snapshot of 
+ * millions of images is fast. 
+ * <p> 
+ * The file starts with a header: the magic number, the version, the generation number, 
+ * the seed, the amounts of parents and children and the position of the offset table. 
+ * Each image is stored as its fitness counters (children spawned, children killed, 
+ * fitness boost) followed by its packed genome. The images are followed by the offset 
+ * table that tells where each image starts, parents first. The images never cross a 
+ * {@value #SEGMENT_SIZE} byte boundary so that the file can be mapped in segments.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public class PopulationSnapshot implements Closeable
+{
+	// ATTRIBUTES	-------------------------------------------------
+	
+	/**
+	 * The number all snapshot files start with ("RAG" and a zero)
+	 */
+	public static final int MAGIC = 0x52414700;
+	/**
+	 * The version of the snapshot format this class writes
+	 */
+	public static final int VERSION = 1;
+	/**
+	 * The size of the parts the file is mapped in (bytes)
+	 */
+	public static final int SEGMENT_SIZE = 1 << 30;
+	
+	private static final int HEADER_SIZE = 48;
+	private static final int RECORD_HEADER_SIZE = 12;
+	private static final int BUFFER_SIZE = 1 << 20;
+	
+	private FileChannel channel;
+	private long size, tableOffset, seed;
+	private int parentAmount, childAmount, generationNumber;
+	private MappedByteBuffer[] segments;
+	
+	
+	// CONSTRUCTOR	-------------------------------------------------
+	
+	private PopulationSnapshot(FileChannel channel) throws IOException
+	{
+		// Initializes attributes
+		this.channel = channel;
+		this.size = channel.size();
+		this.segments = new MappedByteBuffer[(int) ((this.size - 1) / SEGMENT_SIZE) + 1];
+		
+		// Only the header is read right away
+		if (this.size < HEADER_SIZE)
+			throw new IOException("The file is too short to be a population snapshot");
+		ByteBuffer header = getSegment(0);
+		if (header.getInt(0) != MAGIC)
+			throw new IOException("The file is not a population snapshot");
+		if (header.getInt(4) != VERSION)
+			throw new IOException("Unsupported population snapshot version " + 
+					header.getInt(4));
+		
+		this.generationNumber = header.getInt(8);
+		this.seed = header.getLong(12);
+		this.parentAmount = header.getInt(20);
+		this.childAmount = header.getInt(24);
+		this.tableOffset = header.getLong(28);
+		
+		if (this.parentAmount < 0 || this.childAmount < 0 || this.tableOffset < HEADER_SIZE || 
+				this.tableOffset + 8L * getImageAmount() > this.size)
+			throw new IOException("The population snapshot is corrupted");
+	}
+	
+	
+	// IMPLEMENTED METHODS	---------------------------------------
+	
+	@Override
+	public void close() throws IOException
+	{
+		// The mapped segments stay valid until they are garbage collected
+		this.channel.close();
+	}
+	
+	
+	// GETTERS & SETTERS	-------------------------------------------
+	
+	/**
+	 * @return The number of the generation the snapshot was taken in
+	 */
+	public int getGenerationNumber()
+	{
+		return this.generationNumber;
+	}
+	
+	/**
+	 * @return The seed the population was bred with
+	 */
+	public long getSeed()
+	{
+		return this.seed;
+	}
+	
+	/**
+	 * @return How many parents there are in the snapshot
+	 */
+	public int getParentAmount()
+	{
+		return this.parentAmount;
+	}
+	
+	/**
+	 * @return How many children there are in the snapshot
+	 */
+	public int getChildAmount()
+	{
+		return this.childAmount;
+	}
+	
+	/**
+	 * @return How many images there are in the snapshot. The parents come first.
+	 */
+	public int getImageAmount()
+	{
+		return this.parentAmount + this.childAmount;
+	}
+	
+	
+	// OTHER METHODS	-----------------------------------------------
+	
+	/**
+	 * Writes a population into a snapshot file. The file is first written under a 
+	 * temporary name and then moved in place, so an interrupted write never destroys 
+	 * the previous snapshot.
+	 * 
+	 * @param file The file the snapshot is written into
+	 * @param parents The parents of the population
+	 * @param children The children of the latest generation
+	 * @param generationNumber The number of the latest generation
+	 * @param seed The seed the population was bred with
+	 * @throws IOException If the file couldn't be written
+	 */
+	public static void write(File file, List<FunctionImage> parents, 
+			List<FunctionImage> children, int generationNumber, long seed) throws IOException
+	{
+		File temporaryFile = new File(file.getPath() + ".tmp");
+		int amount = parents.size() + children.size();
+		long[] offsets = new long[amount];
+		
+		try (FileChannel channel = FileChannel.open(temporaryFile.toPath(), 
+				StandardOpenOption.CREATE, StandardOpenOption.WRITE, 
+				StandardOpenOption.TRUNCATE_EXISTING))
+		{
+			// The images are written after the header
+			ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+			long position = HEADER_SIZE;
+			channel.position(position);
+			for (int i = 0; i < amount; i++)
+			{
+				FunctionImage image = i < parents.size() ? parents.get(i) : 
+						children.get(i - parents.size());
+				PackedGenome genome = PackedGenome.pack(image);
+				int recordSize = RECORD_HEADER_SIZE + genome.getSerializedSize();
+				if (recordSize > SEGMENT_SIZE)
+					throw new IOException("Image " + i + " is too large for a snapshot");
+				
+				// The images don't cross the segment boundaries. The skipped bytes are left 
+				// empty.
+				if (position / SEGMENT_SIZE != (position + recordSize - 1) / SEGMENT_SIZE)
+				{
+					flush(channel, buffer);
+					position = (position / SEGMENT_SIZE + 1) * SEGMENT_SIZE;
+					channel.position(position);
+				}
+				if (buffer.remaining() < recordSize)
+				{
+					flush(channel, buffer);
+					if (buffer.capacity() < recordSize)
+						buffer = ByteBuffer.allocate(recordSize);
+				}
+				
+				offsets[i] = position;
+				buffer.putInt(image.getChildrenSpawned());
+				buffer.putInt(image.getChildrenKilled());
+				buffer.putInt(image.getFitnessBoost());
+				genome.write(buffer);
+				position += recordSize;
+			}
+			
+			// The offset table is aligned so that no offset crosses a segment boundary
+			long tableOffset = (position + 7) / 8 * 8;
+			flush(channel, buffer);
+			channel.position(tableOffset);
+			for (long offset : offsets)
+			{
+				if (buffer.remaining() < 8)
+					flush(channel, buffer);
+				buffer.putLong(offset);
+			}
+			flush(channel, buffer);
+			
+			// The header is written last
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			header.putInt(MAGIC);
+			header.putInt(VERSION);
+			header.putInt(generationNumber);
+			header.putLong(seed);
+			header.putInt(parents.size());
+			header.putInt(children.size());
+			header.putLong(tableOffset);
+			header.rewind();
+			while (header.hasRemaining())
+			{
+				channel.write(header, header.position());
+			}
+			channel.force(false);
+		}
+		
+		Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+	
+	/**
+	 * Opens a snapshot file. Only the header is read, the images are read when they are 
+	 * asked for. The snapshot should be closed once it is not needed anymore.
+	 * 
+	 * @param file The snapshot file
+	 * @return The opened snapshot
+	 * @throws IOException If the file couldn't be opened or it isn't a valid snapshot
+	 */
+	public static PopulationSnapshot open(File file) throws IOException
+	{
+		FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		try
+		{
+			return new PopulationSnapshot(channel);
+		}
+		catch (IOException | RuntimeException e)
+		{
+			channel.close();
+			throw e;
+		}
+	}
+	
+	/**
+	 * Reads the genome of an image
+	 * @param index The index of the image. The parents come first.
+	 * @return The genome of the image
+	 * @throws IOException If the image couldn't be read
+	 */
+	public PackedGenome getGenome(int index) throws IOException
+	{
+		ByteBuffer record = getRecord(index);
+		record.position(record.position() + RECORD_HEADER_SIZE);
+		return readGenome(record, index);
+	}
+	
+	/**
+	 * Reads an image. The fitness of the image is restored as well, but the image doesn't 
+	 * remember its parents anymore.
+	 * @param index The index of the image. The parents come first.
+	 * @return The image
+	 * @throws IOException If the image couldn't be read
+	 */
+	public FunctionImage getImage(int index) throws IOException
+	{
+		ByteBuffer record = getRecord(index);
+		int childrenSpawned = record.getInt();
+		int childrenKilled = record.getInt();
+		int fitnessBoost = record.getInt();
+		
+		FunctionImage image = readGenome(record, index).unpack();
+		image.restoreFitness(childrenSpawned, childrenKilled, fitnessBoost);
+		return image;
+	}
+	
+	/**
+	 * @return The parents in the snapshot
+	 * @throws IOException If the parents couldn't be read
+	 */
+	public ArrayList<FunctionImage> getParents() throws IOException
+	{
+		return getImages(0, this.parentAmount);
+	}
+	
+	/**
+	 * @return The children in the snapshot
+	 * @throws IOException If the children couldn't be read
+	 */
+	public ArrayList<FunctionImage> getChildren() throws IOException
+	{
+		return getImages(this.parentAmount, this.childAmount);
+	}
+	
+	private ArrayList<FunctionImage> getImages(int first, int amount) throws IOException
+	{
+		ArrayList<FunctionImage> images = new ArrayList<FunctionImage>(amount);
+		for (int i = 0; i < amount; i++)
+		{
+			images.add(getImage(first + i));
+		}
+		
+		return images;
+	}
+	
+	private ByteBuffer getRecord(int index) throws IOException
+	{
+		if (index < 0 || index >= getImageAmount())
+		{
+			System.err.println("There is no image " + index + " in the snapshot");
+			throw new InvalidParameterException();
+		}
+		
+		long tableEntry = this.tableOffset + 8L * index;
+		long offset = getSegment((int) (tableEntry / SEGMENT_SIZE)).getLong(
+				(int) (tableEntry % SEGMENT_SIZE));
+		if (offset < HEADER_SIZE || offset + RECORD_HEADER_SIZE > this.size)
+			throw new IOException("The offset of image " + index + " is corrupted");
+		
+		// Each thread reads the segment through its own view
+		ByteBuffer record = getSegment((int) (offset / SEGMENT_SIZE)).duplicate();
+		record.position((int) (offset % SEGMENT_SIZE));
+		return record;
+	}
+	
+	private static PackedGenome readGenome(ByteBuffer record, int index) throws IOException
+	{
+		try
+		{
+			return PackedGenome.read(record);
+		}
+		catch (InvalidParameterException | BufferUnderflowException e)
+		{
+			throw new IOException("Image " + index + " is corrupted", e);
+		}
+	}
+	
+	private synchronized MappedByteBuffer getSegment(int index) throws IOException
+	{
+		// The segments are mapped when they are first needed
+		if (this.segments[index] == null)
+		{
+			long start = (long) index * SEGMENT_SIZE;
+			this.segments[index] = this.channel.map(FileChannel.MapMode.READ_ONLY, start, 
+					Math.min(SEGMENT_SIZE, this.size - start));
+		}
+		
+		return this.segments[index];
+	}
+	
+	private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException
+	{
+		buffer.flip();
+		while (buffer.hasRemaining())
+		{
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+}
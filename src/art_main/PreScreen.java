@@ -0,0 +1,369 @@
+package art_main;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * PreScreen breeds the children of a generation and rejects the degenerate ones before 
+ * they are rendered. Each child is sampled at a tiny resolution, spread evenly over the 
+ * frame it would be drawn into. Children that have a single colour, that are mostly NaN 
+ * or that look like noise are thrown away and new children are bred in their place.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public class PreScreen
+{
+	// ATTRIBUTES	-------------------------------------------------
+	
+	/**
+	 * The system property that can be used for configuring the pre-screen used by the 
+	 * artUpdater. The value is either "off" or a description like the one 
+	 * {@link #parse(String, int, int)} accepts.
+	 */
+	public static final String PROPERTY = "art.preScreen";
+	
+	private int frameWidth, frameHeight, sampleSize, maxRounds;
+	private double maxFlatFraction, maxNaNFraction, maxEdgeFraction;
+	private int screened, accepted;
+	private int[] rejected;
+	
+	
+	// CONSTRUCTOR	-------------------------------------------------
+	
+	/**
+	 * Creates a new pre-screen with the default thresholds
+	 * 
+	 * @param frameWidth The width of the frame the children will be drawn into (pixels)
+	 * @param frameHeight The height of the frame the children will be drawn into (pixels)
+	 */
+	public PreScreen(int frameWidth, int frameHeight)
+	{
+		// Initializes attributes
+		this.frameWidth = Math.max(1, frameWidth);
+		this.frameHeight = Math.max(1, frameHeight);
+		this.sampleSize = 32;
+		this.maxRounds = 8;
+		this.maxFlatFraction = 0.95;
+		this.maxNaNFraction = 0.9;
+		this.maxEdgeFraction = 0.6;
+		this.screened = 0;
+		this.accepted = 0;
+		this.rejected = new int[Rejection.values().length];
+	}
+	
+	
+	// GETTERS & SETTERS	-------------------------------------------
+	
+	/**
+	 * @return How many points are sampled in each direction
+	 */
+	public int getSampleSize()
+	{
+		return this.sampleSize;
+	}
+	
+	/**
+	 * @param sampleSize How many points are sampled in each direction
+	 */
+	public void setSampleSize(int sampleSize)
+	{
+		this.sampleSize = Math.max(2, sampleSize);
+	}
+	
+	/**
+	 * @return How many times the rejected children are bred again at most. The children 
+	 * bred on the last round are accepted as they are.
+	 */
+	public int getMaxRounds()
+	{
+		return this.maxRounds;
+	}
+	
+	/**
+	 * @param maxRounds How many times the rejected children are bred again at most
+	 */
+	public void setMaxRounds(int maxRounds)
+	{
+		this.maxRounds = Math.max(0, maxRounds);
+	}
+	
+	/**
+	 * @return The largest fraction of flat points a child may have. A point is flat when it 
+	 * has the same colour as the points right and below it.
+	 */
+	public double getMaxFlatFraction()
+	{
+		return this.maxFlatFraction;
+	}
+	
+	/**
+	 * @param maxFlatFraction The largest fraction of flat points a child may have
+	 */
+	public void setMaxFlatFraction(double maxFlatFraction)
+	{
+		this.maxFlatFraction = maxFlatFraction;
+	}
+	
+	/**
+	 * @return The largest fraction of NaN colour values a child may have
+	 */
+	public double getMaxNaNFraction()
+	{
+		return this.maxNaNFraction;
+	}
+	
+	/**
+	 * @param maxNaNFraction The largest fraction of NaN colour values a child may have
+	 */
+	public void setMaxNaNFraction(double maxNaNFraction)
+	{
+		this.maxNaNFraction = maxNaNFraction;
+	}
+	
+	/**
+	 * @return The largest fraction of neighbouring points with clearly different colours 
+	 * a child may have
+	 * @see FitnessMeasure#EDGE_DIFFERENCE
+	 */
+	public double getMaxEdgeFraction()
+	{
+		return this.maxEdgeFraction;
+	}
+	
+	/**
+	 * @param maxEdgeFraction The largest fraction of neighbouring points with clearly 
+	 * different colours a child may have
+	 */
+	public void setMaxEdgeFraction(double maxEdgeFraction)
+	{
+		this.maxEdgeFraction = maxEdgeFraction;
+	}
+	
+	
+	// OTHER METHODS	-----------------------------------------------
+	
+	/**
+	 * Creates a pre-screen from a description
+	 * 
+	 * @param description A comma separated list of settings, like 
+	 * "flat=0.95,nan=0.9,noise=0.6,sample=32,rounds=8". The settings that are left out 
+	 * use the default values. "off" disables the pre-screen. Null uses the defaults.
+	 * @param frameWidth The width of the frame the children will be drawn into (pixels)
+	 * @param frameHeight The height of the frame the children will be drawn into (pixels)
+	 * @return A pre-screen with the described settings. Null if the pre-screen is disabled.
+	 */
+	public static PreScreen parse(String description, int frameWidth, int frameHeight)
+	{
+		PreScreen preScreen = new PreScreen(frameWidth, frameHeight);
+		if (description == null)
+			return preScreen;
+		if (description.trim().equalsIgnoreCase("off") || 
+				description.trim().equalsIgnoreCase("false"))
+			return null;
+		
+		for (String setting : description.split(","))
+		{
+			String[] parts = setting.split("=");
+			if (parts.length != 2)
+			{
+				if (!setting.trim().isEmpty() && !setting.trim().equalsIgnoreCase("on") && 
+						!setting.trim().equalsIgnoreCase("true"))
+					System.err.println("Unknown pre-screen setting " + setting);
+				continue;
+			}
+			
+			String name = parts[0].trim().toLowerCase();
+			try
+			{
+				double value = Double.parseDouble(parts[1].trim());
+				if (name.equals("flat"))
+					preScreen.setMaxFlatFraction(value);
+				else if (name.equals("nan"))
+					preScreen.setMaxNaNFraction(value);
+				else if (name.equals("noise"))
+					preScreen.setMaxEdgeFraction(value);
+				else if (name.equals("sample"))
+					preScreen.setSampleSize((int) value);
+				else if (name.equals("rounds"))
+					preScreen.setMaxRounds((int) value);
+				else
+					System.err.println("Unknown pre-screen setting " + setting);
+			}
+			catch (NumberFormatException e)
+			{
+				System.err.println("Invalid pre-screen setting " + setting);
+			}
+		}
+		
+		return preScreen;
+	}
+	
+	/**
+	 * Creates a set of children from a set of parents. Each child is mutated and simplified 
+	 * before it is screened. The rejected children are discarded and bred again until they 
+	 * pass or the maximum amount of rounds has been reached. The same random number 
+	 * generator always produces the same children.
+	 * 
+	 * @param parents The parents that will produce the children
+	 * @param childAmount How many children will be created
+	 * @param random The random number generator the children's streams are split from
+	 * @return The children that passed the screening. Null if there weren't enough parents.
+	 */
+	public ArrayList<FunctionImage> createChildren(List<FunctionImage> parents, 
+			int childAmount, SplittableRandom random)
+	{
+		this.screened = 0;
+		this.accepted = 0;
+		this.rejected = new int[Rejection.values().length];
+		
+		ArrayList<FunctionImage> children = new ArrayList<FunctionImage>();
+		ArrayList<Integer> missing = new ArrayList<Integer>();
+		for (int i = 0; i < childAmount; i++)
+		{
+			children.add(null);
+			missing.add(i);
+		}
+		
+		for (int round = 0; !missing.isEmpty(); round++)
+		{
+			ArrayList<FunctionImage> candidates = FunctionImage.createChildren(parents, 
+					missing.size(), random.split());
+			if (candidates == null)
+				return null;
+			
+			ArrayList<Integer> stillMissing = new ArrayList<Integer>();
+			for (int i = 0; i < candidates.size(); i++)
+			{
+				FunctionImage candidate = candidates.get(i);
+				candidate.mutate(random.split());
+				candidate.simplify();
+				
+				// The children of the last round are accepted without screening
+				Rejection rejection = null;
+				if (round < this.maxRounds)
+				{
+					rejection = screen(candidate);
+					this.screened ++;
+				}
+				
+				if (rejection == null)
+				{
+					children.set(missing.get(i), candidate);
+					this.accepted ++;
+				}
+				else
+				{
+					// The rejected children don't count as children of their parents
+					candidate.discard();
+					this.rejected[rejection.ordinal()] ++;
+					stillMissing.add(missing.get(i));
+				}
+			}
+			
+			missing = stillMissing;
+		}
+		
+		return children;
+	}
+	
+	/**
+	 * Checks whether an image is degenerate
+	 * @param image The image that is checked
+	 * @return Why the image was rejected. Null if the image passed the screening.
+	 */
+	public Rejection screen(FunctionImage image)
+	{
+		ImageSample sample = null;
+		try
+		{
+			sample = new ImageSample(image, this.frameWidth, this.frameHeight, 
+					this.sampleSize, this.sampleSize);
+		}
+		catch (RuntimeException e)
+		{
+			// Images that can't be drawn are rejected like any other broken images
+			return Rejection.NAN;
+		}
+		
+		if (sample.getNaNFraction() > this.maxNaNFraction)
+			return Rejection.NAN;
+		if (sample.getFlatFraction() > this.maxFlatFraction)
+			return Rejection.SOLID;
+		if (sample.getEdgeFraction(FitnessMeasure.EDGE_DIFFERENCE) > this.maxEdgeFraction)
+			return Rejection.NOISE;
+		
+		return null;
+	}
+	
+	/**
+	 * @param rejection The reason of the rejection
+	 * @return How many children were rejected for the reason when the latest generation 
+	 * was created
+	 */
+	public int getRejectedAmount(Rejection rejection)
+	{
+		return this.rejected[rejection.ordinal()];
+	}
+	
+	/**
+	 * @return How many children were rejected when the latest generation was created
+	 */
+	public int getRejectedAmount()
+	{
+		int total = 0;
+		for (int amount : this.rejected)
+		{
+			total += amount;
+		}
+		
+		return total;
+	}
+	
+	/**
+	 * @return A description of the children rejected when the latest generation was 
+	 * created
+	 */
+	public String getStatistics()
+	{
+		StringBuilder statistics = new StringBuilder("Pre-screen: rejected ");
+		statistics.append(getRejectedAmount() + " of " + this.screened + 
+				" screened children (");
+		for (Rejection rejection : Rejection.values())
+		{
+			if (rejection.ordinal() > 0)
+				statistics.append(", ");
+			statistics.append(getRejectedAmount(rejection) + " " + 
+					rejection.name().toLowerCase());
+		}
+		statistics.append("), accepted " + this.accepted);
+		
+		return statistics.toString();
+	}
+	
+	
+	// SUBCLASSES	-------------------------------------------------
+	
+	/**
+	 * Rejections are the reasons why a child doesn't pass the pre-screen
+	 * 
+	 * @author Mikko Hilpinen
+	 * @since 17.10.2026
+	 */
+	public static enum Rejection
+	{
+		/**
+		 * The image has a single colour almost everywhere
+		 */
+		SOLID, 
+		/**
+		 * The colour functions give NaN almost everywhere
+		 */
+		NAN, 
+		/**
+		 * Almost every point has a different colour than its neighbours
+		 */
+		NOISE;
+	}
+}
@@ -0,0 +1,239 @@
+package art_main;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.security.InvalidParameterException;
+import java.util.LinkedHashMap;
+
+/**
+ * ProgressiveRenderer renders functionImages in the background in multiple passes. The 
+ * first pass only calculates every eighth pixel in both directions and draws them as 
+ * blocks. Each following pass halves the block size and only calculates the pixels that 
+ * haven't been calculated yet, until the image is complete. The images are drawn straight 
+ * into their rasters so the improvements show up the next time the images are drawn. 
+ * The coarsest passes of all images are rendered before any finer passes, so that each 
+ * image gets a preview as soon as possible.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public class ProgressiveRenderer
+{
+	// ATTRIBUTES	-------------------------------------------------
+	
+	/**
+	 * The distance between the pixels calculated in the first pass
+	 */
+	public static final int COARSEST_STEP = 8;
+	
+	private FunctionRenderer renderer;
+	private RenderCache cache;
+	private LinkedHashMap<BufferedImage, RenderJob> jobs;
+	private Thread worker;
+	
+	
+	// CONSTRUCTOR	-------------------------------------------------
+	
+	/**
+	 * Creates a new progressive renderer. The rendering thread is started when the first 
+	 * image is rendered. The completed images are stored to the default render cache.
+	 * 
+	 * @param renderer The renderer used for rendering each pass
+	 */
+	public ProgressiveRenderer(FunctionRenderer renderer)
+	{
+		// Initializes attributes
+		this.renderer = renderer;
+		this.cache = RenderCache.getDefaultCache();
+		this.jobs = new LinkedHashMap<BufferedImage, RenderJob>();
+		this.worker = null;
+	}
+	
+	
+	// GETTERS & SETTERS	-------------------------------------------
+	
+	/**
+	 * @return The cache the completed images are stored to. Null if the images aren't 
+	 * cached.
+	 */
+	public RenderCache getCache()
+	{
+		return this.cache;
+	}
+	
+	/**
+	 * Changes the cache the completed images are stored to
+	 * @param cache The new cache. Null if the images shouldn't be cached.
+	 */
+	public void setCache(RenderCache cache)
+	{
+		this.cache = cache;
+	}
+	
+	
+	// OTHER METHODS	-----------------------------------------------
+	
+	/**
+	 * Starts rendering a functionImage into a bufferedImage in the background. If the 
+	 * target image was already being rendered, the previous rendering is abandoned. The 
+	 * cache isn't checked here, since the caller usually wants to show the cached pixels 
+	 * in another image.
+	 * 
+	 * @param image The functionImage that is rendered
+	 * @param target The image the pixels are written into. Must be of type TYPE_INT_RGB.
+	 */
+	public synchronized void render(FunctionImage image, BufferedImage target)
+	{
+		if (target.getType() != BufferedImage.TYPE_INT_RGB)
+		{
+			System.err.println("Can only render to TYPE_INT_RGB images");
+			throw new InvalidParameterException();
+		}
+		
+		// The new job replaces the previous one. The first pass overwrites every pixel.
+		this.jobs.remove(target);
+		this.jobs.put(target, new RenderJob(image, target));
+		
+		if (this.worker == null)
+		{
+			this.worker = new Thread(new Worker(), "ProgressiveRenderer");
+			this.worker.setDaemon(true);
+			this.worker.start();
+		}
+		
+		notifyAll();
+	}
+	
+	/**
+	 * Stops rendering an image. The pass that is being rendered may still be completed.
+	 * @param target The image that shouldn't be rendered anymore
+	 */
+	public synchronized void cancel(BufferedImage target)
+	{
+		if (this.jobs.remove(target) != null)
+			notifyAll();
+	}
+	
+	/**
+	 * @param target An image that was rendered with this renderer
+	 * @return Has the rendering of the image been completed (or abandoned)
+	 */
+	public synchronized boolean isFinished(BufferedImage target)
+	{
+		return !this.jobs.containsKey(target);
+	}
+	
+	/**
+	 * Waits until all of the images have been rendered completely
+	 * @throws InterruptedException If the thread was interrupted while waiting
+	 */
+	public synchronized void waitUntilFinished() throws InterruptedException
+	{
+		while (!this.jobs.isEmpty())
+		{
+			wait();
+		}
+	}
+	
+	private synchronized RenderJob getNextJob() throws InterruptedException
+	{
+		while (this.jobs.isEmpty())
+		{
+			wait();
+		}
+		
+		// The job with the coarsest pass left is rendered first
+		RenderJob next = null;
+		for (RenderJob job : this.jobs.values())
+		{
+			if (next == null || job.step > next.step)
+				next = job;
+		}
+		
+		return next;
+	}
+	
+	private synchronized boolean onPassRendered(RenderJob job, boolean failed)
+	{
+		job.previousStep = job.step;
+		job.step /= 2;
+		
+		// Finished jobs are removed unless they have already been replaced
+		if ((job.step == 0 || failed) && this.jobs.get(job.target) == job)
+		{
+			this.jobs.remove(job.target);
+			notifyAll();
+		}
+		
+		return job.step == 0 && !failed;
+	}
+	
+	
+	// SUBCLASSES	-------------------------------------------------
+	
+	private static class RenderJob
+	{
+		// ATTRIBUTES	---------------------------------------------
+		
+		private FunctionImage image;
+		private BufferedImage target;
+		private int[] pixels;
+		private int step, previousStep;
+		private long structureHash;
+		
+		
+		// CONSTRUCTOR	---------------------------------------------
+		
+		public RenderJob(FunctionImage image, BufferedImage target)
+		{
+			// Initializes attributes
+			this.image = image;
+			this.target = target;
+			this.pixels = ((DataBufferInt) target.getRaster().getDataBuffer()).getData();
+			this.step = COARSEST_STEP;
+			this.previousStep = 0;
+			this.structureHash = image.getStructureHash();
+		}
+	}
+	
+	private class Worker implements Runnable
+	{
+		// IMPLEMENTED METHODS	-------------------------------------
+		
+		@Override
+		public void run()
+		{
+			try
+			{
+				while (true)
+				{
+					RenderJob job = getNextJob();
+					boolean failed = false;
+					
+					try
+					{
+						ProgressiveRenderer.this.renderer.renderPass(job.image, 
+								job.target.getWidth(), job.target.getHeight(), job.pixels, 
+								job.step, job.previousStep);
+					}
+					catch (RuntimeException e)
+					{
+						// Images that can't be rendered are skipped
+						System.err.println("Failed to render an image");
+						e.printStackTrace();
+						failed = true;
+					}
+					
+					// Completed images are cached
+					RenderCache cache = ProgressiveRenderer.this.cache;
+					if (onPassRendered(job, failed) && cache != null)
+						cache.store(job.structureHash, job.target);
+				}
+			}
+			catch (InterruptedException e)
+			{
+				// The rendering stops when the thread is interrupted
+			}
+		}
+	}
+}
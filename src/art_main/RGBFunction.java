@@ -0,0 +1,21 @@
+package art_main;
+
+/**
+ * RGBFunctions calculate the colour of a single pixel. They are usually created from 
+ * functionImages so that the images can be drawn without walking the function trees. 
+ * RGBFunctions can be used by multiple threads at the same time.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public interface RGBFunction
+{
+	/**
+	 * Calculates the rgb value of a pixel
+	 * @param x The x-coordinate of the pixel (first parameter)
+	 * @param y The y-coordinate of the pixel (second parameter)
+	 * @return The rgb value of the pixel, the same {@link FunctionImage#getRGB(double[])} 
+	 * would return
+	 */
+	public int rgb(double x, double y);
+}
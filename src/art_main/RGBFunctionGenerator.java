@@ -0,0 +1,479 @@
+package art_main;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+
+/**
+ * RGBFunctionGenerator turns functionImages into generated classes that calculate the 
+ * image colours with straight-line bytecode. The classes are defined as hidden classes so 
+ * that they can be unloaded once the rgbFunction isn't used anymore. Images that are too 
+ * large, or that can't be generated on the running platform, are interpreted instead.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public class RGBFunctionGenerator
+{
+	// ATTRIBUTES	--------------------------------------------
+	
+	/**
+	 * How many program instructions a generated class may contain at most. Larger images 
+	 * are interpreted, since very large methods wouldn't be compiled by the JIT anyway.
+	 */
+	public static final int MAX_GENERATED_INSTRUCTIONS = 2000;
+	
+	private static final String CLASS_NAME = "art_main/GeneratedRGBFunction";
+	private static final String IMAGE_CLASS_NAME = "art_main/FunctionImage";
+	
+	private static Method defineHiddenClassMethod = null;
+	private static Object[] noClassOptions = null;
+	private static boolean hiddenClassesChecked = false;
+	
+	
+	// CONSTRUCTOR	--------------------------------------------
+	
+	private RGBFunctionGenerator()
+	{
+		// The constructor is hidden since the interface is static
+	}
+
+	
+	// OTHER METHODS	----------------------------------------
+	
+	/**
+	 * Creates an rgbFunction that calculates the same colours as the given programs
+	 * 
+	 * @param programs The compiled functions of an image. The first one is the reference 
+	 * function, the others are the red, green and blue functions.
+	 * @return An rgbFunction that calculates the image's colours. The function is a 
+	 * generated class if possible, an interpreter otherwise.
+	 */
+	public static RGBFunction createRGBFunction(FunctionProgram[] programs)
+	{
+		// Large and invalid images are interpreted
+		if (canBeGenerated(programs))
+		{
+			RGBFunction generated = defineRGBFunction(generateClass(programs));
+			if (generated != null)
+				return generated;
+		}
+		
+		return new InterpretedRGBFunction(programs);
+	}
+	
+	private static boolean canBeGenerated(FunctionProgram[] programs)
+	{
+		int instructions = 0;
+		for (int i = 0; i < programs.length; i++)
+		{
+			instructions += programs[i].getLength();
+			
+			// The reference function has two parameters, the colour functions three. The 
+			// interpreter reports the missing parameters when the image is used.
+			if (programs[i].getRequiredParameterAmount() > (i == 0 ? 2 : 3))
+				return false;
+		}
+		
+		return instructions <= MAX_GENERATED_INSTRUCTIONS;
+	}
+	
+	private static RGBFunction defineRGBFunction(byte[] classBytes)
+	{
+		if (!hiddenClassesChecked)
+			findHiddenClassSupport();
+		if (defineHiddenClassMethod == null)
+			return null;
+		
+		try
+		{
+			// The hidden class isn't strongly bound to the class loader, which allows it to 
+			// be unloaded with its last instance
+			MethodHandles.Lookup hiddenLookup = (MethodHandles.Lookup) 
+					defineHiddenClassMethod.invoke(MethodHandles.lookup(), classBytes, true, 
+					noClassOptions);
+			return (RGBFunction) hiddenLookup.lookupClass().getConstructor().newInstance();
+		}
+		catch (ReflectiveOperationException | LinkageError e)
+		{
+			System.err.println("Failed to define a generated rgbFunction");
+			e.printStackTrace();
+			return null;
+		}
+	}
+	
+	private static synchronized void findHiddenClassSupport()
+	{
+		if (hiddenClassesChecked)
+			return;
+		
+		// Hidden classes are only available on newer platforms
+		try
+		{
+			Class<?> optionClass = Class.forName(
+					"java.lang.invoke.MethodHandles$Lookup$ClassOption");
+			Object options = Array.newInstance(optionClass, 0);
+			defineHiddenClassMethod = MethodHandles.Lookup.class.getMethod(
+					"defineHiddenClass", byte[].class, boolean.class, options.getClass());
+			noClassOptions = (Object[]) options;
+		}
+		catch (ReflectiveOperationException e)
+		{
+			System.err.println("Hidden classes aren't supported, images will be interpreted");
+			defineHiddenClassMethod = null;
+		}
+		
+		hiddenClassesChecked = true;
+	}
+	
+	private static byte[] generateClass(FunctionProgram[] programs)
+	{
+		ConstantPool pool = new ConstantPool();
+		int thisClass = pool.getClass(CLASS_NAME);
+		int superClass = pool.getClass("java/lang/Object");
+		int interfaceClass = pool.getClass("art_main/RGBFunction");
+		int objectConstructor = pool.getMethod("java/lang/Object", "<init>", "()V");
+		int constructorName = pool.getUtf8("<init>");
+		int constructorType = pool.getUtf8("()V");
+		int rgbName = pool.getUtf8("rgb");
+		int rgbType = pool.getUtf8("(DD)I");
+		int codeName = pool.getUtf8("Code");
+		
+		// The constructor only calls the super constructor
+		ByteArrayOutputStream constructorCode = new ByteArrayOutputStream();
+		constructorCode.write(0x2a); // aload_0
+		writeInstruction(constructorCode, 0xb7, objectConstructor); // invokespecial
+		constructorCode.write(0xb1); // return
+		
+		// The rgb method calculates each function in turn. Local variables: 
+		// this (0), x (1-2), y (3-4), reference value (5-6), registers (7-)
+		ByteArrayOutputStream rgbCode = new ByteArrayOutputStream();
+		int maxStack = 0;
+		int maxLocals = 7;
+		for (int i = 0; i < programs.length; i++)
+		{
+			int programStack = writeProgram(rgbCode, programs[i], pool);
+			
+			if (i == 0)
+			{
+				writeInstruction(rgbCode, 0xb8, pool.getMethod(IMAGE_CLASS_NAME, 
+						"wrapReferenceValue", "(D)D")); // invokestatic
+				rgbCode.write(0x39); // dstore
+				rgbCode.write(5);
+			}
+			else
+				writeInstruction(rgbCode, 0xb8, pool.getMethod(IMAGE_CLASS_NAME, 
+						"wrapColourValue", "(D)I")); // invokestatic
+			
+			// The previously calculated colours stay in the stack as ints
+			int stackSize = programStack + Math.max(0, i - 1);
+			if (stackSize > maxStack)
+				maxStack = stackSize;
+			// Each function reuses the same register variables
+			int locals = 7 + 2 * programs[i].getRegisterAmount();
+			if (locals > maxLocals)
+				maxLocals = locals;
+		}
+		writeInstruction(rgbCode, 0xb8, pool.getMethod(IMAGE_CLASS_NAME, "packRGB", 
+				"(III)I")); // invokestatic
+		rgbCode.write(0xac); // ireturn
+		
+		try
+		{
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(bytes);
+			
+			out.writeInt(0xCAFEBABE);
+			out.writeShort(0);
+			out.writeShort(52);
+			pool.write(out);
+			out.writeShort(0x0031); // public final super
+			out.writeShort(thisClass);
+			out.writeShort(superClass);
+			out.writeShort(1);
+			out.writeShort(interfaceClass);
+			out.writeShort(0); // fields
+			out.writeShort(2); // methods
+			writeMethod(out, constructorName, constructorType, codeName, 1, 1, 
+					constructorCode.toByteArray());
+			writeMethod(out, rgbName, rgbType, codeName, Math.max(maxStack, 3), maxLocals, 
+					rgbCode.toByteArray());
+			out.writeShort(0); // attributes
+			
+			return bytes.toByteArray();
+		}
+		catch (IOException e)
+		{
+			// Byte array streams don't throw
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	private static int writeProgram(ByteArrayOutputStream code, FunctionProgram program, 
+			ConstantPool pool)
+	{
+		// The height of the operand stack is followed in slots (two per double)
+		int stack = 0;
+		int maxStack = 0;
+		for (int i = 0; i < program.getLength(); i++)
+		{
+			switch (program.getOpcode(i))
+			{
+				case FunctionProgram.PUSH_CONSTANT:
+					writeInstruction(code, 0x14, 
+							pool.getDouble(program.getConstant(program.getOperand(i)))); // ldc2_w
+					stack += 2;
+					break;
+				case FunctionProgram.PUSH_PARAMETER:
+					writeLocalInstruction(code, 0x18, 1 + 2 * program.getOperand(i)); // dload
+					stack += 2;
+					break;
+				case FunctionProgram.STORE_REGISTER:
+					// The stored value is on top of the stack twice for a moment
+					code.write(0x5c); // dup2
+					maxStack = Math.max(maxStack, stack + 2);
+					writeLocalInstruction(code, 0x39, 7 + 2 * program.getOperand(i)); // dstore
+					break;
+				case FunctionProgram.LOAD_REGISTER:
+					writeLocalInstruction(code, 0x18, 7 + 2 * program.getOperand(i)); // dload
+					stack += 2;
+					break;
+				case FunctionProgram.ADDITION: code.write(0x63); stack -= 2; break; // dadd
+				case FunctionProgram.SUBTRACTION: code.write(0x67); stack -= 2; break; // dsub
+				case FunctionProgram.MULTIPLICATION: code.write(0x6b); stack -= 2; break; // dmul
+				case FunctionProgram.DIVISION: code.write(0x6f); stack -= 2; break; // ddiv
+				case FunctionProgram.MODULO: code.write(0x73); stack -= 2; break; // drem
+				case FunctionProgram.POWER: 
+					writeMathCall(code, pool, "pow", "(DD)D");
+					stack -= 2;
+					break;
+				case FunctionProgram.SIN: writeMathCall(code, pool, "sin", "(D)D"); break;
+				case FunctionProgram.COS: writeMathCall(code, pool, "cos", "(D)D"); break;
+				case FunctionProgram.TAN: writeMathCall(code, pool, "tan", "(D)D"); break;
+				case FunctionProgram.ARCSIN: writeMathCall(code, pool, "asin", "(D)D"); break;
+				case FunctionProgram.ARCOS: writeMathCall(code, pool, "acos", "(D)D"); break;
+				case FunctionProgram.ARCTAN: writeMathCall(code, pool, "atan", "(D)D"); break;
+				case FunctionProgram.SQRT: writeMathCall(code, pool, "sqrt", "(D)D"); break;
+				case FunctionProgram.CBRT: writeMathCall(code, pool, "cbrt", "(D)D"); break;
+			}
+			maxStack = Math.max(maxStack, stack);
+		}
+		
+		return maxStack;
+	}
+	
+	private static void writeMathCall(ByteArrayOutputStream code, ConstantPool pool, 
+			String name, String type)
+	{
+		writeInstruction(code, 0xb8, pool.getMethod("java/lang/Math", name, type));
+	}
+	
+	private static void writeLocalInstruction(ByteArrayOutputStream code, int opcode, 
+			int local)
+	{
+		// Variables past 255 need the wide form of the instruction
+		if (local > 255)
+		{
+			code.write(0xc4); // wide
+			writeInstruction(code, opcode, local);
+		}
+		else
+		{
+			code.write(opcode);
+			code.write(local);
+		}
+	}
+	
+	private static void writeInstruction(ByteArrayOutputStream code, int opcode, int index)
+	{
+		code.write(opcode);
+		code.write((index >> 8) & 0xFF);
+		code.write(index & 0xFF);
+	}
+	
+	private static void writeMethod(DataOutputStream out, int name, int type, int codeName, 
+			int maxStack, int maxLocals, byte[] code) throws IOException
+	{
+		out.writeShort(0x0001); // public
+		out.writeShort(name);
+		out.writeShort(type);
+		out.writeShort(1);
+		
+		// The code attribute has no exception table and no attributes of its own
+		out.writeShort(codeName);
+		out.writeInt(12 + code.length);
+		out.writeShort(maxStack);
+		out.writeShort(maxLocals);
+		out.writeInt(code.length);
+		out.write(code);
+		out.writeShort(0);
+		out.writeShort(0);
+	}
+	
+	
+	// SUBCLASSES	---------------------------------------------
+	
+	private static class ConstantPool
+	{
+		// ATTRIBUTES	-----------------------------------------
+		
+		private ByteArrayOutputStream bytes;
+		private HashMap<Object, Integer> indices;
+		private int size;
+		
+		
+		// CONSTRUCTOR	-----------------------------------------
+		
+		public ConstantPool()
+		{
+			// Initializes attributes
+			this.bytes = new ByteArrayOutputStream();
+			this.indices = new HashMap<Object, Integer>();
+			this.size = 1;
+		}
+		
+		
+		// OTHER METHODS	-------------------------------------
+		
+		public int getUtf8(String value)
+		{
+			Integer index = this.indices.get(value);
+			if (index != null)
+				return index;
+			
+			// The generated names only contain ascii characters
+			byte[] utf = value.getBytes(StandardCharsets.UTF_8);
+			this.bytes.write(1);
+			writeShort(utf.length);
+			this.bytes.write(utf, 0, utf.length);
+			
+			return add(value, 1);
+		}
+		
+		public int getClass(String name)
+		{
+			String key = "Class " + name;
+			Integer index = this.indices.get(key);
+			if (index != null)
+				return index;
+			
+			int nameIndex = getUtf8(name);
+			this.bytes.write(7);
+			writeShort(nameIndex);
+			
+			return add(key, 1);
+		}
+		
+		public int getMethod(String owner, String name, String type)
+		{
+			String key = "Method " + owner + "." + name + type;
+			Integer index = this.indices.get(key);
+			if (index != null)
+				return index;
+			
+			int classIndex = getClass(owner);
+			int nameIndex = getUtf8(name);
+			int typeIndex = getUtf8(type);
+			
+			this.bytes.write(12); // NameAndType
+			writeShort(nameIndex);
+			writeShort(typeIndex);
+			int nameAndTypeIndex = add(key + " NameAndType", 1);
+			
+			this.bytes.write(10); // Methodref
+			writeShort(classIndex);
+			writeShort(nameAndTypeIndex);
+			
+			return add(key, 1);
+		}
+		
+		public int getDouble(double value)
+		{
+			// The constants are identified by their bits so that NaN and -0 stay separate
+			Long key = Double.doubleToRawLongBits(value);
+			Integer index = this.indices.get(key);
+			if (index != null)
+				return index;
+			
+			long bits = Double.doubleToRawLongBits(value);
+			this.bytes.write(6);
+			writeShort((int) (bits >>> 48));
+			writeShort((int) (bits >>> 32));
+			writeShort((int) (bits >>> 16));
+			writeShort((int) bits);
+			
+			// Doubles take two constant pool slots
+			return add(key, 2);
+		}
+		
+		public void write(DataOutputStream target) throws IOException
+		{
+			target.writeShort(this.size);
+			this.bytes.writeTo(target);
+		}
+		
+		private void writeShort(int value)
+		{
+			this.bytes.write((value >> 8) & 0xFF);
+			this.bytes.write(value & 0xFF);
+		}
+		
+		private int add(Object key, int slots)
+		{
+			int index = this.size;
+			this.indices.put(key, index);
+			this.size += slots;
+			return index;
+		}
+	}
+	
+	private static class InterpretedRGBFunction implements RGBFunction
+	{
+		// ATTRIBUTES	-----------------------------------------
+		
+		private ThreadLocal<ImageProgram> programs;
+		private ThreadLocal<double[]> args;
+		
+		
+		// CONSTRUCTOR	-----------------------------------------
+		
+		public InterpretedRGBFunction(final FunctionProgram[] programs)
+		{
+			// Initializes attributes
+			// Each thread needs its own buffers but the programs can be shared
+			this.programs = new ThreadLocal<ImageProgram>()
+			{
+				@Override
+				protected ImageProgram initialValue()
+				{
+					return new ImageProgram(programs);
+				}
+			};
+			this.args = new ThreadLocal<double[]>()
+			{
+				@Override
+				protected double[] initialValue()
+				{
+					return new double[2];
+				}
+			};
+		}
+		
+		
+		// IMPLEMENTED METHODS	---------------------------------
+		
+		@Override
+		public int rgb(double x, double y)
+		{
+			double[] args = this.args.get();
+			args[0] = x;
+			args[1] = y;
+			return this.programs.get().getRGB(args);
+		}
+	}
+}
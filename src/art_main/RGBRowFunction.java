@@ -0,0 +1,22 @@
+package art_main;
+
+/**
+ * RGBRowFunctions calculate the colours of multiple pixels at once. Like rgbFunctions, they 
+ * are created from functionImages and can be used by multiple threads at the same time.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public interface RGBRowFunction
+{
+	/**
+	 * Calculates the rgb values of a set of pixels
+	 * @param xs The x-coordinates of the pixels (first parameter)
+	 * @param ys The y-coordinates of the pixels (second parameter)
+	 * @param length How many pixels are calculated
+	 * @param output The array the rgb values are written into. The values are the same 
+	 * {@link FunctionImage#getRGB(double[])} would return.
+	 * @param offset The index of the first written rgb value in the output array
+	 */
+	public void getRGBs(double[] xs, double[] ys, int length, int[] output, int offset);
+}
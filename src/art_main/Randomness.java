@@ -0,0 +1,114 @@
+package art_main;
+
+import java.util.SplittableRandom;
+
+/**
+ * Randomness creates the random number generators used when images are bred. Each run has 
+ * a seed and each generation gets its own generator derived from the seed and the number 
+ * of the generation. Parallel workers should use streams split from the generation's 
+ * generator, so that the same seed and generation number always produce the same 
+ * population from the same parents.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public class Randomness
+{
+	// ATTRIBUTES	-------------------------------------------------
+	
+	/**
+	 * The system property that can be used for setting the seed of the run
+	 */
+	public static final String SEED_PROPERTY = "art.seed";
+	
+	private static Long runSeed = null;
+	
+	
+	// CONSTRUCTOR	-------------------------------------------------
+	
+	private Randomness()
+	{
+		// The constructor is hidden since the interface is static
+	}
+	
+	
+	// GETTERS & SETTERS	-------------------------------------------
+	
+	/**
+	 * @return The seed used in this run. The seed is read from the {@value #SEED_PROPERTY} 
+	 * system property. If the property hasn't been set, a random seed is picked once.
+	 */
+	public static synchronized long getRunSeed()
+	{
+		if (runSeed == null)
+		{
+			runSeed = Long.getLong(SEED_PROPERTY);
+			if (runSeed == null)
+				runSeed = new SplittableRandom().nextLong();
+		}
+		
+		return runSeed;
+	}
+	
+	/**
+	 * Changes the seed used in this run
+	 * @param seed The new seed of the run
+	 */
+	public static synchronized void setRunSeed(long seed)
+	{
+		runSeed = seed;
+	}
+	
+	
+	// OTHER METHODS	-----------------------------------------------
+	
+	/**
+	 * @param generation The number of the generation
+	 * @return The random number generator used for creating the generation in this run
+	 */
+	public static SplittableRandom createGenerationRandom(long generation)
+	{
+		return createGenerationRandom(getRunSeed(), generation);
+	}
+	
+	/**
+	 * Creates the random number generator used for creating a generation. The seeds of 
+	 * different generations are scrambled so that their streams don't overlap.
+	 * 
+	 * @param runSeed The seed of the run
+	 * @param generation The number of the generation
+	 * @return The random number generator used for creating the generation
+	 */
+	public static SplittableRandom createGenerationRandom(long runSeed, long generation)
+	{
+		return new SplittableRandom(mix(runSeed ^ mix(generation)));
+	}
+	
+	/**
+	 * Parses a seed from a string. The seed may be a number or any other text, in which 
+	 * case the hash of the text is used.
+	 * 
+	 * @param seed The seed as a string
+	 * @return The parsed seed
+	 */
+	public static long parseSeed(String seed)
+	{
+		try
+		{
+			return Long.parseLong(seed.trim());
+		}
+		catch (NumberFormatException e)
+		{
+			return seed.hashCode();
+		}
+	}
+	
+	private static long mix(long value)
+	{
+		// The finalizer of the SplitMix64 generator
+		long mixed = value + 0x9E3779B97F4A7C15L;
+		mixed = (mixed ^ (mixed >>> 30)) * 0xBF58476D1CE4E5B9L;
+		mixed = (mixed ^ (mixed >>> 27)) * 0x94D049BB133111EBL;
+		return mixed ^ (mixed >>> 31);
+	}
+}
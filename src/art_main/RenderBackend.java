@@ -0,0 +1,53 @@
+package art_main;
+
+/**
+ * RenderBackends are the different ways a functionRenderer can calculate the pixel values
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public enum RenderBackend
+{
+	/**
+	 * The function trees are calculated in batches, one tile row at a time
+	 */
+	BATCH, 
+	/**
+	 * The images are turned into generated classes that calculate each pixel with 
+	 * straight-line code
+	 */
+	GENERATED, 
+	/**
+	 * The compiled functions are calculated for multiple pixels at once with the vector 
+	 * api. Only available when the jdk.incubator.vector module is enabled.
+	 */
+	VECTOR;
+	
+	
+	// OTHER METHODS	------------------------------------------
+	
+	/**
+	 * Finds the backend with the given name
+	 * 
+	 * @param name The name of the backend (case-insensitive). May be null.
+	 * @param defaultBackend The backend that is returned if there is no backend with the 
+	 * given name
+	 * @return The backend with the given name or the default backend
+	 */
+	public static RenderBackend parse(String name, RenderBackend defaultBackend)
+	{
+		if (name != null)
+		{
+			for (RenderBackend backend : values())
+			{
+				if (backend.name().equalsIgnoreCase(name.trim()))
+					return backend;
+			}
+			
+			System.err.println("Unknown render backend " + name + ", using " + 
+					defaultBackend);
+		}
+		
+		return defaultBackend;
+	}
+}
@@ -0,0 +1,242 @@
+package art_main;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * RenderCache holds the pixels of recently rendered functionImages. The pixels are found 
+ * with the structure hash of the image and the size of the rendered area, so images that 
+ * are exact copies of each other are only rendered once. When the cache grows over its 
+ * memory limit, the least recently used pixels are removed.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public class RenderCache
+{
+	// ATTRIBUTES	-------------------------------------------------
+	
+	/**
+	 * The system property that can be used for setting the size of the default cache in 
+	 * megabytes
+	 */
+	public static final String SIZE_PROPERTY = "art.renderCacheSize";
+	
+	private static RenderCache defaultCache = null;
+	
+	private LinkedHashMap<Key, int[]> pixels;
+	private long maxMemoryUsage, memoryUsage;
+	private long hits, misses;
+	
+	
+	// CONSTRUCTOR	-------------------------------------------------
+	
+	/**
+	 * Creates a new empty cache
+	 * 
+	 * @param maxMemoryUsage How many bytes the cached pixels may take at most
+	 */
+	public RenderCache(long maxMemoryUsage)
+	{
+		// Initializes attributes
+		this.pixels = new LinkedHashMap<Key, int[]>(16, 0.75f, true);
+		this.maxMemoryUsage = maxMemoryUsage;
+		this.memoryUsage = 0;
+		this.hits = 0;
+		this.misses = 0;
+	}
+	
+	
+	// GETTERS & SETTERS	-------------------------------------------
+	
+	/**
+	 * @return The cache used when no other cache has been specified. The size of the cache 
+	 * is read from the {@value #SIZE_PROPERTY} system property, 64 megabytes by default.
+	 */
+	public static synchronized RenderCache getDefaultCache()
+	{
+		if (defaultCache == null)
+			defaultCache = new RenderCache(Long.getLong(SIZE_PROPERTY, 64) * 1024 * 1024);
+		
+		return defaultCache;
+	}
+	
+	/**
+	 * @return How many times the pixels of an image were found from the cache
+	 */
+	public synchronized long getHits()
+	{
+		return this.hits;
+	}
+	
+	/**
+	 * @return How many times the pixels of an image weren't found from the cache
+	 */
+	public synchronized long getMisses()
+	{
+		return this.misses;
+	}
+	
+	/**
+	 * @return How many rendered images there are in the cache
+	 */
+	public synchronized int getSize()
+	{
+		return this.pixels.size();
+	}
+	
+	/**
+	 * @return How many bytes the cached pixels take
+	 */
+	public synchronized long getMemoryUsage()
+	{
+		return this.memoryUsage;
+	}
+	
+	
+	// OTHER METHODS	-----------------------------------------------
+	
+	/**
+	 * Copies the cached pixels of a functionImage into an image
+	 * 
+	 * @param image The functionImage that should be drawn
+	 * @param target The image the pixels are copied into. Must be of type TYPE_INT_RGB.
+	 * @return Were the pixels found from the cache. If not, the target isn't modified.
+	 */
+	public boolean load(FunctionImage image, BufferedImage target)
+	{
+		long structureHash = image.getStructureHash();
+		
+		synchronized (this)
+		{
+			int[] cached = this.pixels.get(new Key(structureHash, target.getWidth(), 
+					target.getHeight()));
+			if (cached == null)
+			{
+				this.misses ++;
+				return false;
+			}
+			
+			this.hits ++;
+			System.arraycopy(cached, 0, getPixels(target), 0, cached.length);
+			return true;
+		}
+	}
+	
+	/**
+	 * Stores the pixels of a rendered functionImage
+	 * 
+	 * @param image The functionImage that was rendered
+	 * @param source The image the functionImage was rendered into. Must be of type 
+	 * TYPE_INT_RGB.
+	 */
+	public void store(FunctionImage image, BufferedImage source)
+	{
+		store(image.getStructureHash(), source);
+	}
+	
+	/**
+	 * Stores the pixels of a rendered functionImage
+	 * 
+	 * @param structureHash The structure hash of the functionImage that was rendered
+	 * @param source The image the functionImage was rendered into. Must be of type 
+	 * TYPE_INT_RGB.
+	 */
+	public void store(long structureHash, BufferedImage source)
+	{
+		int[] copy = getPixels(source).clone();
+		long size = 4L * copy.length;
+		
+		synchronized (this)
+		{
+			// Images larger than the whole cache aren't stored
+			if (size > this.maxMemoryUsage)
+				return;
+			
+			int[] previous = this.pixels.put(new Key(structureHash, source.getWidth(), 
+					source.getHeight()), copy);
+			this.memoryUsage += size;
+			if (previous != null)
+				this.memoryUsage -= 4L * previous.length;
+			
+			// The least recently used pixels are removed until the cache fits in memory
+			Iterator<Map.Entry<Key, int[]>> iterator = this.pixels.entrySet().iterator();
+			while (this.memoryUsage > this.maxMemoryUsage && iterator.hasNext())
+			{
+				this.memoryUsage -= 4L * iterator.next().getValue().length;
+				iterator.remove();
+			}
+		}
+	}
+	
+	/**
+	 * Removes all pixels from the cache. The statistics are kept.
+	 */
+	public synchronized void clear()
+	{
+		this.pixels.clear();
+		this.memoryUsage = 0;
+	}
+	
+	/**
+	 * @return A description of the cache's hits and misses
+	 */
+	public synchronized String getStatistics()
+	{
+		long total = this.hits + this.misses;
+		return "Render cache: " + this.hits + " hits, " + this.misses + " misses (" + 
+				(total == 0 ? 0 : 100 * this.hits / total) + "% hit rate), " + 
+				this.pixels.size() + " images, " + this.memoryUsage / 1024 + " kB";
+	}
+	
+	private static int[] getPixels(BufferedImage image)
+	{
+		return ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+	}
+	
+	
+	// SUBCLASSES	-------------------------------------------------
+	
+	private static class Key
+	{
+		// ATTRIBUTES	---------------------------------------------
+		
+		private long structureHash;
+		private int width, height;
+		
+		
+		// CONSTRUCTOR	---------------------------------------------
+		
+		public Key(long structureHash, int width, int height)
+		{
+			// Initializes attributes
+			this.structureHash = structureHash;
+			this.width = width;
+			this.height = height;
+		}
+		
+		
+		// IMPLEMENTED METHODS	-------------------------------------
+		
+		@Override
+		public boolean equals(Object other)
+		{
+			if (!(other instanceof Key))
+				return false;
+			
+			Key key = (Key) other;
+			return this.structureHash == key.structureHash && this.width == key.width && 
+					this.height == key.height;
+		}
+		
+		@Override
+		public int hashCode()
+		{
+			return (int) (this.structureHash ^ (this.structureHash >>> 32)) * 31 * 31 + 
+					this.width * 31 + this.height;
+		}
+	}
+}
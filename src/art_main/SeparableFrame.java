@@ -0,0 +1,166 @@
+package art_main;
+
+import java.util.ArrayList;
+
+/**
+ * SeparableFrame holds the compiled form of a functionImage for rendering a single frame 
+ * size. The subtrees that depend on the x- or the y-coordinate only are calculated once 
+ * for each column or row of the frame and stored in lookup tables, so that they don't have 
+ * to be calculated again for each pixel. The reference value given to the colour 
+ * functions is handled the same way when the reference function depends on a single axis.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public class SeparableFrame
+{
+	// ATTRIBUTES	-------------------------------------------------
+	
+	private static final int[] REFERENCE_PARAMETER_AXES = {FunctionProgram.X_AXIS, 
+			FunctionProgram.Y_AXIS};
+	
+	private final FunctionProgram[] programs;
+	private final double[][] lookups;
+	private final int width, height;
+	
+	
+	// CONSTRUCTOR	-------------------------------------------------
+	
+	/**
+	 * Creates a new frame and calculates its lookup tables
+	 * 
+	 * @param functions The reference, red, green and blue functions of the image
+	 * @param referenceProgram The compiled reference function
+	 * @param width The width of the frame in pixels
+	 * @param height The height of the frame in pixels
+	 */
+	SeparableFrame(Function[] functions, FunctionProgram referenceProgram, int width, 
+			int height)
+	{
+		// Initializes attributes
+		this.width = width;
+		this.height = height;
+		this.programs = new FunctionProgram[functions.length];
+		
+		// The reference value depends on the same axes as the reference function
+		int referenceAxes = getAxes(functions[0].getParameterMask());
+		int[] colourParameterAxes = {FunctionProgram.X_AXIS, FunctionProgram.Y_AXIS, 
+				referenceAxes};
+		
+		ArrayList<FunctionProgram> lookupPrograms = new ArrayList<FunctionProgram>();
+		ArrayList<Integer> lookupAxes = new ArrayList<Integer>();
+		for (int i = 0; i < functions.length; i++)
+		{
+			this.programs[i] = FunctionProgram.compileSeparable(functions[i], 
+					i == 0 ? REFERENCE_PARAMETER_AXES : colourParameterAxes, lookupPrograms, 
+					lookupAxes);
+		}
+		
+		// Calculates the lookup tables along each axis
+		this.lookups = new double[lookupPrograms.size()][];
+		if (this.lookups.length == 0)
+			return;
+		
+		ValueBuffers buffers = new ValueBuffers();
+		for (int axis = 0; axis < 2; axis++)
+		{
+			int length = axis == 0 ? width : height;
+			double[] coordinates = new double[length];
+			double[] zeros = new double[length];
+			for (int i = 0; i < length; i++)
+			{
+				coordinates[i] = i;
+			}
+			
+			double[][] args = new double[3][];
+			args[axis] = coordinates;
+			args[1 - axis] = zeros;
+			
+			// The colour functions' lookups may need the reference values along the axis
+			args[2] = zeros;
+			if ((referenceAxes & ~(axis == 0 ? FunctionProgram.X_AXIS : 
+					FunctionProgram.Y_AXIS)) == 0)
+			{
+				double[] referenceValues = new double[length];
+				referenceProgram.getValues(args, length, referenceValues, buffers);
+				for (int i = 0; i < length; i++)
+				{
+					referenceValues[i] = FunctionImage.wrapReferenceValue(referenceValues[i]);
+				}
+				args[2] = referenceValues;
+			}
+			
+			for (int i = 0; i < this.lookups.length; i++)
+			{
+				if (lookupAxes.get(i) == axis)
+				{
+					this.lookups[i] = new double[length];
+					lookupPrograms.get(i).getValues(args, length, this.lookups[i], buffers);
+				}
+			}
+		}
+	}
+	
+	
+	// GETTERS & SETTERS	-------------------------------------------
+	
+	/**
+	 * @return The width of the frame in pixels
+	 */
+	public int getWidth()
+	{
+		return this.width;
+	}
+	
+	/**
+	 * @return The height of the frame in pixels
+	 */
+	public int getHeight()
+	{
+		return this.height;
+	}
+	
+	/**
+	 * @return How many single-axis subtrees were precalculated into lookup tables
+	 */
+	public int getLookupAmount()
+	{
+		return this.lookups.length;
+	}
+	
+	
+	// OTHER METHODS	-----------------------------------------------
+	
+	/**
+	 * Calculates the rgb values for a batch of pixels. The values are the same as 
+	 * {@link FunctionImage#getRGBs(double[][], int, int[], int, ValueBuffers)} would give.
+	 * 
+	 * @param args The coordinates of the pixels. args[0] holds the x-coordinates and 
+	 * args[1] the y-coordinates. The coordinates must be integers inside the frame.
+	 * @param length How many rgb values are calculated
+	 * @param output The array the rgb values are written into
+	 * @param offset The index of the first written rgb value in the output array
+	 * @param buffers The buffers used for holding temporary values
+	 */
+	public void getRGBs(double[][] args, int length, int[] output, int offset, 
+			ValueBuffers buffers)
+	{
+		FunctionImage.getRGBs(this.programs, this.lookups, args, length, output, offset, 
+				buffers);
+	}
+	
+	private static int getAxes(int parameterMask)
+	{
+		// Only the first two parameters are coordinates
+		if ((parameterMask & ~(1 | 2)) != 0)
+			return FunctionProgram.BOTH_AXES;
+		
+		int axes = FunctionProgram.NO_AXIS;
+		if ((parameterMask & 1) != 0)
+			axes |= FunctionProgram.X_AXIS;
+		if ((parameterMask & 2) != 0)
+			axes |= FunctionProgram.Y_AXIS;
+		
+		return axes;
+	}
+}
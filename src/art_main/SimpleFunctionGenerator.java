@@ -1,7 +1,8 @@
 package art_main;
 
 import java.security.InvalidParameterException;
-import java.util.Random;
+import java.util.Arrays;
+import java.util.SplittableRandom;
 
 /**
  * SimpleFunctionGenerator creates very simple functions that may be used in more complex 
@@ -36,8 +37,19 @@ public class SimpleFunctionGenerator
 	 */
 	public static Function createSimpleFunction(int maxParameterAmount, ComplexFunction parent)
 	{
-		Random random = new Random();
+		return createSimpleFunction(maxParameterAmount, parent, new SplittableRandom());
+	}
 		
+	/**
+	 * @param maxParameterAmount How many parameters are provided when the function is used
+	 * @param parent The function that will hold the generated function. Null if the generated 
+	 * function is supposed to be individual.
+	 * @param random The random number generator used
+	 * @return A randomly generated simple function
+	 */
+	public static Function createSimpleFunction(int maxParameterAmount, ComplexFunction parent, 
+			SplittableRandom random)
+	{
 		// 50% Creates a parameter function
 		if (random.nextDouble() < 0.5)
 		{
@@ -46,7 +58,8 @@ public class SimpleFunctionGenerator
 			//	paramIndex = maxParameterAmount - 1;
 			// TODO: For some reason, this causes a nullPointer
 			
-			return new ParameterFunction(paramIndex, FunctionModifier.getRandomModifier(), parent);
+			return new ParameterFunction(paramIndex, FunctionModifier.getRandomModifier(random), 
+					parent);
 		}
 			
 		// Otherwise it's a constant function
@@ -61,7 +74,23 @@ public class SimpleFunctionGenerator
 		else
 			constant = niceConstants[random.nextInt(niceConstants.length)];
 			
-		return new ConstantFunction(constant, FunctionModifier.getRandomModifier(), parent);
+		return new ConstantFunction(constant, FunctionModifier.getRandomModifier(random), parent);
+	}
+	
+	
+	/**
+	 * Creates a function that returns one of its parameters
+	 * 
+	 * @param parameterIndex The index of the returned parameter
+	 * @param modifier The modifier used for modifying the parameter
+	 * @param parent The function that will hold the created function. Null if the function 
+	 * is supposed to be individual.
+	 * @return A parameter function
+	 */
+	public static Function createParameterFunction(int parameterIndex, 
+			FunctionModifier modifier, ComplexFunction parent)
+	{
+		return new ParameterFunction(parameterIndex, modifier, parent);
 	}
 	
 	
@@ -106,6 +135,32 @@ public class SimpleFunctionGenerator
 		{
 			return this.value;
 		}
+		
+		@Override
+		protected void getValuesWithoutModification(double[][] args, int length, 
+				double[] output, ValueBuffers buffers)
+		{
+			Arrays.fill(output, 0, length, this.value);
+		}
+		
+		@Override
+		protected Interval getIntervalWithoutModification(Interval[] args)
+		{
+			return Interval.of(this.value);
+		}
+		
+		@Override
+		protected void writeInstructionsWithoutModification(FunctionProgram.Writer writer)
+		{
+			writer.writeConstant(this.value);
+		}
+		
+		@Override
+		protected void writeInstructions(FunctionProgram.Writer writer)
+		{
+			// The modifier can be applied to the constant beforehand
+			writer.writeConstant(getValue(new double[0]));
+		}
 
 		@Override
 		protected int getSubFunctionAmount()
@@ -113,6 +168,12 @@ public class SimpleFunctionGenerator
 			return 0;
 		}
 
+		@Override
+		protected int getDepth()
+		{
+			return 0;
+		}
+
 		@Override
 		public Function createCopy()
 		{
@@ -120,11 +181,9 @@ public class SimpleFunctionGenerator
 		}
 		
 		@Override
-		public void mutate()
+		public void mutate(SplittableRandom random)
 		{
 			// There is a chance that the constant value mutates somehow
-			Random random = new Random();
-			
 			if (random.nextDouble() < 0.5)
 			{
 				if (random.nextDouble() < 0.25)
@@ -133,19 +192,28 @@ public class SimpleFunctionGenerator
 					this.value *= 0.75 + 0.5 * random.nextDouble();
 			}
 			else
-				super.mutate();
+				super.mutate(random);
 		}
 
 		@Override
 		public void simplify()
 		{
-			// Constant functions can't be made more simple
+			// Constant functions can't be made more simple. The modifier is part of the 
+			// genome, so it is only applied to the constant when the function is compiled.
 		}
 
 		@Override
-		protected boolean dependsOnParameters()
+		protected int getParameterMask()
+		{
+			return 0;
+		}
+		
+		@Override
+		public long getStructureHash()
 		{
-			return false;
+			// All NaN values give the same pixels, but -0 and 0 may not
+			return combineHashes(combineHashes(-1, Double.doubleToLongBits(this.value)), 
+					getModifier().ordinal());
 		}
 	}
 	
@@ -187,6 +255,41 @@ public class SimpleFunctionGenerator
 			
 			return args[this.parameterIndex];
 		}
+		
+		@Override
+		protected void getValuesWithoutModification(double[][] args, int length, 
+				double[] output, ValueBuffers buffers)
+		{
+			// Checks the parameter availability
+			if (this.parameterIndex >= args.length)
+			{
+				System.err.println("Can't retrieve the " + this.parameterIndex + 
+						". parameter from the given parameter list");
+				throw new InvalidParameterException();
+			}
+			
+			System.arraycopy(args[this.parameterIndex], 0, output, 0, length);
+		}
+		
+		@Override
+		protected Interval getIntervalWithoutModification(Interval[] args)
+		{
+			// Checks the parameter availability
+			if (this.parameterIndex >= args.length)
+			{
+				System.err.println("Can't retrieve the " + this.parameterIndex + 
+						". parameter from the given parameter list");
+				throw new InvalidParameterException();
+			}
+			
+			return args[this.parameterIndex];
+		}
+		
+		@Override
+		protected void writeInstructionsWithoutModification(FunctionProgram.Writer writer)
+		{
+			writer.writeParameter(this.parameterIndex);
+		}
 
 		@Override
 		protected int getSubFunctionAmount()
@@ -194,6 +297,12 @@ public class SimpleFunctionGenerator
 			return 0;
 		}
 
+		@Override
+		protected int getDepth()
+		{
+			return 0;
+		}
+
 		@Override
 		public Function createCopy()
 		{
@@ -207,9 +316,16 @@ public class SimpleFunctionGenerator
 		}
 
 		@Override
-		protected boolean dependsOnParameters()
+		protected int getParameterMask()
+		{
+			return 1 << this.parameterIndex;
+		}
+		
+		@Override
+		public long getStructureHash()
 		{
-			return true;
+			return combineHashes(combineHashes(-2, this.parameterIndex), 
+					getModifier().ordinal());
 		}
 	}
 }
@@ -0,0 +1,21 @@
+package art_main;
+
+/**
+ * SimplificationRules rewrite complex functions into simpler functions that give exactly 
+ * the same values for all parameters, NaN and infinite values included
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public interface SimplificationRule
+{
+	/**
+	 * Tries to simplify the given function. The terms of the function have already been 
+	 * simplified.
+	 * @param function The function that is simplified (won't be modified)
+	 * @return A simpler function that gives the same values as the given function. The 
+	 * returned function may reuse the terms of the given function. Null if the rule 
+	 * can't be applied to the function.
+	 */
+	public Function apply(ComplexFunction function);
+}
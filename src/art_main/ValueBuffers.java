@@ -0,0 +1,146 @@
+package art_main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * ValueBuffers hold the temporary value planes used when functions are calculated in 
+ * batches. The buffers are borrowed and released in stack order, so the same buffers can 
+ * be reused for every batch. A set of buffers shouldn't be shared between threads.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public class ValueBuffers
+{
+	// ATTRIBUTES	----------------------------------------------
+	
+	private ArrayList<double[]> buffers;
+	private int borrowed;
+	private double[][][] argArrays;
+	private ArrayList<double[][]> planeSets;
+	private int borrowedPlaneSets;
+	
+	
+	// CONSTRUCTOR	----------------------------------------------
+	
+	/**
+	 * Creates a new empty set of buffers. The buffers are created when they are needed.
+	 */
+	public ValueBuffers()
+	{
+		// Initializes attributes
+		this.buffers = new ArrayList<double[]>();
+		this.borrowed = 0;
+		this.argArrays = new double[0][][];
+		this.planeSets = new ArrayList<double[][]>();
+		this.borrowedPlaneSets = 0;
+	}
+	
+	
+	// OTHER METHODS	------------------------------------------
+	
+	/**
+	 * Borrows a buffer. The buffer must be released once it isn't used anymore.
+	 * 
+	 * @param length How many values the buffer must be able to hold
+	 * @return A buffer that holds at least the given amount of values. The contents of the 
+	 * buffer are undefined.
+	 */
+	public double[] borrow(int length)
+	{
+		double[] buffer;
+		if (this.borrowed < this.buffers.size())
+		{
+			buffer = this.buffers.get(this.borrowed);
+			if (buffer.length < length)
+			{
+				buffer = new double[length];
+				this.buffers.set(this.borrowed, buffer);
+			}
+		}
+		else
+		{
+			buffer = new double[length];
+			this.buffers.add(buffer);
+		}
+		
+		this.borrowed ++;
+		return buffer;
+	}
+	
+	/**
+	 * Borrows a set of buffers. The set must be released with {@link #releasePlanes()} 
+	 * once it isn't used anymore.
+	 * 
+	 * @param amount How many buffers the set contains at least
+	 * @param length How many values each buffer must be able to hold
+	 * @return A set of buffers. The contents of the buffers are undefined.
+	 */
+	public double[][] borrowPlanes(int amount, int length)
+	{
+		double[][] planes;
+		if (this.borrowedPlaneSets < this.planeSets.size())
+			planes = this.planeSets.get(this.borrowedPlaneSets);
+		else
+		{
+			planes = new double[0][];
+			this.planeSets.add(planes);
+		}
+		
+		if (planes.length < amount)
+		{
+			planes = Arrays.copyOf(planes, amount);
+			this.planeSets.set(this.borrowedPlaneSets, planes);
+		}
+		
+		for (int i = 0; i < amount; i++)
+		{
+			if (planes[i] == null || planes[i].length < length)
+				planes[i] = new double[length];
+		}
+		
+		this.borrowedPlaneSets ++;
+		return planes;
+	}
+	
+	/**
+	 * Releases the set of buffers that was borrowed last
+	 */
+	public void releasePlanes()
+	{
+		if (this.borrowedPlaneSets > 0)
+			this.borrowedPlaneSets --;
+	}
+	
+	/**
+	 * Finds a reusable array that can hold the parameter planes of a batch. The same array 
+	 * is returned each time the same amount of planes is requested.
+	 * 
+	 * @param amount How many parameter planes the array holds
+	 * @return An array of the given length. The contents of the array are undefined.
+	 */
+	public double[][] getArgs(int amount)
+	{
+		if (this.argArrays.length <= amount)
+		{
+			double[][][] newArrays = new double[amount + 1][][];
+			System.arraycopy(this.argArrays, 0, newArrays, 0, this.argArrays.length);
+			this.argArrays = newArrays;
+		}
+		
+		if (this.argArrays[amount] == null)
+			this.argArrays[amount] = new double[amount][];
+		
+		return this.argArrays[amount];
+	}
+	
+	/**
+	 * Releases the buffer that was borrowed last
+	 */
+	public void release()
+	{
+		if (this.borrowed > 0)
+			this.borrowed --;
+	}
+}
@@ -0,0 +1,200 @@
+package art_main;
+
+import java.lang.reflect.Constructor;
+import java.security.InvalidParameterException;
+import java.util.SplittableRandom;
+
+/**
+ * VectorBackend creates rgbRowFunctions that use the vector api. The vector api is an 
+ * incubator module which needs to be enabled at startup 
+ * (--add-modules jdk.incubator.vector). When the module is missing, or when the vector 
+ * functions don't give the same results as the scalar functions, the backend isn't 
+ * available.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+public class VectorBackend
+{
+	// ATTRIBUTES	--------------------------------------------
+	
+	private static final String FUNCTION_CLASS_NAME = "art_main.VectorRGBFunction";
+	// The checked width isn't a multiple of any lane count, so the tails are checked too. 
+	// Seven rows check every column once.
+	private static final int CHECK_WIDTH = 61;
+	private static final int CHECK_HEIGHT = 7;
+	private static final int CHECK_POPULATION = 16;
+	private static final int CHECK_GENERATIONS = 6;
+	private static final long CHECK_SEED = 1;
+	
+	private static Constructor<?> functionConstructor = null;
+	private static boolean checked = false;
+	
+	
+	// CONSTRUCTOR	--------------------------------------------
+	
+	private VectorBackend()
+	{
+		// The constructor is hidden since the interface is static
+	}
+
+	
+	// OTHER METHODS	----------------------------------------
+	
+	/**
+	 * @return Can vector functions be used on this platform. The first call checks the 
+	 * vector functions against the scalar ones.
+	 */
+	public static synchronized boolean isAvailable()
+	{
+		if (!checked)
+		{
+			checked = true;
+			
+			try
+			{
+				// The module is only present if it was added at startup
+				Class.forName("jdk.incubator.vector.DoubleVector");
+				functionConstructor = Class.forName(FUNCTION_CLASS_NAME).getConstructor(
+						FunctionProgram[].class);
+			}
+			catch (ReflectiveOperationException | LinkageError e)
+			{
+				System.err.println("The vector api isn't available, " + 
+						"add the jdk.incubator.vector module to enable it");
+				return false;
+			}
+			
+			// The vector functions are tested with a few generations of bred images, since 
+			// the first random images don't have any complex functions
+			SplittableRandom random = new SplittableRandom(CHECK_SEED);
+			FunctionImage[] images = new FunctionImage[CHECK_POPULATION];
+			for (int i = 0; i < images.length; i++)
+			{
+				images[i] = new FunctionImage(2, random);
+			}
+			
+			for (int generation = 0; generation < CHECK_GENERATIONS; generation++)
+			{
+				FunctionImage[] children = new FunctionImage[images.length];
+				for (int i = 0; i < images.length; i++)
+				{
+					FunctionImage image = images[i];
+					if (!crossCheck(image, createRowFunction(image), CHECK_WIDTH, 
+							CHECK_HEIGHT))
+					{
+						System.err.println("The vector functions don't match the scalar " + 
+								"functions, the vector api won't be used");
+						functionConstructor = null;
+						return false;
+					}
+					
+					children[i] = image.createChild(images[(i + 1 + random.nextInt(
+							images.length - 1)) % images.length], random);
+					children[i].mutate(random);
+				}
+				images = children;
+			}
+		}
+		
+		return functionConstructor != null;
+	}
+	
+	/**
+	 * Creates an rgbRowFunction that calculates the image's colours with the vector api
+	 * 
+	 * @param image The image whose colours are calculated
+	 * @return A vectorized function that gives the same colours as the image or null if 
+	 * the vector api isn't available
+	 */
+	public static RGBRowFunction createRowFunction(FunctionImage image)
+	{
+		if (!isAvailable())
+			return null;
+		
+		try
+		{
+			return (RGBRowFunction) functionConstructor.newInstance(
+					(Object) image.getPrograms());
+		}
+		catch (ReflectiveOperationException e)
+		{
+			System.err.println("Failed to create a vector function");
+			e.printStackTrace();
+			return null;
+		}
+	}
+	
+	/**
+	 * Checks that a row function gives the same colours as the scalar functions of the 
+	 * image. Every 7th pixel of the area is checked.
+	 * 
+	 * @param image The image the function was created from
+	 * @param function The function that is checked
+	 * @param width The width of the checked area
+	 * @param height The height of the checked area
+	 * @return Did the function give the same colours. Images that the scalar functions 
+	 * can't draw because of invalid parameters are accepted if the row function can't draw 
+	 * them either.
+	 */
+	public static boolean crossCheck(FunctionImage image, RGBRowFunction function, 
+			int width, int height)
+	{
+		double[] xs = new double[width];
+		double[] ys = new double[width];
+		int[] rgbs = new int[width];
+		double[] args = new double[2];
+		
+		for (int x = 0; x < width; x++)
+		{
+			xs[x] = x;
+		}
+		
+		// Images with invalid parameters must fail with both functions
+		try
+		{
+			image.getRGB(args);
+		}
+		catch (InvalidParameterException e)
+		{
+			try
+			{
+				function.getRGBs(xs, ys, width, rgbs, 0);
+				return false;
+			}
+			catch (RuntimeException vectorException)
+			{
+				return true;
+			}
+		}
+		
+		for (int y = 0; y < height; y++)
+		{
+			for (int x = 0; x < width; x++)
+			{
+				ys[x] = y;
+			}
+			
+			// Any other failure is a difference between the functions
+			try
+			{
+				function.getRGBs(xs, ys, width, rgbs, 0);
+				
+				for (int x = y % 7; x < width; x += 7)
+				{
+					args[0] = x;
+					args[1] = y;
+					if (image.getRGB(args) != rgbs[x])
+						return false;
+				}
+			}
+			catch (RuntimeException e)
+			{
+				System.err.println("Cross-checking the vector function failed: " + e);
+				return false;
+			}
+		}
+		
+		return true;
+	}
+}
@@ -0,0 +1,275 @@
+package art_main;
+
+import java.security.InvalidParameterException;
+import java.util.Arrays;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * VectorRGBFunction calculates the image colours with the vector api, processing multiple 
+ * pixels per instruction. The class requires the jdk.incubator.vector module and should 
+ * only be used through {@link VectorBackend}. Operations that aren't exact in vector form 
+ * (powers, modulo and the trigonometric modifiers) are calculated one lane at a time so 
+ * that the results stay the same as in the scalar functions.
+ * 
+ * @author Mikko Hilpinen
+ * @since 17.10.2026
+ */
+class VectorRGBFunction implements RGBRowFunction
+{
+	// ATTRIBUTES	----------------------------------------------
+	
+	private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+	
+	private FunctionProgram[] programs;
+	private int maxStackSize;
+	private ThreadLocal<Planes> planes;
+	
+	
+	// CONSTRUCTOR	----------------------------------------------
+	
+	/**
+	 * Creates a new vectorRGBFunction
+	 * 
+	 * @param programs The compiled functions of the image. The first one is the reference 
+	 * function, the others are the red, green and blue functions.
+	 */
+	public VectorRGBFunction(FunctionProgram[] programs)
+	{
+		// Initializes attributes
+		this.programs = programs;
+		this.maxStackSize = 0;
+		for (FunctionProgram program : programs)
+		{
+			if (program.getMaxStackSize() > this.maxStackSize)
+				this.maxStackSize = program.getMaxStackSize();
+		}
+		
+		this.planes = new ThreadLocal<Planes>()
+		{
+			@Override
+			protected Planes initialValue()
+			{
+				return new Planes(VectorRGBFunction.this.maxStackSize);
+			}
+		};
+	}
+	
+	
+	// IMPLEMENTED METHODS	----------------------------------------
+	
+	@Override
+	public void getRGBs(double[] xs, double[] ys, int length, int[] output, int offset)
+	{
+		Planes planes = this.planes.get();
+		planes.ensureLength(length);
+		planes.args[0] = xs;
+		planes.args[1] = ys;
+		
+		// RGB have reference function value as the last parameter
+		double[] values = evaluate(this.programs[0], planes, 2, length);
+		for (int i = 0; i < length; i++)
+		{
+			planes.reference[i] = FunctionImage.wrapReferenceValue(values[i]);
+		}
+		planes.args[2] = planes.reference;
+		
+		for (int colourIndex = 0; colourIndex < 3; colourIndex++)
+		{
+			values = evaluate(this.programs[colourIndex + 1], planes, 3, length);
+			int shift = 16 - 8 * colourIndex;
+			
+			for (int i = 0; i < length; i++)
+			{
+				int colour = FunctionImage.wrapColourValue(values[i]);
+				
+				if (colourIndex == 0)
+					output[offset + i] = FunctionImage.packRGB(0, 0, 0) | (colour << shift);
+				else
+					output[offset + i] |= colour << shift;
+			}
+		}
+	}
+	
+	
+	// OTHER METHODS	----------------------------------------------
+	
+	private static double[] evaluate(FunctionProgram program, Planes planes, 
+			int parameterAmount, int length)
+	{
+		if (program.getRequiredParameterAmount() > parameterAmount)
+		{
+			System.err.println("Can't retrieve the " + (program.getRequiredParameterAmount() - 
+					1) + ". parameter from the given parameter list");
+			throw new InvalidParameterException();
+		}
+		
+		double[][] stack = planes.stack;
+		int top = -1;
+		int registers = program.getStackDepth();
+		
+		for (int i = 0; i < program.getLength(); i++)
+		{
+			switch (program.getOpcode(i))
+			{
+				case FunctionProgram.PUSH_CONSTANT:
+					top ++;
+					Arrays.fill(stack[top], 0, length, 
+							program.getConstant(program.getOperand(i)));
+					break;
+				case FunctionProgram.PUSH_PARAMETER:
+					top ++;
+					System.arraycopy(planes.args[program.getOperand(i)], 0, stack[top], 0, 
+							length);
+					break;
+				case FunctionProgram.STORE_REGISTER:
+					System.arraycopy(stack[top], 0, stack[registers + program.getOperand(i)], 
+							0, length);
+					break;
+				case FunctionProgram.LOAD_REGISTER:
+					top ++;
+					System.arraycopy(stack[registers + program.getOperand(i)], 0, stack[top], 
+							0, length);
+					break;
+				case FunctionProgram.ADDITION:
+					top --;
+					lanewise(VectorOperators.ADD, stack[top], stack[top + 1], length);
+					break;
+				case FunctionProgram.SUBTRACTION:
+					top --;
+					lanewise(VectorOperators.SUB, stack[top], stack[top + 1], length);
+					break;
+				case FunctionProgram.MULTIPLICATION:
+					top --;
+					lanewise(VectorOperators.MUL, stack[top], stack[top + 1], length);
+					break;
+				case FunctionProgram.DIVISION:
+					top --;
+					lanewise(VectorOperators.DIV, stack[top], stack[top + 1], length);
+					break;
+				case FunctionProgram.SQRT:
+					lanewise(VectorOperators.SQRT, stack[top], length);
+					break;
+				
+				// The rest of the operations are calculated one value at a time
+				case FunctionProgram.POWER:
+					top --;
+					for (int j = 0; j < length; j++)
+					{
+						stack[top][j] = Math.pow(stack[top][j], stack[top + 1][j]);
+					}
+					break;
+				case FunctionProgram.MODULO:
+					top --;
+					for (int j = 0; j < length; j++)
+					{
+						stack[top][j] = stack[top][j] % stack[top + 1][j];
+					}
+					break;
+				case FunctionProgram.SIN:
+					FunctionModifier.SIN.modify(stack[top], length);
+					break;
+				case FunctionProgram.COS:
+					FunctionModifier.COS.modify(stack[top], length);
+					break;
+				case FunctionProgram.TAN:
+					FunctionModifier.TAN.modify(stack[top], length);
+					break;
+				case FunctionProgram.ARCSIN:
+					FunctionModifier.ARCSIN.modify(stack[top], length);
+					break;
+				case FunctionProgram.ARCOS:
+					FunctionModifier.ARCOS.modify(stack[top], length);
+					break;
+				case FunctionProgram.ARCTAN:
+					FunctionModifier.ARCTAN.modify(stack[top], length);
+					break;
+				case FunctionProgram.CBRT:
+					FunctionModifier.CBRT.modify(stack[top], length);
+					break;
+			}
+		}
+		
+		return stack[0];
+	}
+	
+	private static void lanewise(VectorOperators.Binary operator, double[] values1, 
+			double[] values2, int length)
+	{
+		int i = 0;
+		int upperBound = SPECIES.loopBound(length);
+		for (; i < upperBound; i += SPECIES.length())
+		{
+			DoubleVector.fromArray(SPECIES, values1, i).lanewise(operator, 
+					DoubleVector.fromArray(SPECIES, values2, i)).intoArray(values1, i);
+		}
+		
+		// The remaining values are handled with a mask
+		if (i < length)
+		{
+			VectorMask<Double> mask = SPECIES.indexInRange(i, length);
+			DoubleVector.fromArray(SPECIES, values1, i, mask).lanewise(operator, 
+					DoubleVector.fromArray(SPECIES, values2, i, mask)).intoArray(values1, i, 
+					mask);
+		}
+	}
+	
+	private static void lanewise(VectorOperators.Unary operator, double[] values, int length)
+	{
+		int i = 0;
+		int upperBound = SPECIES.loopBound(length);
+		for (; i < upperBound; i += SPECIES.length())
+		{
+			DoubleVector.fromArray(SPECIES, values, i).lanewise(operator).intoArray(values, i);
+		}
+		
+		// The remaining values are handled with a mask
+		if (i < length)
+		{
+			VectorMask<Double> mask = SPECIES.indexInRange(i, length);
+			DoubleVector.fromArray(SPECIES, values, i, mask).lanewise(operator).intoArray(
+					values, i, mask);
+		}
+	}
+	
+	
+	// SUBCLASSES	-------------------------------------------------
+	
+	private static class Planes
+	{
+		// ATTRIBUTES	---------------------------------------------
+		
+		private double[][] stack;
+		private double[][] args;
+		private double[] reference;
+		
+		
+		// CONSTRUCTOR	---------------------------------------------
+		
+		public Planes(int stackSize)
+		{
+			// Initializes attributes
+			this.stack = new double[stackSize][0];
+			this.args = new double[3][];
+			this.reference = new double[0];
+		}
+		
+		
+		// OTHER METHODS	-----------------------------------------
+		
+		public void ensureLength(int length)
+		{
+			if (this.reference.length >= length)
+				return;
+			
+			for (int i = 0; i < this.stack.length; i++)
+			{
+				this.stack[i] = new double[length];
+			}
+			this.reference = new double[length];
+		}
+	}
+}